@@ -0,0 +1,39 @@
+package com.example.transcriber.benchmark;
+
+import java.io.Writer;
+
+/**
+ * Discards what is written but counts it, so benchmarks can return the count and the
+ * writes cannot be optimized away
+ */
+final class CountingWriter extends Writer {
+
+    private long count;
+
+    @Override
+    public void write(int c) {
+        count++;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+        count += length;
+    }
+
+    @Override
+    public void write(String text, int offset, int length) {
+        count += length;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    long count() {
+        return count;
+    }
+}
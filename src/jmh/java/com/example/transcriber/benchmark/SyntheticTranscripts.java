@@ -0,0 +1,106 @@
+package com.example.transcriber.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * AssemblyAI-shaped transcript JSON for a recording of a given length.
+ *
+ * Two speakers alternate every few sentences at roughly 150 words per minute, and like
+ * the real API the response carries the whole text, a top-level word list and per-word
+ * timings in every utterance, so payload sizes grow the way production ones do. The
+ * same length always yields the same transcript.
+ */
+public final class SyntheticTranscripts {
+
+    private static final String[] WORDS = {
+        "the", "meeting", "we", "should", "probably", "review", "budget", "numbers", "before",
+        "friday", "and", "I", "think", "customers", "asked", "about", "delivery", "dates", "again",
+        "transcription", "quality", "looks", "good", "overall", "but", "some", "names", "are", "wrong"
+    };
+    private static final int WORDS_PER_MINUTE = 150;
+
+    private SyntheticTranscripts() {
+    }
+
+    public static byte[] json(int audioMinutes) {
+        Random random = new Random(audioMinutes);
+        int totalWords = audioMinutes * WORDS_PER_MINUTE;
+        int millisPerWord = 60_000 / WORDS_PER_MINUTE;
+
+        // Utterance lengths in words, and every word of the recording
+        List<Integer> utteranceLengths = new ArrayList<>();
+        for (int word = 0; word < totalWords; ) {
+            int length = Math.min(totalWords - word, 10 + random.nextInt(40));
+            utteranceLengths.add(length);
+            word += length;
+        }
+        String[] words = new String[totalWords];
+        for (int i = 0; i < totalWords; i++) {
+            words[i] = WORDS[random.nextInt(WORDS.length)];
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator json = new JsonFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("id", "synthetic-" + audioMinutes);
+            json.writeStringField("status", "completed");
+            json.writeNumberField("audio_duration", audioMinutes * 60.0);
+            // Same field order as AssemblyAI: the whole text and all words before the utterances
+            json.writeStringField("text", String.join(" ", words));
+            json.writeArrayFieldStart("words");
+            int word = 0;
+            int speaker = 0;
+            for (int length : utteranceLengths) {
+                writeWords(json, words, word, length, speaker, millisPerWord, random);
+                word += length;
+                speaker = 1 - speaker;
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("utterances");
+            word = 0;
+            speaker = 0;
+            for (int length : utteranceLengths) {
+                json.writeStartObject();
+                json.writeNumberField("confidence", 0.8 + random.nextDouble() * 0.2);
+                json.writeNumberField("end", (word + length) * millisPerWord);
+                json.writeStringField("speaker", speaker == 0 ? "A" : "B");
+                json.writeNumberField("start", word * millisPerWord);
+                json.writeStringField("text", String.join(" ", Arrays.asList(words).subList(word, word + length)));
+                json.writeArrayFieldStart("words");
+                writeWords(json, words, word, length, speaker, millisPerWord, random);
+                json.writeEndArray();
+                json.writeEndObject();
+                word += length;
+                speaker = 1 - speaker;
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeWords(JsonGenerator json, String[] words, int first, int count, int speaker,
+                                   int millisPerWord, Random random) throws IOException {
+        for (int i = first; i < first + count; i++) {
+            json.writeStartObject();
+            json.writeStringField("text", words[i]);
+            json.writeNumberField("start", i * millisPerWord);
+            json.writeNumberField("end", (i + 1) * millisPerWord);
+            json.writeNumberField("confidence", 0.8 + random.nextDouble() * 0.2);
+            json.writeStringField("speaker", speaker == 0 ? "A" : "B");
+            json.writeEndObject();
+        }
+    }
+}
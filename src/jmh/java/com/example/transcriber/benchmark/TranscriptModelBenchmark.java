@@ -0,0 +1,84 @@
+package com.example.transcriber.benchmark;
+
+import com.example.transcriber.dto.CompactTranscript;
+import com.example.transcriber.dto.TranscriptResponse;
+import com.example.transcriber.service.TranscriptStreamReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TranscriptResponse} against {@link CompactTranscript}: parsing a completed
+ * transcript, also with the {@link TranscriptStreamReader} that skips the word lists,
+ * and a pass over all utterance timings as the exports and cache make it.
+ * Run with {@code -prof gc} to compare the bytes allocated per parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TranscriptModelBenchmark {
+
+    @Param({"1", "60", "600"})
+    private int audioMinutes;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] json;
+    private TranscriptResponse response;
+    private CompactTranscript compact;
+
+    @Setup
+    public void setUp() throws IOException {
+        json = SyntheticTranscripts.json(audioMinutes);
+        response = objectMapper.readValue(json, TranscriptResponse.class);
+        compact = objectMapper.readValue(json, CompactTranscript.class);
+    }
+
+    @Benchmark
+    public TranscriptResponse parseResponse() throws IOException {
+        return objectMapper.readValue(json, TranscriptResponse.class);
+    }
+
+    @Benchmark
+    public TranscriptResponse parseStreaming() throws IOException {
+        return TranscriptStreamReader.read(objectMapper, new ByteArrayInputStream(json));
+    }
+
+    @Benchmark
+    public CompactTranscript parseCompact() throws IOException {
+        return objectMapper.readValue(json, CompactTranscript.class);
+    }
+
+    @Benchmark
+    public long spokenMillisResponse() {
+        long total = 0;
+        for (TranscriptResponse.Utterance utterance : response.getUtterances()) {
+            total += utterance.getEnd() - utterance.getStart();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long spokenMillisCompact() {
+        long total = 0;
+        for (int i = 0; i < compact.size(); i++) {
+            total += compact.end(i) - compact.start(i);
+        }
+        return total;
+    }
+}
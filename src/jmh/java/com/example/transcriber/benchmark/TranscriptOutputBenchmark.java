@@ -0,0 +1,126 @@
+package com.example.transcriber.benchmark;
+
+import com.example.transcriber.dto.CompactTranscript;
+import com.example.transcriber.export.ExportFormat;
+import com.example.transcriber.export.TranscriptExporter;
+import com.example.transcriber.service.TranscriptFormatter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Everything a finished transcript goes through on its way to a download: formatting it
+ * as text, encoding the text as UTF-8 the way {@code TranscriptStore} writes it, the gzip
+ * copy compressed once per job, and rendering the other export formats from its JSON.
+ * Measured as throughput; run with {@code -prof gc} for the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TranscriptOutputBenchmark {
+
+    // 1 minute to 10 hours of audio
+    @Param({"1", "60", "600"})
+    private int audioMinutes;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TranscriptExporter exporter = new TranscriptExporter(objectMapper, 0);
+    private CompactTranscript transcript;
+    private byte[] text;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        transcript = objectMapper.readValue(SyntheticTranscripts.json(audioMinutes), CompactTranscript.class);
+        ByteArrayOutputStream formatted = new ByteArrayOutputStream();
+        try (Writer out = new OutputStreamWriter(formatted, StandardCharsets.UTF_8)) {
+            TranscriptFormatter.write(transcript, "Alice", "Bob", out);
+        }
+        text = formatted.toByteArray();
+        // What the job leaves next to the text for the other exports
+        json = objectMapper.writeValueAsBytes(transcript);
+    }
+
+    @Benchmark
+    public long format() throws IOException {
+        CountingWriter out = new CountingWriter();
+        TranscriptFormatter.write(transcript, "Alice", "Bob", out);
+        return out.count();
+    }
+
+    @Benchmark
+    public long formatUtf8() throws IOException {
+        CountingOutputStream bytes = new CountingOutputStream();
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+            TranscriptFormatter.write(transcript, "Alice", "Bob", out);
+        }
+        return bytes.count;
+    }
+
+    @Benchmark
+    public long gzip() throws IOException {
+        CountingOutputStream bytes = new CountingOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text);
+        }
+        return bytes.count;
+    }
+
+    @Benchmark
+    public long renderTimestamped() throws IOException {
+        return render(ExportFormat.TIMESTAMPED);
+    }
+
+    @Benchmark
+    public long renderSrt() throws IOException {
+        return render(ExportFormat.SRT);
+    }
+
+    @Benchmark
+    public long renderVtt() throws IOException {
+        return render(ExportFormat.VTT);
+    }
+
+    private long render(ExportFormat format) throws IOException {
+        CountingWriter out = new CountingWriter();
+        exporter.render(new ByteArrayInputStream(json), format, "Alice", "Bob", out);
+        return out.count();
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
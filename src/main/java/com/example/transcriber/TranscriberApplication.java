@@ -2,11 +2,13 @@ package com.example.transcriber;
 
 import com.vaadin.flow.component.page.AppShellConfigurator;
 import com.vaadin.flow.component.page.Push;
+import com.vaadin.flow.shared.ui.Transport;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication
-@Push
+// Progress reaches the browser over a WebSocket as it happens, see ProgressChannel
+@Push(transport = Transport.WEBSOCKET_XHR)
 public class TranscriberApplication implements AppShellConfigurator {
 
     public static void main(String[] args) {
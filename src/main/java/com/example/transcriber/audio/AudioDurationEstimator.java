@@ -0,0 +1,111 @@
+package com.example.transcriber.audio;
+
+import java.time.Duration;
+
+/**
+ * Estimates how long a recording plays from its first bytes and its size,
+ * without decoding it.
+ *
+ * WAV files declare their byte rate in the {@code fmt } chunk. For MP3 the
+ * bitrate of the first frame is used, which is exact for constant bitrate files
+ * and close enough for variable bitrate ones. Anything else is assumed to be
+ * 128 kbps audio.
+ */
+public final class AudioDurationEstimator {
+
+    /** Bytes of the start of a file the estimate looks at */
+    public static final int HEADER_BYTES = 4096;
+
+    private static final int DEFAULT_BITRATE = 128_000;
+
+    // Kilobits per second for MPEG-1 Layer III, indexed by the frame header's bitrate index
+    private static final int[] MPEG1_LAYER3_KBPS = {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 0};
+
+    // Kilobits per second for MPEG-2/2.5 Layer III
+    private static final int[] MPEG2_LAYER3_KBPS = {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160, 0};
+
+    private AudioDurationEstimator() {
+    }
+
+    /**
+     * @param header the first bytes of the file, up to {@link #HEADER_BYTES}
+     * @param length total size of the file in bytes
+     */
+    public static Duration estimate(byte[] header, int headerLength, long length) {
+        long bytesPerSecond = wavByteRate(header, headerLength);
+        if (bytesPerSecond <= 0) {
+            bytesPerSecond = mp3Bitrate(header, headerLength) / 8;
+        }
+        if (bytesPerSecond <= 0) {
+            bytesPerSecond = DEFAULT_BITRATE / 8;
+        }
+        return Duration.ofMillis(length * 1000 / bytesPerSecond);
+    }
+
+    private static long wavByteRate(byte[] header, int length) {
+        if (length < 12 || !matches(header, 0, "RIFF") || !matches(header, 8, "WAVE")) {
+            return -1;
+        }
+        // Walk the chunks up to the fmt chunk, skipping e.g. LIST chunks written before it
+        int offset = 12;
+        while (offset + 8 <= length) {
+            long chunkSize = littleEndianInt(header, offset + 4) & 0xFFFFFFFFL;
+            if (matches(header, offset, "fmt ")) {
+                return offset + 20 <= length ? littleEndianInt(header, offset + 16) & 0xFFFFFFFFL : -1;
+            }
+            long next = offset + 8L + chunkSize + (chunkSize & 1);
+            if (next > length) {
+                break;
+            }
+            offset = (int) next;
+        }
+        return -1;
+    }
+
+    private static long mp3Bitrate(byte[] header, int length) {
+        int offset = 0;
+        if (length >= 10 && matches(header, 0, "ID3")) {
+            // ID3v2 tag size is a 28-bit syncsafe integer after the 10 byte tag header
+            int tagSize = ((header[6] & 0x7F) << 21) | ((header[7] & 0x7F) << 14)
+                    | ((header[8] & 0x7F) << 7) | (header[9] & 0x7F);
+            offset = 10 + tagSize;
+        }
+
+        for (int i = offset; i + 4 <= length; i++) {
+            if ((header[i] & 0xFF) != 0xFF || (header[i + 1] & 0xE0) != 0xE0) {
+                continue;
+            }
+            int version = (header[i + 1] >> 3) & 0x03;
+            int layer = (header[i + 1] >> 1) & 0x03;
+            int bitrateIndex = (header[i + 2] >> 4) & 0x0F;
+            if (version == 1 || layer != 1) {
+                // Reserved version or not Layer III: not a frame header after all
+                continue;
+            }
+            int kbps = version == 3 ? MPEG1_LAYER3_KBPS[bitrateIndex] : MPEG2_LAYER3_KBPS[bitrateIndex];
+            if (kbps > 0) {
+                return kbps * 1000L;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(byte[] bytes, int offset, String text) {
+        if (offset + text.length() > bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (bytes[offset + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int littleEndianInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF)
+                | (bytes[offset + 1] & 0xFF) << 8
+                | (bytes[offset + 2] & 0xFF) << 16
+                | (bytes[offset + 3] & 0xFF) << 24;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.transcriber.audio;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Converts a stream of samples between two rates with a windowed-sinc low-pass filter.
+ *
+ * The rate ratio is reduced to {@code up/down}, and one set of filter coefficients is
+ * computed up front for each of the {@code up} positions an output sample can fall on
+ * between two input samples, so each output sample costs one dot product. Only the
+ * input samples the filter still reaches are kept.
+ */
+final class PolyphaseResampler {
+
+    /** Zero crossings of the sinc on each side of the centre; more gives a steeper cut-off */
+    private static final int ZERO_CROSSINGS = 16;
+
+    /** Cut-off as a fraction of the output Nyquist frequency, leaving room for the transition band */
+    private static final double CUTOFF = 0.95;
+
+    /** Largest number of coefficient sets, for rates with an unusual ratio */
+    static final int MAX_PHASES = 4096;
+
+    @FunctionalInterface
+    interface SampleSink {
+        void accept(float sample) throws IOException;
+    }
+
+    private final int up;
+    private final int down;
+    private final int halfWidth;
+    private final float[][] coefficients;
+    private final SampleSink sink;
+
+    private float[] history;
+    private int historyLength;
+    // Index of history[0] among all input samples; negative while the leading zeros are in use
+    private long historyStart;
+    private long inputCount;
+    private long outputCount;
+
+    PolyphaseResampler(int inputRate, int outputRate, SampleSink sink) {
+        int gcd = gcd(inputRate, outputRate);
+        this.up = outputRate / gcd;
+        this.down = inputRate / gcd;
+        if (up > MAX_PHASES) {
+            throw new IllegalArgumentException("Cannot resample " + inputRate + " Hz to " + outputRate + " Hz");
+        }
+        this.sink = sink;
+
+        // When downsampling the filter widens so it also removes what the new rate cannot represent
+        double ratio = Math.min(1.0, (double) up / down);
+        this.halfWidth = (int) Math.ceil(ZERO_CROSSINGS / ratio);
+        double cutoff = 0.5 * ratio * CUTOFF;
+        int taps = 2 * halfWidth;
+
+        this.coefficients = new float[up][taps];
+        for (int phase = 0; phase < up; phase++) {
+            double fraction = (double) phase / up;
+            double sum = 0;
+            double[] kernel = new double[taps];
+            for (int tap = 0; tap < taps; tap++) {
+                // Distance between the output position and the input sample this tap weights
+                double x = fraction + halfWidth - 1 - tap;
+                kernel[tap] = 2 * cutoff * sinc(2 * cutoff * x) * blackman(x, halfWidth);
+                sum += kernel[tap];
+            }
+            for (int tap = 0; tap < taps; tap++) {
+                // Unity gain at DC, so silence and constant offsets come out unchanged
+                coefficients[phase][tap] = (float) (kernel[tap] / sum);
+            }
+        }
+
+        // Samples before the first one count as silence
+        this.history = new float[Math.max(4096, 4 * taps)];
+        this.historyLength = halfWidth - 1;
+        this.historyStart = -(halfWidth - 1);
+    }
+
+    static boolean isSupported(int inputRate, int outputRate) {
+        return outputRate / gcd(inputRate, outputRate) <= MAX_PHASES;
+    }
+
+    void accept(float sample) throws IOException {
+        if (historyLength == history.length) {
+            compact();
+        }
+        history[historyLength++] = sample;
+        inputCount++;
+
+        long position;
+        while ((position = outputCount * down / up) + halfWidth < inputCount) {
+            int phase = (int) (outputCount * down % up);
+            int base = (int) (position - halfWidth + 1 - historyStart);
+            float[] phaseCoefficients = coefficients[phase];
+            float value = 0;
+            for (int tap = 0; tap < phaseCoefficients.length; tap++) {
+                value += phaseCoefficients[tap] * history[base + tap];
+            }
+            outputCount++;
+            sink.accept(value);
+        }
+    }
+
+    /**
+     * Emit the output samples that still depend on input beyond the end, treating it as silence
+     */
+    void finish() throws IOException {
+        long expected = inputCount * up / down;
+        while (outputCount < expected) {
+            accept(0f);
+        }
+    }
+
+    private void compact() {
+        long firstNeeded = outputCount * down / up - halfWidth + 1;
+        int drop = (int) Math.max(0, firstNeeded - historyStart);
+        if (drop == 0) {
+            history = Arrays.copyOf(history, history.length * 2);
+            return;
+        }
+        System.arraycopy(history, drop, history, 0, historyLength - drop);
+        historyLength -= drop;
+        historyStart += drop;
+    }
+
+    private static double sinc(double x) {
+        if (x == 0) {
+            return 1;
+        }
+        double piX = Math.PI * x;
+        return Math.sin(piX) / piX;
+    }
+
+    private static double blackman(double x, int halfWidth) {
+        double n = (x + halfWidth) / (2.0 * halfWidth);
+        if (n < 0 || n > 1) {
+            return 0;
+        }
+        return 0.42 - 0.5 * Math.cos(2 * Math.PI * n) + 0.08 * Math.cos(4 * Math.PI * n);
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
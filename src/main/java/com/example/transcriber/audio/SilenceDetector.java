@@ -0,0 +1,248 @@
+package com.example.transcriber.audio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Finds the silence in a WAV recording in one streaming pass.
+ *
+ * The samples are downmixed and cut into 20 ms windows; a window is silent when its RMS
+ * level is below the threshold. Everything before the first and after the last loud
+ * window, less some padding so words are not clipped, can be left out of the upload.
+ * {@link #scan} holds nothing but one read buffer; {@link #profile} also keeps one float
+ * per window, about 2 MB for three hours, to find pauses to split a recording at.
+ */
+public final class SilenceDetector {
+
+    private static final int WINDOW_MILLIS = 20;
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * Input frames worth uploading, {@code [startFrame, endFrame)} of {@code totalFrames}
+     */
+    public record Trim(int sampleRate, long startFrame, long endFrame, long totalFrames) {
+
+        public boolean isTrimmed() {
+            return startFrame > 0 || endFrame < totalFrames;
+        }
+
+        /**
+         * Where the kept audio starts in the recording, to add to the transcript's timestamps
+         */
+        public Duration offset() {
+            return Duration.ofMillis(startFrame * 1000 / sampleRate);
+        }
+
+        /**
+         * Play time left out at both ends together
+         */
+        public Duration removed() {
+            return Duration.ofMillis((totalFrames - (endFrame - startFrame)) * 1000 / sampleRate);
+        }
+    }
+
+    /**
+     * The RMS level of every 20 ms window of a recording
+     */
+    public static final class EnergyProfile {
+        private final int sampleRate;
+        private final int windowFrames;
+        private final long totalFrames;
+        private final float[] levels;
+
+        private EnergyProfile(int sampleRate, int windowFrames, long totalFrames, float[] levels) {
+            this.sampleRate = sampleRate;
+            this.windowFrames = windowFrames;
+            this.totalFrames = totalFrames;
+            this.levels = levels;
+        }
+
+        public int sampleRate() {
+            return sampleRate;
+        }
+
+        public long totalFrames() {
+            return totalFrames;
+        }
+
+        /**
+         * The silent ends, as {@link SilenceDetector#scan} finds them
+         */
+        public Trim trim(double thresholdDb, Duration padding) {
+            double threshold = Math.pow(10, thresholdDb / 20);
+            int first = 0;
+            while (first < levels.length && levels[first] < threshold) {
+                first++;
+            }
+            int last = levels.length - 1;
+            while (last >= first && levels[last] < threshold) {
+                last--;
+            }
+            if (first == levels.length) {
+                return new Trim(sampleRate, 0, totalFrames, totalFrames);
+            }
+            return trimmed(sampleRate, totalFrames, (long) first * windowFrames,
+                    Math.min(totalFrames, (long) (last + 1) * windowFrames), padding);
+        }
+
+        /**
+         * The middle of the quietest pause of the given length between two frames, a good
+         * place to cut the recording without cutting a word
+         */
+        public long quietestPoint(long fromFrame, long toFrame, Duration pause) {
+            int pauseWindows = (int) Math.max(1, pause.toMillis() / WINDOW_MILLIS);
+            int from = (int) Math.max(0, fromFrame / windowFrames);
+            int to = (int) Math.min(levels.length, toFrame / windowFrames);
+            if (to - from <= pauseWindows) {
+                return (fromFrame + toFrame) / 2;
+            }
+
+            // Sliding sum of the windows' energy over the pause length
+            double sum = 0;
+            for (int i = from; i < from + pauseWindows; i++) {
+                sum += (double) levels[i] * levels[i];
+            }
+            double best = sum;
+            int bestStart = from;
+            for (int i = from + pauseWindows; i < to; i++) {
+                sum += (double) levels[i] * levels[i] - (double) levels[i - pauseWindows] * levels[i - pauseWindows];
+                if (sum < best) {
+                    best = sum;
+                    bestStart = i - pauseWindows + 1;
+                }
+            }
+            return ((long) bestStart * windowFrames) + (long) pauseWindows * windowFrames / 2;
+        }
+    }
+
+    @FunctionalInterface
+    private interface WindowConsumer {
+        /**
+         * @param energy sum of the squared samples of the window's {@code frames} frames
+         */
+        void accept(double energy, int frames);
+    }
+
+    private SilenceDetector() {
+    }
+
+    /**
+     * Read the recording to its end and find its silent ends.
+     *
+     * @param inputLength size of the recording, used when its header does not state the size of the samples
+     * @param thresholdDb RMS level in dBFS below which a window counts as silent, e.g. -50
+     * @param padding     silence kept next to the first and last loud window
+     * @return null if the recording is not a WAV file that can be decoded; a trim of nothing if it is all silence
+     */
+    public static Trim scan(InputStream in, long inputLength, double thresholdDb, Duration padding) throws IOException {
+        double threshold = Math.pow(10, thresholdDb / 20);
+        long[] loud = {-1, -1};
+        long[] frames = {0};
+        WavFormat format = readWindows(in, inputLength, (energy, windowFrames) -> {
+            frames[0] += windowFrames;
+            if (Math.sqrt(energy / windowFrames) >= threshold) {
+                if (loud[0] < 0) {
+                    loud[0] = frames[0] - windowFrames;
+                }
+                loud[1] = frames[0];
+            }
+        });
+        if (format == null) {
+            return null;
+        }
+        if (loud[0] < 0) {
+            // Only silence; left for AssemblyAI to report as empty
+            return new Trim(format.sampleRate(), 0, frames[0], frames[0]);
+        }
+        return trimmed(format.sampleRate(), frames[0], loud[0], loud[1], padding);
+    }
+
+    /**
+     * Read the recording to its end and keep the level of every window.
+     *
+     * @return null if the recording is not a WAV file that can be decoded
+     */
+    public static EnergyProfile profile(InputStream in, long inputLength) throws IOException {
+        float[][] levels = {new float[4096]};
+        int[] count = {0};
+        long[] frames = {0};
+        WavFormat format = readWindows(in, inputLength, (energy, windowFrames) -> {
+            if (count[0] == levels[0].length) {
+                levels[0] = Arrays.copyOf(levels[0], count[0] * 2);
+            }
+            levels[0][count[0]++] = (float) Math.sqrt(energy / windowFrames);
+            frames[0] += windowFrames;
+        });
+        if (format == null) {
+            return null;
+        }
+        return new EnergyProfile(format.sampleRate(), windowFrames(format), frames[0], Arrays.copyOf(levels[0], count[0]));
+    }
+
+    private static Trim trimmed(int sampleRate, long totalFrames, long firstLoud, long lastLoudEnd, Duration padding) {
+        long paddingFrames = padding.toMillis() * sampleRate / 1000;
+        return new Trim(sampleRate, Math.max(0, firstLoud - paddingFrames),
+                Math.min(totalFrames, lastLoudEnd + paddingFrames), totalFrames);
+    }
+
+    private static int windowFrames(WavFormat format) {
+        return Math.max(1, format.sampleRate() * WINDOW_MILLIS / 1000);
+    }
+
+    /**
+     * Decode the samples window by window; a last, shorter window is reported too
+     *
+     * @return the recording's format, or null if it cannot be decoded
+     */
+    private static WavFormat readWindows(InputStream in, long inputLength, WindowConsumer windows) throws IOException {
+        byte[] buffer = new byte[Math.max(BUFFER_BYTES, WavDownsampler.MAX_HEADER_BYTES)];
+        int length = in.readNBytes(buffer, 0, WavDownsampler.MAX_HEADER_BYTES);
+        WavFormat format = WavFormat.parse(buffer, length);
+        if (format == null || !format.isDecodable()) {
+            return null;
+        }
+
+        long dataSize = format.dataSize() >= 0 ? format.dataSize()
+                : inputLength >= 0 ? inputLength - format.dataOffset() : Long.MAX_VALUE;
+        int frameSize = format.blockAlign();
+        int windowFrames = windowFrames(format);
+        double windowEnergy = 0;
+        int windowFill = 0;
+
+        int offset = format.dataOffset();
+        long dataRemaining = dataSize;
+        while (true) {
+            int usable = (int) Math.min(length - offset, dataRemaining);
+            int end = offset + usable - usable % frameSize;
+            for (int i = offset; i < end; i += frameSize) {
+                float sample = format.mono(buffer, i);
+                windowEnergy += sample * sample;
+                if (++windowFill == windowFrames) {
+                    windows.accept(windowEnergy, windowFill);
+                    windowEnergy = 0;
+                    windowFill = 0;
+                }
+            }
+            dataRemaining -= end - offset;
+            int leftover = length - end;
+            if (dataRemaining < frameSize) {
+                break;
+            }
+            // A frame split between two reads is completed by the next one
+            System.arraycopy(buffer, end, buffer, 0, leftover);
+            int read = in.read(buffer, leftover, buffer.length - leftover);
+            if (read < 0) {
+                break;
+            }
+            length = leftover + read;
+            offset = 0;
+        }
+        if (windowFill > 0) {
+            windows.accept(windowEnergy, windowFill);
+        }
+        return format;
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.transcriber.audio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Rewrites a WAV file as 16 bit mono at a lower sample rate while it is written through.
+ *
+ * Speech recognition gains nothing from stereo or from rates above 16 kHz, so a
+ * 44.1 kHz stereo recording shrinks to about a sixth before it is uploaded. Channels
+ * are averaged and the result is resampled by a {@link PolyphaseResampler}; only the
+ * header and the filter's window are held in memory. Frames outside a range set with
+ * {@link #trim(long, long)}, e.g. silence found by the {@link SilenceDetector}, are dropped
+ * first. Anything that is not a WAV file this class can decode, or that would not get
+ * smaller, is passed through unchanged.
+ *
+ * {@link #finish()} must be called after the last byte, or {@link #close()}, which also
+ * closes the underlying stream.
+ */
+public class WavDownsampler extends OutputStream {
+
+    /** Largest header, i.e. bytes before the first sample, looked at before giving up */
+    public static final int MAX_HEADER_BYTES = 64 * 1024;
+
+    private static final int OUTPUT_HEADER_BYTES = 44;
+
+    private enum Mode { READING_HEADER, CONVERTING, PASSING_THROUGH }
+
+    private final OutputStream out;
+    private final int targetSampleRate;
+    private final long inputLength;
+    private long startFrame;
+    private long endFrame = Long.MAX_VALUE;
+
+    private Mode mode = Mode.READING_HEADER;
+    private byte[] header = new byte[4096];
+    private int headerLength;
+
+    private WavFormat format;
+    private PolyphaseResampler resampler;
+    private long dataRemaining;
+    private long framesRead;
+    private long outputFrames;
+    private long framesWritten;
+    private byte[] frame;
+    private int frameLength;
+    private final byte[] outputBuffer = new byte[8192];
+    private int outputLength;
+
+    private long bytesIn;
+    private long bytesOut;
+    private boolean finished;
+
+    /**
+     * @param targetSampleRate rate to convert to; recordings already at or below it keep their rate
+     * @param inputLength      size of the whole file if known, otherwise -1, for files that
+     *                         do not state the size of their sample data
+     */
+    public WavDownsampler(OutputStream out, int targetSampleRate, long inputLength) {
+        this.out = out;
+        this.targetSampleRate = targetSampleRate;
+        this.inputLength = inputLength;
+    }
+
+    /**
+     * Keep only the input frames from {@code startFrame} up to, excluding, {@code endFrame}.
+     * Must be called before the first byte is written.
+     */
+    public WavDownsampler trim(long startFrame, long endFrame) {
+        this.startFrame = startFrame;
+        this.endFrame = endFrame;
+        return this;
+    }
+
+    /**
+     * Size of the converted file, without converting it.
+     *
+     * @param header the start of the file, up to and including the {@code data} chunk header
+     * @return -1 if the file would be passed through unchanged or its sample data has no stated size
+     */
+    public static long convertedLength(byte[] header, int headerLength, long inputLength, int targetSampleRate) {
+        return convertedLength(header, headerLength, inputLength, targetSampleRate, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Size of the file converted with {@link #trim(long, long)}
+     */
+    public static long convertedLength(byte[] header, int headerLength, long inputLength, int targetSampleRate,
+                                       long startFrame, long endFrame) {
+        WavFormat format = WavFormat.parse(header, headerLength);
+        if (format == null || !shouldConvert(format, inputLength, targetSampleRate, startFrame, endFrame)) {
+            return -1;
+        }
+        long keptFrames = keptFrames(format, inputLength, startFrame, endFrame);
+        return keptFrames < 0 ? -1 : OUTPUT_HEADER_BYTES + 2 * outputFrames(format, keptFrames, targetSampleRate);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("Stream is finished");
+        }
+        bytesIn += len;
+        switch (mode) {
+            case READING_HEADER -> readHeader(b, off, len);
+            case CONVERTING -> convert(b, off, len);
+            case PASSING_THROUGH -> passThrough(b, off, len);
+        }
+    }
+
+    /**
+     * Write what is still buffered, padding the converted samples to their announced length,
+     * without closing the underlying stream
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (mode == Mode.READING_HEADER) {
+            // Too short to hold a single sample
+            mode = Mode.PASSING_THROUGH;
+            passThrough(header, 0, headerLength);
+        } else if (mode == Mode.CONVERTING) {
+            if (resampler != null) {
+                resampler.finish();
+            }
+            while (outputFrames >= 0 && framesWritten < outputFrames) {
+                emit(0f);
+            }
+            flushOutput();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushOutput();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Whether the input is being converted; false until its header has been read
+     */
+    public boolean isConverting() {
+        return mode == Mode.CONVERTING;
+    }
+
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    private void readHeader(byte[] b, int off, int len) throws IOException {
+        int copied = Math.min(len, MAX_HEADER_BYTES - headerLength);
+        if (headerLength + copied > header.length) {
+            header = Arrays.copyOf(header, Math.min(MAX_HEADER_BYTES, Math.max(header.length * 2, headerLength + copied)));
+        }
+        System.arraycopy(b, off, header, headerLength, copied);
+        headerLength += copied;
+
+        WavFormat parsed = WavFormat.parse(header, headerLength);
+        if (parsed == null) {
+            if (headerLength == MAX_HEADER_BYTES || (headerLength >= 12 && !isWav(header))) {
+                startPassingThrough(b, off + copied, len - copied);
+            }
+            return;
+        }
+
+        if (!shouldConvert(parsed, inputLength, targetSampleRate, startFrame, endFrame)) {
+            startPassingThrough(b, off + copied, len - copied);
+            return;
+        }
+        startConverting(parsed);
+        convert(header, parsed.dataOffset(), headerLength - parsed.dataOffset());
+        convert(b, off + copied, len - copied);
+    }
+
+    private void startPassingThrough(byte[] b, int off, int len) throws IOException {
+        mode = Mode.PASSING_THROUGH;
+        passThrough(header, 0, headerLength);
+        passThrough(b, off, len);
+        header = null;
+    }
+
+    private void startConverting(WavFormat format) throws IOException {
+        this.mode = Mode.CONVERTING;
+        this.format = format;
+        int outputRate = outputRate(format, targetSampleRate);
+        long dataSize = dataSize(format, inputLength);
+        this.dataRemaining = dataSize >= 0 ? dataSize : Long.MAX_VALUE;
+        long keptFrames = keptFrames(format, inputLength, startFrame, endFrame);
+        this.outputFrames = keptFrames >= 0 ? outputFrames(format, keptFrames, targetSampleRate) : -1;
+        this.frame = new byte[format.blockAlign()];
+        if (outputRate != format.sampleRate()) {
+            this.resampler = new PolyphaseResampler(format.sampleRate(), outputRate, this::emit);
+        }
+        writeOutputHeader(outputRate);
+    }
+
+    private void convert(byte[] b, int off, int len) throws IOException {
+        // Chunks after the sample data, e.g. LIST metadata, are dropped
+        int remaining = (int) Math.min(len, dataRemaining);
+        dataRemaining -= remaining;
+        int end = off + remaining;
+        while (off < end) {
+            int copied = Math.min(end - off, frame.length - frameLength);
+            System.arraycopy(b, off, frame, frameLength, copied);
+            frameLength += copied;
+            off += copied;
+            if (frameLength == frame.length) {
+                frameLength = 0;
+                long frameIndex = framesRead++;
+                if (frameIndex < startFrame || frameIndex >= endFrame) {
+                    continue;
+                }
+                float sample = format.mono(frame, 0);
+                if (resampler != null) {
+                    resampler.accept(sample);
+                } else {
+                    emit(sample);
+                }
+            }
+        }
+    }
+
+    private void emit(float sample) throws IOException {
+        if (outputFrames >= 0 && framesWritten >= outputFrames) {
+            return;
+        }
+        framesWritten++;
+        // The inverse of decoding, so 16 bit samples that are only copied come out unchanged
+        int value = Math.max(-32768, Math.min(32767, Math.round(sample * 32768f)));
+        if (outputLength + 2 > outputBuffer.length) {
+            flushOutput();
+        }
+        outputBuffer[outputLength++] = (byte) value;
+        outputBuffer[outputLength++] = (byte) (value >> 8);
+    }
+
+    private void flushOutput() throws IOException {
+        if (outputLength > 0) {
+            out.write(outputBuffer, 0, outputLength);
+            bytesOut += outputLength;
+            outputLength = 0;
+        }
+    }
+
+    private void passThrough(byte[] b, int off, int len) throws IOException {
+        if (len > 0) {
+            out.write(b, off, len);
+            bytesOut += len;
+        }
+    }
+
+    private void writeOutputHeader(int sampleRate) throws IOException {
+        // Without a known length both sizes are left at their maximum, as streaming recorders do
+        long dataSize = outputFrames >= 0 ? 2 * outputFrames : 0xFFFFFFFFL;
+        long riffSize = outputFrames >= 0 ? dataSize + OUTPUT_HEADER_BYTES - 8 : 0xFFFFFFFFL;
+        byte[] bytes = new byte[OUTPUT_HEADER_BYTES];
+        ascii(bytes, 0, "RIFF");
+        putInt(bytes, 4, (int) riffSize);
+        ascii(bytes, 8, "WAVE");
+        ascii(bytes, 12, "fmt ");
+        putInt(bytes, 16, 16);
+        putShort(bytes, 20, WavFormat.PCM);
+        putShort(bytes, 22, 1);
+        putInt(bytes, 24, sampleRate);
+        putInt(bytes, 28, sampleRate * 2);
+        putShort(bytes, 32, 2);
+        putShort(bytes, 34, 16);
+        ascii(bytes, 36, "data");
+        putInt(bytes, 40, (int) dataSize);
+        out.write(bytes);
+        bytesOut += bytes.length;
+    }
+
+    private static boolean shouldConvert(WavFormat format, long inputLength, int targetSampleRate,
+                                         long startFrame, long endFrame) {
+        int outputRate = outputRate(format, targetSampleRate);
+        boolean trimmed = startFrame > 0 || endFrame < inputFrames(format, inputLength);
+        return format.isDecodable()
+                && PolyphaseResampler.isSupported(format.sampleRate(), outputRate)
+                && (2L * outputRate < format.byteRate() || trimmed);
+    }
+
+    private static int outputRate(WavFormat format, int targetSampleRate) {
+        // Upsampling would only add bytes
+        return Math.min(format.sampleRate(), targetSampleRate);
+    }
+
+    private static long dataSize(WavFormat format, long inputLength) {
+        if (format.dataSize() >= 0) {
+            return format.dataSize();
+        }
+        return inputLength >= 0 ? Math.max(0, inputLength - format.dataOffset()) : -1;
+    }
+
+    /**
+     * Frames of sample data, Long.MAX_VALUE if unknown
+     */
+    private static long inputFrames(WavFormat format, long inputLength) {
+        long dataSize = dataSize(format, inputLength);
+        return dataSize >= 0 && format.blockAlign() > 0 ? dataSize / format.blockAlign() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Frames left after trimming, -1 if unknown
+     */
+    private static long keptFrames(WavFormat format, long inputLength, long startFrame, long endFrame) {
+        long end = Math.min(endFrame, inputFrames(format, inputLength));
+        return end == Long.MAX_VALUE ? -1 : Math.max(0, end - startFrame);
+    }
+
+    private static long outputFrames(WavFormat format, long keptFrames, int targetSampleRate) {
+        return keptFrames * outputRate(format, targetSampleRate) / format.sampleRate();
+    }
+
+    private static boolean isWav(byte[] header) {
+        return header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+                && header[8] == 'W' && header[9] == 'A' && header[10] == 'V' && header[11] == 'E';
+    }
+
+    private static void ascii(byte[] bytes, int offset, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            bytes[offset + i] = (byte) text.charAt(i);
+        }
+    }
+
+    private static void putShort(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >> 8);
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        putShort(bytes, offset, value);
+        putShort(bytes, offset + 2, value >> 16);
+    }
+}
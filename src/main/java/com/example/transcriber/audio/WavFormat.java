@@ -0,0 +1,136 @@
+package com.example.transcriber.audio;
+
+/**
+ * The {@code fmt } and {@code data} chunk details of a RIFF/WAVE file, read from its first bytes.
+ *
+ * @param formatTag     1 for integer PCM, 3 for IEEE float; WAVE_FORMAT_EXTENSIBLE is resolved to its sub-format
+ * @param dataOffset    offset of the first sample byte
+ * @param dataSize      bytes of sample data, or -1 if the file does not say, as in streamed recordings
+ */
+public record WavFormat(int formatTag, int channels, int sampleRate, int bitsPerSample, int blockAlign,
+                        int dataOffset, long dataSize) {
+
+    public static final int PCM = 1;
+    public static final int IEEE_FLOAT = 3;
+
+    private static final int EXTENSIBLE = 0xFFFE;
+
+    /**
+     * Parse the header, or return null if the bytes are not a WAV file or end before its {@code data} chunk
+     */
+    public static WavFormat parse(byte[] header, int length) {
+        if (length < 12 || !matches(header, 0, "RIFF") || !matches(header, 8, "WAVE")) {
+            return null;
+        }
+
+        int formatTag = -1;
+        int channels = 0;
+        int sampleRate = 0;
+        int bitsPerSample = 0;
+        int blockAlign = 0;
+        int offset = 12;
+        while (offset + 8 <= length) {
+            long chunkSize = littleEndianInt(header, offset + 4) & 0xFFFFFFFFL;
+            if (matches(header, offset, "fmt ")) {
+                if (offset + 24 > length) {
+                    return null;
+                }
+                formatTag = littleEndianShort(header, offset + 8);
+                channels = littleEndianShort(header, offset + 10);
+                sampleRate = littleEndianInt(header, offset + 12);
+                blockAlign = littleEndianShort(header, offset + 20);
+                bitsPerSample = littleEndianShort(header, offset + 22);
+                if (formatTag == EXTENSIBLE) {
+                    // The sub-format GUID starts with the actual format tag
+                    if (chunkSize < 40 || offset + 34 > length) {
+                        return null;
+                    }
+                    formatTag = littleEndianShort(header, offset + 32);
+                }
+            } else if (matches(header, offset, "data")) {
+                if (formatTag < 0) {
+                    return null;
+                }
+                long dataSize = chunkSize == 0 || chunkSize == 0xFFFFFFFFL ? -1 : chunkSize;
+                return new WavFormat(formatTag, channels, sampleRate, bitsPerSample, blockAlign, offset + 8, dataSize);
+            }
+            long next = offset + 8L + chunkSize + (chunkSize & 1);
+            if (next > length) {
+                return null;
+            }
+            offset = (int) next;
+        }
+        return null;
+    }
+
+    /**
+     * Whether the samples are integer PCM of 8 to 32 bits or 32 bit float that can be decoded
+     */
+    public boolean isDecodable() {
+        boolean knownEncoding = formatTag == PCM
+                ? bitsPerSample == 8 || bitsPerSample == 16 || bitsPerSample == 24 || bitsPerSample == 32
+                : formatTag == IEEE_FLOAT && bitsPerSample == 32;
+        return knownEncoding && channels > 0 && sampleRate > 0 && blockAlign == channels * bitsPerSample / 8;
+    }
+
+    public long byteRate() {
+        return (long) sampleRate * blockAlign;
+    }
+
+    /**
+     * The frame starting at {@code offset} as one sample in [-1, 1], averaged over the channels.
+     * Only valid for {@link #isDecodable()} formats.
+     */
+    public float mono(byte[] bytes, int offset) {
+        int bytesPerSample = bitsPerSample / 8;
+        float sum = 0;
+        for (int channel = 0; channel < channels; channel++) {
+            sum += sample(bytes, offset + channel * bytesPerSample);
+        }
+        return sum / channels;
+    }
+
+    private float sample(byte[] bytes, int offset) {
+        if (formatTag == IEEE_FLOAT) {
+            return Float.intBitsToFloat(littleEndian(bytes, offset, 4));
+        }
+        return switch (bitsPerSample) {
+            // 8 bit WAV samples are unsigned
+            case 8 -> ((bytes[offset] & 0xFF) - 128) / 128f;
+            case 16 -> (short) littleEndian(bytes, offset, 2) / 32768f;
+            case 24 -> (littleEndian(bytes, offset, 3) << 8 >> 8) / 8388608f;
+            default -> littleEndian(bytes, offset, 4) / 2147483648f;
+        };
+    }
+
+    private static boolean matches(byte[] bytes, int offset, String text) {
+        if (offset + text.length() > bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (bytes[offset + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int littleEndian(byte[] bytes, int offset, int length) {
+        int value = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            value = value << 8 | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static int littleEndianShort(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int littleEndianInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF)
+                | (bytes[offset + 1] & 0xFF) << 8
+                | (bytes[offset + 2] & 0xFF) << 16
+                | (bytes[offset + 3] & 0xFF) << 24;
+    }
+}
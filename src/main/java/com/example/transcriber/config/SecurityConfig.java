@@ -1,7 +1,11 @@
 package com.example.transcriber.config;
 
+import com.example.transcriber.service.TranscriptionService;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
@@ -11,11 +15,20 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, Environment environment) throws Exception {
+        // Actuator endpoints are only open on their own management.server.port, which is not published
+        boolean separateManagementPort = ManagementPortType.get(environment) == ManagementPortType.DIFFERENT;
+        int managementPort = environment.getProperty("management.server.port", Integer.class, -1);
+
         http
             .authorizeHttpRequests(authorize -> authorize
                 .requestMatchers("/vaadin/**", "/VAADIN/**").permitAll()
                 .requestMatchers("/images/**", "/icons/**", "/static/**", "/webjars/**").permitAll()
+                // Authenticated by the webhook secret in WebhookController, not by a login
+                .requestMatchers(HttpMethod.POST, TranscriptionService.WEBHOOK_PATH).permitAll()
+                // Scraped without a login, but only on the management port
+                .requestMatchers(request -> separateManagementPort && request.getLocalPort() == managementPort
+                        && HttpMethod.GET.matches(request.getMethod())).permitAll()
                 .anyRequest().authenticated()
             )
             .oauth2Login(oauth2 -> oauth2
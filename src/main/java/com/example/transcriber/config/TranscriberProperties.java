@@ -0,0 +1,249 @@
+package com.example.transcriber.config;
+
+import com.example.transcriber.service.TranscriptionExecutor;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Tunables for the transcription pipeline, bound from the {@code transcriber.*} properties.
+ * The defaults are used as-is when a view or service is created outside of Spring.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "transcriber")
+public class TranscriberProperties {
+
+    private Upload upload = new Upload();
+
+    private Executor executor = new Executor();
+
+    private Webhook webhook = new Webhook();
+
+    private Polling polling = new Polling();
+
+    private Cache cache = new Cache();
+
+    private Admission admission = new Admission();
+
+    private Api api = new Api();
+
+    private Http http = new Http();
+
+    private Transcripts transcripts = new Transcripts();
+
+    private Split split = new Split();
+
+    private Progress progress = new Progress();
+
+    @Data
+    public static class Upload {
+
+        public enum Mode {
+            /** Forward the browser's bytes to AssemblyAI while they arrive */
+            STREAM,
+            /** Receive the whole file locally first, spilling to the spool directory */
+            SPOOL
+        }
+
+        private Mode mode = Mode.STREAM;
+
+        /** Where spooled uploads are written once they outgrow memory */
+        private String spoolDirectory = "/tmp/uploads";
+
+        /** Bytes of each spooled upload kept in memory before spilling to disk */
+        private DataSize memoryThreshold = DataSize.ofMegabytes(4);
+
+        /** Node-wide heap budget shared by all spooled uploads */
+        private DataSize maxMemory = DataSize.ofMegabytes(64);
+
+        /** Node-wide disk budget shared by all spooled uploads */
+        private DataSize maxDisk = DataSize.ofGigabytes(10);
+
+        /** How long an upload waits for disk budget to free up before it is rejected; memory is never waited for */
+        private Duration queueTimeout = Duration.ofSeconds(30);
+
+        /** Downmix WAV recordings to mono and resample them to {@code wavSampleRate} before uploading */
+        private boolean convertWav = true;
+
+        /** Sample rate WAV recordings are converted to; lower rates are kept */
+        private int wavSampleRate = 16_000;
+
+        /** Leave leading and trailing silence out of converted WAV uploads; timestamps still refer to the whole file */
+        private boolean trimSilence = true;
+
+        /** RMS level in dBFS below which 20 ms of audio count as silence */
+        private double silenceThreshold = -50;
+
+        /** Silence kept before the first and after the last sound, so words are not clipped */
+        private Duration silencePadding = Duration.ofMillis(500);
+    }
+
+    @Data
+    public static class Executor {
+
+        /** VIRTUAL runs every job on its own virtual thread, PLATFORM on a bounded pool */
+        private TranscriptionExecutor.Mode mode = TranscriptionExecutor.Mode.VIRTUAL;
+
+        /** Platform mode only: jobs running at once */
+        private int maxThreads = 8;
+
+        /** Platform mode only: jobs waiting for a thread before new ones are rejected */
+        private int queueCapacity = 100;
+    }
+
+    @Data
+    public static class Webhook {
+
+        /** Ask AssemblyAI to call back on completion instead of polling for the status */
+        private boolean enabled = false;
+
+        /** Base URL AssemblyAI can reach this application at, e.g. https://transcriber.example.com */
+        private String publicUrl;
+
+        /** Shared secret AssemblyAI sends back in the callback's auth header */
+        private String secret;
+
+        /** Start polling for a transcript if its callback has not arrived by then */
+        private Duration deadline = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Polling {
+
+        /** Shortest gap between two status requests for the same transcript */
+        private Duration minInterval = Duration.ofSeconds(1);
+
+        /** Longest gap between two status requests for the same transcript */
+        private Duration maxInterval = Duration.ofSeconds(60);
+
+        /** Fixed part of AssemblyAI's processing time, independent of audio length */
+        private Duration baseLatency = Duration.ofSeconds(3);
+
+        /** Starting guess for processing seconds per audio minute, refined as jobs complete */
+        private double initialSecondsPerAudioMinute = 15;
+
+        /** Random spread applied to each delay, as a fraction of it */
+        private double jitter = 0.1;
+    }
+
+    @Data
+    public static class Cache {
+
+        /** Recordings remembered by content hash; 0 disables the cache */
+        private int maxEntries = 256;
+
+        /** How long an upload URL and transcript are reused for */
+        private Duration ttl = Duration.ofHours(24);
+    }
+
+    @Data
+    public static class Admission {
+
+        /** Transcriptions talking to AssemblyAI at once, across all users */
+        private int maxConcurrent = 20;
+
+        /** Transcriptions one user may have running at once */
+        private int maxPerUser = 3;
+
+        /** Transcriptions one user may have waiting; more are rejected */
+        private int maxQueuedPerUser = 10;
+    }
+
+    @Data
+    public static class Api {
+
+        /** Where AssemblyAI's API is, or a stand-in for it such as the simulator in the tests */
+        private String baseUrl = "https://api.assemblyai.com/v2";
+
+        /** Sustained requests per second to AssemblyAI across all jobs */
+        private double requestsPerSecond = 10;
+
+        /** Requests that may go out at once after a quiet period */
+        private int burst = 20;
+
+        /** Attempts per request, including the first, for transient failures */
+        private int maxAttempts = 5;
+
+        /** Backoff ceiling for the first retry, doubled for each further one */
+        private Duration initialBackoff = Duration.ofMillis(500);
+
+        /** Largest backoff between two attempts when no Retry-After is given */
+        private Duration maxBackoff = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Http {
+
+        /** Idle connections to AssemblyAI kept open for reuse */
+        private int maxIdleConnections = 16;
+
+        /** How long an idle connection is kept before it is closed */
+        private Duration keepAlive = Duration.ofMinutes(5);
+
+        /** Asynchronous calls, mostly status polls, in flight at once */
+        private int maxRequests = 128;
+
+        /** Asynchronous calls in flight at once to one host; OkHttp's own default is 5 */
+        private int maxRequestsPerHost = 64;
+
+        /** Negotiate HTTP/2, which multiplexes all calls over one connection */
+        private boolean http2 = true;
+
+        private Duration connectTimeout = Duration.ofSeconds(10);
+
+        /** Longest gap between two reads of a response */
+        private Duration readTimeout = Duration.ofSeconds(60);
+
+        /** Longest gap between two writes of a request */
+        private Duration writeTimeout = Duration.ofSeconds(60);
+
+        /** Uploads only: how long AssemblyAI may take to answer once the last byte is sent */
+        private Duration uploadReadTimeout = Duration.ofMinutes(5);
+
+        /** Uploads only: bound on the whole call, including retries; 0 for none */
+        private Duration uploadCallTimeout = Duration.ZERO;
+
+        /** Connections opened to AssemblyAI at startup, so the first job does not wait for the TLS handshake */
+        private int warmConnections = 2;
+    }
+
+    @Data
+    public static class Transcripts {
+
+        /** Where formatted transcripts are written, one file per job */
+        private String directory = "/tmp/transcripts";
+
+        /** Transcripts older than this are deleted */
+        private Duration retention = Duration.ofDays(30);
+
+        /** SRT, WebVTT and timestamped renderings kept on disk; the least recently downloaded are deleted */
+        private int maxExports = 500;
+    }
+
+    @Data
+    public static class Split {
+
+        /** Cut long WAV recordings at pauses and transcribe the parts in parallel */
+        private boolean enabled = false;
+
+        /** Parts a recording is cut into at most */
+        private int maxSegments = 4;
+
+        /** Shortest part; recordings shorter than two of these are transcribed whole */
+        private Duration minSegmentLength = Duration.ofMinutes(10);
+
+        /** Audio before each cut that is also sent with the next part, to match speakers across the cut */
+        private Duration overlap = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Progress {
+
+        /** Shortest gap between two progress updates pushed to one browser; newer messages replace waiting ones */
+        private Duration pushInterval = Duration.ofMillis(500);
+    }
+}
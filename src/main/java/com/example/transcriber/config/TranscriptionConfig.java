@@ -0,0 +1,59 @@
+package com.example.transcriber.config;
+
+import com.example.transcriber.export.TranscriptExporter;
+import com.example.transcriber.service.AdmissionController;
+import com.example.transcriber.service.HttpClientFactory;
+import com.example.transcriber.service.HttpClientMetrics;
+import com.example.transcriber.service.TranscriptionExecutor;
+import com.example.transcriber.service.TranscriptionMetrics;
+import com.example.transcriber.service.TranscriptionService;
+import okhttp3.OkHttpClient;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Infrastructure beans shared by the transcription pipeline
+ */
+@Configuration
+public class TranscriptionConfig {
+
+    @Bean(destroyMethod = "close")
+    public TranscriptionExecutor transcriptionExecutor(TranscriberProperties properties) {
+        TranscriberProperties.Executor executor = properties.getExecutor();
+        return TranscriptionExecutor.create(executor.getMode(), executor.getMaxThreads(), executor.getQueueCapacity());
+    }
+
+    @Bean
+    public AdmissionController admissionController(TranscriberProperties properties) {
+        return new AdmissionController(properties.getAdmission());
+    }
+
+    @Bean
+    public TranscriptExporter transcriptExporter(TranscriberProperties properties) {
+        return new TranscriptExporter(properties.getTranscripts());
+    }
+
+    /**
+     * The client for every call to AssemblyAI, so all jobs share its connections and rate limit
+     */
+    @Bean
+    public OkHttpClient assemblyAiHttpClient(TranscriberProperties properties) {
+        return HttpClientFactory.create(properties);
+    }
+
+    @Bean
+    public HttpClientMetrics assemblyAiHttpClientMetrics(OkHttpClient assemblyAiHttpClient) {
+        return HttpClientFactory.metrics(assemblyAiHttpClient);
+    }
+
+    @Bean
+    public TranscriptionMetrics transcriptionMetrics() {
+        return new TranscriptionMetrics();
+    }
+
+    @Bean
+    public ApplicationRunner connectionWarmUp(TranscriptionService transcriptionService) {
+        return args -> transcriptionService.warmUpConnections();
+    }
+}
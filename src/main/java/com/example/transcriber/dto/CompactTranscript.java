@@ -0,0 +1,426 @@
+package com.example.transcriber.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A finished transcript held column by column instead of as one object per utterance.
+ *
+ * Start and end times are {@code int[]} milliseconds, confidences a {@code float[]}, speakers
+ * a {@code byte[]} index into the distinct speaker labels, and all utterance texts share one
+ * String addressed by offsets. Separated by single spaces, that String is also the whole
+ * text, which is kept on its own only when there are no utterances. A long recording thus costs a handful of arrays rather than
+ * thousands of boxed objects, which matters wherever transcripts are kept around, e.g. in
+ * the {@code TranscriptCache}. It reads and writes the same JSON as {@link TranscriptResponse};
+ * per-word data is skipped.
+ */
+@JsonSerialize(using = CompactTranscript.Serializer.class)
+@JsonDeserialize(using = CompactTranscript.Deserializer.class)
+public final class CompactTranscript {
+
+    /** Start or end of an utterance AssemblyAI did not report */
+    public static final int UNKNOWN_TIME = -1;
+
+    private final String id;
+    private final String status;
+    // Only without utterances; otherwise the text is utteranceText
+    private final String text;
+    private final String error;
+    private final Double audioDuration;
+    private final int size;
+    private final int[] starts;
+    private final int[] ends;
+    private final float[] confidences;
+    private final byte[] speakers;
+    private final String[] speakerLabels;
+    private final String utteranceText;
+    // Utterance i's text ends at textOffsets[i + 1]; the next one starts after the space there
+    private final int[] textOffsets;
+
+    private CompactTranscript(Builder builder) {
+        this.id = builder.id;
+        this.status = builder.status;
+        this.size = builder.size;
+        this.text = size == 0 ? builder.text : null;
+        this.error = builder.error;
+        this.audioDuration = builder.audioDuration;
+        this.starts = Arrays.copyOf(builder.starts, size);
+        this.ends = Arrays.copyOf(builder.ends, size);
+        this.confidences = Arrays.copyOf(builder.confidences, size);
+        this.speakers = Arrays.copyOf(builder.speakers, size);
+        this.speakerLabels = builder.speakerLabels.toArray(String[]::new);
+        // Without the space after the last utterance
+        this.utteranceText = builder.utteranceText.substring(0, size == 0 ? 0 : builder.utteranceText.length() - 1);
+        this.textOffsets = Arrays.copyOf(builder.textOffsets, size + 1);
+    }
+
+    private CompactTranscript(CompactTranscript other, int[] starts, int[] ends) {
+        this.id = other.id;
+        this.status = other.status;
+        this.text = other.text;
+        this.error = other.error;
+        this.audioDuration = other.audioDuration;
+        this.size = other.size;
+        this.starts = starts;
+        this.ends = ends;
+        this.confidences = other.confidences;
+        this.speakers = other.speakers;
+        this.speakerLabels = other.speakerLabels;
+        this.utteranceText = other.utteranceText;
+        this.textOffsets = other.textOffsets;
+    }
+
+    /**
+     * The same transcript with every known start and end moved by {@code millis}, e.g. to
+     * the timeline of the whole recording when only part of it was transcribed. The other
+     * columns are shared, not copied.
+     */
+    public CompactTranscript withTimeOffset(int millis) {
+        if (millis == 0) {
+            return this;
+        }
+        return new CompactTranscript(this, shift(starts, millis), shift(ends, millis));
+    }
+
+    private static int[] shift(int[] times, int millis) {
+        int[] shifted = new int[times.length];
+        for (int i = 0; i < times.length; i++) {
+            shifted[i] = times[i] == UNKNOWN_TIME ? UNKNOWN_TIME : times[i] + millis;
+        }
+        return shifted;
+    }
+
+    /**
+     * Copy of a parsed response, e.g. one built in a test
+     */
+    public static CompactTranscript of(TranscriptResponse response) {
+        Builder builder = new Builder()
+                .id(response.getId())
+                .status(response.getStatus())
+                .text(response.getText())
+                .error(response.getError())
+                .audioDuration(response.getAudioDuration());
+        if (response.getUtterances() != null) {
+            for (TranscriptResponse.Utterance utterance : response.getUtterances()) {
+                builder.addUtterance(utterance.getSpeaker(), utterance.getText(),
+                        utterance.getStart() != null ? utterance.getStart() : UNKNOWN_TIME,
+                        utterance.getEnd() != null ? utterance.getEnd() : UNKNOWN_TIME,
+                        utterance.getConfidence() != null ? utterance.getConfidence().floatValue() : Float.NaN);
+            }
+        }
+        return builder.build();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * The whole transcript without speaker labels
+     */
+    public String getText() {
+        return size == 0 ? text : utteranceText;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Double getAudioDuration() {
+        return audioDuration;
+    }
+
+    /**
+     * Number of utterances; zero without speaker diarization
+     */
+    public int size() {
+        return size;
+    }
+
+    public int start(int utterance) {
+        return starts[checkIndex(utterance)];
+    }
+
+    public int end(int utterance) {
+        return ends[checkIndex(utterance)];
+    }
+
+    /**
+     * Confidence of the utterance, or NaN if AssemblyAI did not report one
+     */
+    public float confidence(int utterance) {
+        return confidences[checkIndex(utterance)];
+    }
+
+    /**
+     * AssemblyAI's label of the utterance's speaker, e.g. {@code A}
+     */
+    public String speaker(int utterance) {
+        return speakerLabels[speakers[checkIndex(utterance)] & 0xFF];
+    }
+
+    public String text(int utterance) {
+        checkIndex(utterance);
+        return utteranceText.substring(textStart(utterance), textOffsets[utterance + 1]);
+    }
+
+    /**
+     * Write the utterance's text without copying it out of the shared buffer
+     */
+    public void writeText(int utterance, Writer out) throws IOException {
+        checkIndex(utterance);
+        int start = textStart(utterance);
+        out.write(utteranceText, start, textOffsets[utterance + 1] - start);
+    }
+
+    private int textStart(int utterance) {
+        return utterance == 0 ? 0 : textOffsets[utterance] + 1;
+    }
+
+    private int checkIndex(int utterance) {
+        return Objects.checkIndex(utterance, size);
+    }
+
+    /**
+     * Collects a transcript one utterance at a time, growing its arrays as needed
+     */
+    public static final class Builder {
+        private String id;
+        private String status;
+        private String text;
+        private String error;
+        private Double audioDuration;
+        private int size;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private float[] confidences = new float[16];
+        private byte[] speakers = new byte[16];
+        private final List<String> speakerLabels = new ArrayList<>();
+        private final StringBuilder utteranceText = new StringBuilder(1024);
+        private int[] textOffsets = new int[17];
+
+        public Builder id(String id) {
+            this.id = id;
+            return this;
+        }
+
+        public Builder status(String status) {
+            this.status = status;
+            return this;
+        }
+
+        /**
+         * The whole text, kept only if no utterances are added; theirs are joined instead
+         */
+        public Builder text(String text) {
+            this.text = text;
+            if (text != null) {
+                // The utterances add up to the whole text, which AssemblyAI sends before them
+                utteranceText.ensureCapacity(text.length() + 1);
+            }
+            return this;
+        }
+
+        public Builder error(String error) {
+            this.error = error;
+            return this;
+        }
+
+        public Builder audioDuration(Double audioDuration) {
+            this.audioDuration = audioDuration;
+            return this;
+        }
+
+        public Builder addUtterance(String speaker, String text, int start, int end, float confidence) {
+            if (text != null) {
+                utteranceText.append(text);
+            }
+            return endUtterance(speaker, start, end, confidence);
+        }
+
+        /**
+         * Append to the text of the utterance being read, straight from the parser's buffer
+         */
+        private void appendText(char[] chars, int offset, int length) {
+            utteranceText.append(chars, offset, length);
+        }
+
+        /**
+         * Finish the utterance whose text has been appended since the previous one
+         */
+        private Builder endUtterance(String speaker, int start, int end, float confidence) {
+            if (size == starts.length) {
+                int capacity = size * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                confidences = Arrays.copyOf(confidences, capacity);
+                speakers = Arrays.copyOf(speakers, capacity);
+                textOffsets = Arrays.copyOf(textOffsets, capacity + 1);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            confidences[size] = confidence;
+            speakers[size] = speakerIndex(speaker);
+            textOffsets[++size] = utteranceText.length();
+            utteranceText.append(' ');
+            return this;
+        }
+
+        public CompactTranscript build() {
+            return new CompactTranscript(this);
+        }
+
+        private byte speakerIndex(String speaker) {
+            int index = speakerLabels.indexOf(speaker);
+            if (index < 0) {
+                if (speakerLabels.size() == 256) {
+                    throw new IllegalArgumentException("A transcript may have at most 256 speakers");
+                }
+                index = speakerLabels.size();
+                speakerLabels.add(speaker);
+            }
+            return (byte) index;
+        }
+    }
+
+    /**
+     * Fills a {@link Builder} straight from the parser's tokens; no per-utterance object is created
+     */
+    static class Deserializer extends StdDeserializer<CompactTranscript> {
+
+        Deserializer() {
+            super(CompactTranscript.class);
+        }
+
+        @Override
+        public CompactTranscript deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                return (CompactTranscript) context.handleUnexpectedToken(CompactTranscript.class, parser);
+            }
+
+            Builder builder = new Builder();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "id" -> builder.id(textOrNull(parser));
+                    case "status" -> builder.status(textOrNull(parser));
+                    case "text" -> builder.text(textOrNull(parser));
+                    case "error" -> builder.error(textOrNull(parser));
+                    case "audio_duration" -> builder.audioDuration(
+                            value == JsonToken.VALUE_NULL ? null : parser.getValueAsDouble());
+                    case "utterances" -> readUtterances(parser, builder);
+                    default -> parser.skipChildren();
+                }
+            }
+            return builder.build();
+        }
+
+        private static void readUtterances(JsonParser parser, Builder builder) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String speaker = null;
+                int start = UNKNOWN_TIME;
+                int end = UNKNOWN_TIME;
+                float confidence = Float.NaN;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    boolean isNull = value == JsonToken.VALUE_NULL;
+                    switch (field) {
+                        case "speaker" -> speaker = textOrNull(parser);
+                        // No String per utterance: the characters go straight into the shared buffer
+                        case "text" -> {
+                            if (!isNull) {
+                                builder.appendText(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                            }
+                        }
+                        case "start" -> start = isNull ? UNKNOWN_TIME : parser.getValueAsInt();
+                        case "end" -> end = isNull ? UNKNOWN_TIME : parser.getValueAsInt();
+                        case "confidence" -> confidence = isNull ? Float.NaN : (float) parser.getValueAsDouble();
+                        // Above all the per-word "words" array
+                        default -> parser.skipChildren();
+                    }
+                }
+                builder.endUtterance(speaker, start, end, confidence);
+            }
+        }
+
+        private static String textOrNull(JsonParser parser) throws IOException {
+            return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+        }
+    }
+
+    /**
+     * Writes the AssemblyAI shape back, so the JSON reads like a {@link TranscriptResponse}
+     */
+    static class Serializer extends StdSerializer<CompactTranscript> {
+
+        Serializer() {
+            super(CompactTranscript.class);
+        }
+
+        @Override
+        public void serialize(CompactTranscript transcript, JsonGenerator generator,
+                              SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", transcript.id);
+            generator.writeStringField("status", transcript.status);
+            generator.writeStringField("text", transcript.getText());
+            generator.writeStringField("error", transcript.error);
+            if (transcript.audioDuration != null) {
+                generator.writeNumberField("audio_duration", transcript.audioDuration);
+            } else {
+                generator.writeNullField("audio_duration");
+            }
+
+            if (transcript.size > 0) {
+                generator.writeArrayFieldStart("utterances");
+                for (int i = 0; i < transcript.size; i++) {
+                    generator.writeStartObject();
+                    generator.writeStringField("speaker", transcript.speaker(i));
+                    generator.writeStringField("text", transcript.text(i));
+                    writeTime(generator, "start", transcript.starts[i]);
+                    writeTime(generator, "end", transcript.ends[i]);
+                    if (!Float.isNaN(transcript.confidences[i])) {
+                        generator.writeNumberField("confidence", transcript.confidences[i]);
+                    }
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+            } else {
+                generator.writeNullField("utterances");
+            }
+            generator.writeEndObject();
+        }
+
+        private static void writeTime(JsonGenerator generator, String field, int millis) throws IOException {
+            if (millis == UNKNOWN_TIME) {
+                generator.writeNullField(field);
+            } else {
+                generator.writeNumberField(field, millis);
+            }
+        }
+    }
+}
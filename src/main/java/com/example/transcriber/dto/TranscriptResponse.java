@@ -1,6 +1,7 @@
 package com.example.transcriber.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 import java.util.List;
@@ -13,6 +14,8 @@ public class TranscriptResponse {
     private String text;
     private List<Utterance> utterances;
     private String error;
+    @JsonProperty("audio_duration")
+    private Double audioDuration;
     
     @Data
     @JsonIgnoreProperties(ignoreUnknown = true)
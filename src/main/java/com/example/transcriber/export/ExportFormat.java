@@ -0,0 +1,55 @@
+package com.example.transcriber.export;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Formats a finished transcript can be downloaded in
+ */
+public enum ExportFormat {
+    TEXT("txt", "Plain text", ".txt", "text/plain"),
+    TIMESTAMPED("timestamped", "Text with timestamps", ".timestamped.txt", "text/plain"),
+    SRT("srt", "SubRip subtitles (.srt)", ".srt", "application/x-subrip"),
+    VTT("vtt", "WebVTT subtitles (.vtt)", ".vtt", "text/vtt"),
+    JSON("json", "JSON with utterance timings", ".json", "application/json");
+
+    private final String parameter;
+    private final String label;
+    private final String suffix;
+    private final String mediaType;
+
+    ExportFormat(String parameter, String label, String suffix, String mediaType) {
+        this.parameter = parameter;
+        this.label = label;
+        this.suffix = suffix;
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Value of the download URL's {@code format} parameter
+     */
+    public String getParameter() {
+        return parameter;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Appended to the job ID to name the rendered file, and to the download's filename
+     */
+    public String getSuffix() {
+        return suffix;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static Optional<ExportFormat> fromParameter(String parameter) {
+        return Arrays.stream(values())
+                .filter(format -> format.parameter.equalsIgnoreCase(parameter))
+                .findFirst();
+    }
+}
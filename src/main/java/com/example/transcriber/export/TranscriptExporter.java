@@ -0,0 +1,224 @@
+package com.example.transcriber.export;
+
+import com.example.transcriber.config.TranscriberProperties;
+import com.example.transcriber.dto.TranscriptResponse;
+import com.example.transcriber.job.TranscriptFile;
+import com.example.transcriber.service.TranscriptStreamReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Renders finished transcripts into the other {@link ExportFormat}s the first time they are asked for.
+ *
+ * Every export is generated from the JSON the transcript store keeps next to the plain
+ * text, with utterances streamed one at a time from the parser into the output file, and
+ * is kept on disk for later downloads. Beyond {@code maxExports} the least recently used
+ * renderings are deleted and rendered again on their next download.
+ */
+@Slf4j
+public class TranscriptExporter {
+
+    private final ObjectMapper objectMapper;
+    private final int maxExports;
+    // Rendered files in access order, guarded by the instance lock
+    private final Map<Path, Boolean> rendered = new LinkedHashMap<>(16, 0.75f, true);
+
+    public TranscriptExporter(TranscriberProperties.Transcripts properties) {
+        this(new ObjectMapper(), properties.getMaxExports());
+    }
+
+    public TranscriptExporter(ObjectMapper objectMapper, int maxExports) {
+        this.objectMapper = objectMapper;
+        this.maxExports = maxExports;
+    }
+
+    /**
+     * The transcript in the given format, rendered now unless an up-to-date rendering exists.
+     *
+     * @return empty if the transcript was stored without its JSON and cannot be rendered
+     */
+    public Optional<Path> export(TranscriptFile file, ExportFormat format,
+                                 String speaker1Name, String speaker2Name) throws IOException {
+        if (format == ExportFormat.TEXT) {
+            return Optional.of(file.path());
+        }
+        Path json = file.jsonPath();
+        if (!Files.isRegularFile(json)) {
+            return Optional.empty();
+        }
+        if (format == ExportFormat.JSON) {
+            return Optional.of(json);
+        }
+
+        Path target = file.sibling(format.getSuffix());
+        if (!isUpToDate(target, json)) {
+            Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try {
+                try (InputStream in = Files.newInputStream(json);
+                     Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    render(in, format, speaker1Name, speaker2Name, out);
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            log.debug("Rendered {} export of job {}", format, file.jobId());
+        }
+
+        for (Path evicted : remember(target)) {
+            Files.deleteIfExists(evicted);
+        }
+        return Optional.of(target);
+    }
+
+    /**
+     * Write a transcript read from {@code json} in one of the rendered formats.
+     * Without speaker diarization the whole text becomes a single entry.
+     */
+    public void render(InputStream json, ExportFormat format, String speaker1Name, String speaker2Name,
+                       Writer out) throws IOException {
+        EntryWriter entries = switch (format) {
+            case TIMESTAMPED -> (index, start, end, speaker, text) -> {
+                out.write('[');
+                writeTimestamp(out, start, false, ',');
+                out.write("] ");
+                writeSpeaker(out, speaker);
+                out.write(text);
+                out.write("\n\n");
+            };
+            case SRT -> (index, start, end, speaker, text) -> {
+                out.write(Integer.toString(index));
+                out.write('\n');
+                writeTimestamp(out, start, true, ',');
+                out.write(" --> ");
+                writeTimestamp(out, end, true, ',');
+                out.write('\n');
+                writeSpeaker(out, speaker);
+                out.write(text);
+                out.write("\n\n");
+            };
+            case VTT -> (index, start, end, speaker, text) -> {
+                writeTimestamp(out, start, true, '.');
+                out.write(" --> ");
+                writeTimestamp(out, end, true, '.');
+                out.write('\n');
+                if (speaker != null) {
+                    out.write("<v ");
+                    writeEscaped(out, speaker);
+                    out.write('>');
+                }
+                writeEscaped(out, text);
+                out.write("\n\n");
+            };
+            default -> throw new IllegalArgumentException(format + " is stored as-is, not rendered");
+        };
+
+        if (format == ExportFormat.VTT) {
+            out.write("WEBVTT\n\n");
+        }
+
+        int[] count = {0};
+        TranscriptResponse transcript;
+        try {
+            transcript = TranscriptStreamReader.read(objectMapper, json, utterance -> {
+                int start = utterance.getStart() != null ? utterance.getStart() : 0;
+                int end = utterance.getEnd() != null ? utterance.getEnd() : start;
+                String speaker = "A".equals(utterance.getSpeaker()) ? speaker1Name : speaker2Name;
+                try {
+                    entries.write(++count[0], start, end, speaker, String.valueOf(utterance.getText()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (count[0] == 0 && transcript.getText() != null) {
+            long end = transcript.getAudioDuration() != null ? (long) (transcript.getAudioDuration() * 1000) : 0;
+            entries.write(1, 0, end, null, transcript.getText());
+        }
+    }
+
+    private synchronized List<Path> remember(Path export) {
+        rendered.put(export, Boolean.TRUE);
+        List<Path> evicted = new ArrayList<>();
+        Iterator<Path> eldest = rendered.keySet().iterator();
+        while (rendered.size() > maxExports && eldest.hasNext()) {
+            Path candidate = eldest.next();
+            if (!candidate.equals(export)) {
+                evicted.add(candidate);
+                eldest.remove();
+            }
+        }
+        return evicted;
+    }
+
+    private static boolean isUpToDate(Path export, Path json) throws IOException {
+        return Files.isRegularFile(export)
+                && Files.getLastModifiedTime(export).compareTo(Files.getLastModifiedTime(json)) >= 0;
+    }
+
+    @FunctionalInterface
+    private interface EntryWriter {
+        void write(int index, long startMillis, long endMillis, String speaker, String text) throws IOException;
+    }
+
+    private static void writeSpeaker(Writer out, String speaker) throws IOException {
+        if (speaker != null) {
+            out.write(speaker);
+            out.write(": ");
+        }
+    }
+
+    /**
+     * {@code HH:MM:SS}, followed by the milliseconds after {@code separator} if asked for
+     */
+    private static void writeTimestamp(Writer out, long millis, boolean withMillis, char separator) throws IOException {
+        writePadded(out, millis / 3_600_000, 2);
+        out.write(':');
+        writePadded(out, millis / 60_000 % 60, 2);
+        out.write(':');
+        writePadded(out, millis / 1000 % 60, 2);
+        if (withMillis) {
+            out.write(separator);
+            writePadded(out, millis % 1000, 3);
+        }
+    }
+
+    private static void writePadded(Writer out, long value, int width) throws IOException {
+        String digits = Long.toString(value);
+        for (int i = digits.length(); i < width; i++) {
+            out.write('0');
+        }
+        out.write(digits);
+    }
+
+    private static void writeEscaped(Writer out, String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.write("&amp;");
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                default -> out.write(c);
+            }
+        }
+    }
+}
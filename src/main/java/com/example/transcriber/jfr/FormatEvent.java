@@ -0,0 +1,47 @@
+package com.example.transcriber.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Formatting a finished transcript and writing it, its gzip copy and its JSON to disk
+ */
+@Name("com.example.transcriber.Format")
+@Label("Format")
+@Category("Transcriber")
+@StackTrace(false)
+public class FormatEvent extends Event {
+
+    @JobId
+    public String jobId;
+
+    @Label("Utterances")
+    public int utterances;
+
+    @Label("Output Bytes")
+    @DataAmount
+    public long outputBytes;
+
+    public static FormatEvent start() {
+        FormatEvent event = new FormatEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param outputBytes size of the formatted transcript, -1 if it could not be written
+     */
+    public void finish(String jobId, int utterances, long outputBytes) {
+        end();
+        if (shouldCommit()) {
+            this.jobId = jobId;
+            this.utterances = utterances;
+            this.outputBytes = outputBytes;
+            commit();
+        }
+    }
+}
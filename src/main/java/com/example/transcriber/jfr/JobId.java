@@ -0,0 +1,22 @@
+package com.example.transcriber.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.MetadataDefinition;
+import jdk.jfr.Relational;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the field all events of one transcription job share, so JDK Mission Control can
+ * group a job's upload, submit, polls and formatting
+ */
+@MetadataDefinition
+@Relational
+@Label("Job ID")
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface JobId {
+}
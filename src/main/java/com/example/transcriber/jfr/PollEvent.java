@@ -0,0 +1,49 @@
+package com.example.transcriber.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One status request for a transcript AssemblyAI is processing, from sending it to its parsed answer
+ */
+@Name("com.example.transcriber.Poll")
+@Label("Poll")
+@Category("Transcriber")
+@StackTrace(false)
+public class PollEvent extends Event {
+
+    @JobId
+    public String jobId;
+
+    @Label("Transcript ID")
+    public String transcriptId;
+
+    @Label("Attempt")
+    @Description("1 for the transcript's first status request")
+    public int attempt;
+
+    @Label("Status")
+    @Description("AssemblyAI's status, or \"failed\" if the request failed")
+    public String status;
+
+    public static PollEvent start() {
+        PollEvent event = new PollEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String jobId, String transcriptId, int attempt, String status) {
+        end();
+        if (shouldCommit()) {
+            this.jobId = jobId;
+            this.transcriptId = transcriptId;
+            this.attempt = attempt;
+            this.status = status;
+            commit();
+        }
+    }
+}
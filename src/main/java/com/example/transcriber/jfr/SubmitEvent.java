@@ -0,0 +1,40 @@
+package com.example.transcriber.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Asking AssemblyAI to transcribe an uploaded recording
+ */
+@Name("com.example.transcriber.Submit")
+@Label("Submit")
+@Category("Transcriber")
+@StackTrace(false)
+public class SubmitEvent extends Event {
+
+    @JobId
+    public String jobId;
+
+    @Label("Transcript ID")
+    @Description("AssemblyAI's ID for the transcript, null if the submission failed")
+    public String transcriptId;
+
+    public static SubmitEvent start() {
+        SubmitEvent event = new SubmitEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String jobId, String transcriptId) {
+        end();
+        if (shouldCommit()) {
+            this.jobId = jobId;
+            this.transcriptId = transcriptId;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.transcriber.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Getting a job's audio to AssemblyAI, including reading and converting it
+ */
+@Name("com.example.transcriber.Upload")
+@Label("Upload")
+@Category("Transcriber")
+@StackTrace(false)
+public class UploadEvent extends Event {
+
+    @JobId
+    public String jobId;
+
+    @Label("Bytes")
+    @Description("Bytes sent; 0 if an earlier upload of the recording was reused")
+    @DataAmount
+    public long bytes;
+
+    @Label("Throughput")
+    @DataAmount
+    @Frequency
+    public long throughput;
+
+    // Not recorded; the event's own duration is not readable before it is committed
+    private transient long startNanos;
+
+    public static UploadEvent start() {
+        UploadEvent event = new UploadEvent();
+        event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Record the upload, if the event is enabled and took longer than its threshold
+     */
+    public void finish(String jobId, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.jobId = jobId;
+            this.bytes = bytes;
+            this.throughput = (long) (bytes * 1e9 / Math.max(1, System.nanoTime() - startNanos));
+            commit();
+        }
+    }
+}
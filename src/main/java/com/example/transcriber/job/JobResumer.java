@@ -0,0 +1,38 @@
+package com.example.transcriber.job;
+
+import com.example.transcriber.service.TranscriptionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Picks up the jobs a previous run left unfinished. AssemblyAI keeps processing
+ * them while the application is down, so only the polling has to start again.
+ */
+@Slf4j
+@Component
+public class JobResumer implements ApplicationRunner {
+
+    private final JobStore jobStore;
+    private final TranscriptionService transcriptionService;
+
+    public JobResumer(JobStore jobStore, TranscriptionService transcriptionService) {
+        this.jobStore = jobStore;
+        this.transcriptionService = transcriptionService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<TranscriptionJob> unfinished = jobStore.findUnfinished();
+        if (!unfinished.isEmpty()) {
+            log.info("Resuming {} unfinished transcription jobs", unfinished.size());
+        }
+        for (TranscriptionJob job : unfinished) {
+            log.debug("Resuming job {} in state {}", job.getId(), job.getStatus());
+            transcriptionService.resumeJob(job);
+        }
+    }
+}
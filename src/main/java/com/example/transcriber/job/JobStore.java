@@ -0,0 +1,150 @@
+package com.example.transcriber.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Persistent table of transcription jobs.
+ *
+ * Every step that AssemblyAI would otherwise be the only one to remember, the upload URL
+ * and the transcript ID, is written as soon as it is known, so {@link JobResumer} can
+ * continue unfinished jobs after a restart. Backed by whatever {@code spring.datasource}
+ * points at; the table is created on first use.
+ */
+@Slf4j
+@Repository
+public class JobStore {
+
+    private static final RowMapper<TranscriptionJob> ROW_MAPPER = (rs, rowNum) -> {
+        TranscriptionJob job = new TranscriptionJob();
+        job.setId(rs.getString("id"));
+        job.setOwner(rs.getString("owner"));
+        job.setContentHash(rs.getString("content_hash"));
+        job.setSpeaker1Name(rs.getString("speaker1_name"));
+        job.setSpeaker2Name(rs.getString("speaker2_name"));
+        job.setUploadUrl(rs.getString("upload_url"));
+        job.setTranscriptId(rs.getString("transcript_id"));
+        long duration = rs.getLong("audio_duration_ms");
+        job.setAudioDurationMillis(rs.wasNull() ? null : duration);
+        job.setTimeOffsetMillis(rs.getLong("time_offset_ms"));
+        job.setStatus(TranscriptionJob.Status.valueOf(rs.getString("status")));
+        job.setError(rs.getString("error"));
+        job.setResultPath(rs.getString("result_path"));
+        job.setCreatedAt(rs.getTimestamp("created_at").toInstant());
+        job.setUpdatedAt(rs.getTimestamp("updated_at").toInstant());
+        return job;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS transcription_job (
+                id VARCHAR(36) PRIMARY KEY,
+                owner VARCHAR(255),
+                content_hash VARCHAR(64),
+                speaker1_name VARCHAR(255),
+                speaker2_name VARCHAR(255),
+                upload_url VARCHAR(2048),
+                transcript_id VARCHAR(64),
+                audio_duration_ms BIGINT,
+                time_offset_ms BIGINT DEFAULT 0 NOT NULL,
+                status VARCHAR(16) NOT NULL,
+                error VARCHAR(1024),
+                result_path VARCHAR(1024),
+                created_at TIMESTAMP NOT NULL,
+                updated_at TIMESTAMP NOT NULL
+            )""");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS transcription_job_owner ON transcription_job (owner, created_at)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS transcription_job_status ON transcription_job (status)");
+    }
+
+    /**
+     * A store in a private in-memory H2 database, for use outside of Spring
+     */
+    public static JobStore inMemory() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:jobs-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        return new JobStore(new JdbcTemplate(dataSource));
+    }
+
+    public TranscriptionJob create(String owner, String contentHash, String speaker1Name, String speaker2Name) {
+        Timestamp now = Timestamp.from(Instant.now());
+        String id = UUID.randomUUID().toString();
+        jdbcTemplate.update("""
+            INSERT INTO transcription_job (id, owner, content_hash, speaker1_name, speaker2_name, status, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)""",
+            id, owner, contentHash, speaker1Name, speaker2Name, TranscriptionJob.Status.QUEUED.name(), now, now);
+        return findById(id).orElseThrow();
+    }
+
+    public void markUploaded(String id, String uploadUrl, Duration audioDuration) {
+        markUploaded(id, uploadUrl, audioDuration, Duration.ZERO);
+    }
+
+    /**
+     * @param timeOffset where the uploaded audio starts in the recording, if its beginning was cut off
+     */
+    public void markUploaded(String id, String uploadUrl, Duration audioDuration, Duration timeOffset) {
+        update("UPDATE transcription_job SET status = ?, upload_url = ?, audio_duration_ms = ?, time_offset_ms = ?, updated_at = ? WHERE id = ?",
+                TranscriptionJob.Status.UPLOADED.name(), uploadUrl, audioDuration.toMillis(), timeOffset.toMillis(), now(), id);
+    }
+
+    public void markSubmitted(String id, String transcriptId) {
+        update("UPDATE transcription_job SET status = ?, transcript_id = ?, updated_at = ? WHERE id = ?",
+                TranscriptionJob.Status.SUBMITTED.name(), transcriptId, now(), id);
+    }
+
+    public void markCompleted(String id, String resultPath) {
+        update("UPDATE transcription_job SET status = ?, result_path = ?, error = NULL, updated_at = ? WHERE id = ?",
+                TranscriptionJob.Status.COMPLETED.name(), resultPath, now(), id);
+    }
+
+    public void markFailed(String id, String error) {
+        String truncated = error != null && error.length() > 1024 ? error.substring(0, 1024) : error;
+        update("UPDATE transcription_job SET status = ?, error = ?, updated_at = ? WHERE id = ?",
+                TranscriptionJob.Status.FAILED.name(), truncated, now(), id);
+    }
+
+    public Optional<TranscriptionJob> findById(String id) {
+        return jdbcTemplate.query("SELECT * FROM transcription_job WHERE id = ?", ROW_MAPPER, id)
+                .stream().findFirst();
+    }
+
+    /**
+     * The owner's most recently started job
+     */
+    public Optional<TranscriptionJob> findLatest(String owner) {
+        return jdbcTemplate.query("SELECT * FROM transcription_job WHERE owner = ? ORDER BY created_at DESC LIMIT 1",
+                ROW_MAPPER, owner).stream().findFirst();
+    }
+
+    /**
+     * Jobs that neither completed nor failed, oldest first
+     */
+    public List<TranscriptionJob> findUnfinished() {
+        return jdbcTemplate.query("SELECT * FROM transcription_job WHERE status NOT IN (?, ?) ORDER BY created_at",
+                ROW_MAPPER, TranscriptionJob.Status.COMPLETED.name(), TranscriptionJob.Status.FAILED.name());
+    }
+
+    private void update(String sql, Object... args) {
+        if (jdbcTemplate.update(sql, args) == 0) {
+            log.warn("Transcription job {} not found", args[args.length - 1]);
+        }
+    }
+
+    private static Timestamp now() {
+        return Timestamp.from(Instant.now());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.transcriber.job;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A formatted transcript written to disk by the {@link TranscriptStore}, next to a
+ * gzip-compressed copy that downloads can be served from as-is and the utterances as
+ * JSON that other export formats are rendered from.
+ */
+public record TranscriptFile(String jobId, Path path) {
+
+    public boolean exists() {
+        return Files.isRegularFile(path);
+    }
+
+    public long size() throws IOException {
+        return Files.size(path);
+    }
+
+    /**
+     * The compressed copy; may be missing for transcripts written before it was introduced
+     */
+    public Path gzipPath() {
+        return path.resolveSibling(path.getFileName() + ".gz");
+    }
+
+    /**
+     * The transcript with its utterance timings; may be missing for transcripts written before it was introduced
+     */
+    public Path jsonPath() {
+        return sibling(".json");
+    }
+
+    /**
+     * A file next to the transcript named after the job, e.g. for a rendered export
+     */
+    public Path sibling(String suffix) {
+        return path.resolveSibling(jobId + suffix);
+    }
+
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    /**
+     * The whole transcript as a String; only meant for short transcripts
+     */
+    public String readText() throws IOException {
+        return Files.readString(path, StandardCharsets.UTF_8);
+    }
+}
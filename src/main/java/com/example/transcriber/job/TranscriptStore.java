@@ -0,0 +1,118 @@
+package com.example.transcriber.job;
+
+import com.example.transcriber.config.TranscriberProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Directory of formatted transcripts, one file per job.
+ *
+ * A transcript is written once, through a temporary file that is moved into place when
+ * complete, together with a gzip-compressed copy, and is read from disk by every later
+ * download. Files older than the retention period are deleted, at most once an hour,
+ * when a new one is written.
+ */
+@Slf4j
+public class TranscriptStore {
+
+    private static final Duration PRUNE_INTERVAL = Duration.ofHours(1);
+
+    private final Path directory;
+    private final Duration retention;
+    private volatile Instant prunedAt = Instant.EPOCH;
+
+    public TranscriptStore(TranscriberProperties.Transcripts properties) {
+        this(Path.of(properties.getDirectory()), properties.getRetention());
+    }
+
+    public TranscriptStore(Path directory, Duration retention) {
+        this.directory = directory;
+        this.retention = retention;
+    }
+
+    @FunctionalInterface
+    public interface Content {
+        void writeTo(Writer out) throws IOException;
+    }
+
+    /**
+     * Write the job's transcript, replacing an earlier one
+     */
+    public TranscriptFile write(String jobId, Content content) throws IOException {
+        return write(jobId, content, null);
+    }
+
+    /**
+     * Write the job's transcript and, unless {@code json} is null, the JSON that other
+     * export formats are rendered from
+     */
+    public TranscriptFile write(String jobId, Content content, Content json) throws IOException {
+        Files.createDirectories(directory);
+        TranscriptFile file = new TranscriptFile(jobId, directory.resolve(jobId + ".txt"));
+        if (json != null) {
+            moveIntoPlace(file.jsonPath(), temp -> writeText(temp, json));
+        }
+        moveIntoPlace(file.path(), temp -> writeText(temp, content));
+        // Compressed once here, so gzip downloads are sent straight from disk
+        moveIntoPlace(file.gzipPath(), temp -> {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                Files.copy(file.path(), out);
+            }
+        });
+
+        pruneIfDue();
+        return file;
+    }
+
+    private interface TempFileWriter {
+        void write(Path temp) throws IOException;
+    }
+
+    private static void writeText(Path file, Content content) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            content.writeTo(out);
+        }
+    }
+
+    private void moveIntoPlace(Path target, TempFileWriter writer) throws IOException {
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            writer.write(temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private void pruneIfDue() {
+        Instant now = Instant.now();
+        if (prunedAt.plus(PRUNE_INTERVAL).isAfter(now)) {
+            return;
+        }
+        prunedAt = now;
+
+        Instant cutoff = now.minus(retention);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{txt,gz,json,srt,vtt}")) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    log.debug("Deleting expired transcript {}", file);
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not prune transcripts in {}", directory, e);
+        }
+    }
+}
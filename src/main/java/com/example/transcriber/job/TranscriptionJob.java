@@ -0,0 +1,45 @@
+package com.example.transcriber.job;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * A transcription as recorded in the {@link JobStore}, enough to pick it up again
+ * after a restart and to show its result to its owner later.
+ */
+@Data
+public class TranscriptionJob {
+
+    public enum Status {
+        /** Created, the audio is not at AssemblyAI yet */
+        QUEUED,
+        /** The audio is at AssemblyAI under {@code uploadUrl} */
+        UPLOADED,
+        /** AssemblyAI is transcribing it as {@code transcriptId} */
+        SUBMITTED,
+        COMPLETED,
+        FAILED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED;
+        }
+    }
+
+    private String id;
+    private String owner;
+    private String contentHash;
+    private String speaker1Name;
+    private String speaker2Name;
+    private String uploadUrl;
+    private String transcriptId;
+    private Long audioDurationMillis;
+    /** Milliseconds of leading silence left out of the upload, added to the transcript's timestamps */
+    private long timeOffsetMillis;
+    private Status status;
+    private String error;
+    /** Location of the formatted transcript once completed, see {@link TranscriptStore} */
+    private String resultPath;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
@@ -0,0 +1,98 @@
+package com.example.transcriber.service;
+
+import com.example.transcriber.config.TranscriberProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides when a pending transcript is polled next.
+ *
+ * Each transcript's finish time is predicted from its audio duration and a rolling
+ * average of how long AssemblyAI has recently taken per minute of audio. Until the
+ * prediction each poll halves the remaining time, so polls are sparse early and dense
+ * near the expected finish. A late transcript is polled at a slowly growing interval.
+ * Every delay gets random jitter, so jobs submitted together do not poll in lockstep,
+ * and is kept between the minimum and maximum interval.
+ */
+@Slf4j
+public class AdaptivePollSchedule {
+
+    // Weight of the newest observation in the rolling processing-speed average
+    private static final double SMOOTHING = 0.2;
+
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final Duration baseLatency;
+    private final double jitter;
+    private volatile double secondsPerAudioMinute;
+
+    public AdaptivePollSchedule(TranscriberProperties.Polling properties) {
+        this(properties.getMinInterval(), properties.getMaxInterval(), properties.getBaseLatency(),
+             properties.getInitialSecondsPerAudioMinute(), properties.getJitter());
+    }
+
+    public AdaptivePollSchedule(Duration minInterval, Duration maxInterval, Duration baseLatency,
+                                double initialSecondsPerAudioMinute, double jitter) {
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.baseLatency = baseLatency;
+        this.secondsPerAudioMinute = initialSecondsPerAudioMinute;
+        this.jitter = jitter;
+    }
+
+    /**
+     * How long AssemblyAI is expected to take for audio of the given length
+     */
+    public Duration expectedProcessingTime(Duration audioDuration) {
+        double audioMinutes = audioDuration.toMillis() / 60_000.0;
+        return baseLatency.plusMillis((long) (audioMinutes * secondsPerAudioMinute * 1000));
+    }
+
+    /**
+     * Delay before the first status request after submitting
+     */
+    public Duration firstDelay(Duration audioDuration) {
+        return nextDelay(audioDuration, Duration.ZERO);
+    }
+
+    /**
+     * Delay before the next status request for a transcript submitted {@code elapsed} ago
+     */
+    public Duration nextDelay(Duration audioDuration, Duration elapsed) {
+        long expectedMillis = expectedProcessingTime(audioDuration).toMillis();
+        long elapsedMillis = elapsed.toMillis();
+
+        long delayMillis;
+        if (elapsedMillis < expectedMillis) {
+            delayMillis = (expectedMillis - elapsedMillis) / 2;
+        } else {
+            // Overdue: back off in proportion to how late the transcript already is
+            delayMillis = (elapsedMillis - expectedMillis) / 4;
+        }
+
+        if (jitter > 0) {
+            delayMillis = (long) (delayMillis * (1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter)));
+        }
+        return Duration.ofMillis(Math.max(minInterval.toMillis(), Math.min(maxInterval.toMillis(), delayMillis)));
+    }
+
+    /**
+     * Feed the time a finished transcript took back into the processing-speed average
+     */
+    public synchronized void recordCompletion(Duration audioDuration, Duration elapsed) {
+        double audioMinutes = audioDuration.toMillis() / 60_000.0;
+        if (audioMinutes < 1) {
+            // Short clips are dominated by fixed latency and say little about processing speed
+            return;
+        }
+        double observed = Math.max(0, elapsed.minus(baseLatency).toMillis() / 1000.0) / audioMinutes;
+        secondsPerAudioMinute = (1 - SMOOTHING) * secondsPerAudioMinute + SMOOTHING * observed;
+        log.debug("Observed {} s per audio minute, rolling average now {}", observed, secondsPerAudioMinute);
+    }
+
+    public double getSecondsPerAudioMinute() {
+        return secondsPerAudioMinute;
+    }
+}
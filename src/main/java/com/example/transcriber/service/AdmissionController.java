@@ -0,0 +1,233 @@
+package com.example.transcriber.service;
+
+import com.example.transcriber.config.TranscriberProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntConsumer;
+
+/**
+ * Decides when a transcription may start talking to AssemblyAI.
+ *
+ * At most {@code maxConcurrent} jobs run at once, and at most {@code maxPerUser} of them
+ * for the same user. Jobs beyond that wait in a queue per user, and free slots go to the
+ * users in turn, so one user submitting many jobs cannot starve the others. Waiting jobs
+ * are told their position whenever it changes. The number of waiting and running jobs is
+ * published as {@code transcriber.queue.depth} and {@code transcriber.queue.running}, the
+ * time spent waiting as {@code transcriber.queue.wait}.
+ */
+@Slf4j
+public class AdmissionController implements MeterBinder {
+
+    private static final String ANONYMOUS = "";
+
+    private final int maxConcurrent;
+    private final int maxPerUser;
+    private final int maxQueuedPerUser;
+
+    // Guarded by this
+    private final Map<String, Deque<Waiter>> queues = new HashMap<>();
+    private final Deque<String> turnOrder = new ArrayDeque<>();
+    private final Map<String, Integer> runningPerUser = new HashMap<>();
+    private int running;
+    private int queued;
+
+    private volatile Timer waitTimer;
+
+    public AdmissionController(TranscriberProperties.Admission properties) {
+        this(properties.getMaxConcurrent(), properties.getMaxPerUser(), properties.getMaxQueuedPerUser());
+    }
+
+    public AdmissionController(int maxConcurrent, int maxPerUser, int maxQueuedPerUser) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxPerUser = maxPerUser;
+        this.maxQueuedPerUser = maxQueuedPerUser;
+    }
+
+    /**
+     * Wait for a slot for one of the user's jobs.
+     *
+     * @param positionCallback told the job's 1-based place in the queue while it waits
+     * @return completes with the slot, which must be {@link Permit#release() released}
+     *         when the job ends; fails if the user already has too many jobs waiting
+     */
+    public CompletableFuture<Permit> admit(String user, IntConsumer positionCallback) {
+        String key = user != null ? user : ANONYMOUS;
+        Waiter waiter = new Waiter(key, positionCallback);
+        List<Runnable> notifications;
+        synchronized (this) {
+            Deque<Waiter> queue = queues.get(key);
+            if (queue == null && canRun(key)) {
+                start(waiter);
+                return CompletableFuture.completedFuture(new Permit(key));
+            }
+            if (queue != null && queue.size() >= maxQueuedPerUser) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException(
+                        "too many transcriptions queued, please wait for the running ones to finish"));
+            }
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                queues.put(key, queue);
+                turnOrder.addLast(key);
+            }
+            queue.addLast(waiter);
+            queued++;
+            log.debug("Queued a job for {}, {} waiting", key, queued);
+            notifications = positionNotifications();
+        }
+        notifications.forEach(Runnable::run);
+        return waiter.future;
+    }
+
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    public synchronized int getQueued() {
+        return queued;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("transcriber.queue.depth", this, AdmissionController::getQueued)
+                .description("Transcriptions waiting for a slot")
+                .register(registry);
+        Gauge.builder("transcriber.queue.running", this, AdmissionController::getRunning)
+                .description("Transcriptions holding a slot")
+                .register(registry);
+        waitTimer = Timer.builder("transcriber.queue.wait")
+                .description("Time transcriptions waited for a slot")
+                .register(registry);
+    }
+
+    private boolean canRun(String key) {
+        return running < maxConcurrent && runningPerUser.getOrDefault(key, 0) < maxPerUser;
+    }
+
+    // Called with the lock held
+    private void start(Waiter waiter) {
+        running++;
+        runningPerUser.merge(waiter.user, 1, Integer::sum);
+        Timer timer = waitTimer;
+        if (timer != null) {
+            timer.record(Duration.ofNanos(System.nanoTime() - waiter.queuedAt));
+        }
+    }
+
+    private void release(String key) {
+        List<Waiter> started = new ArrayList<>();
+        List<Runnable> notifications;
+        synchronized (this) {
+            running--;
+            runningPerUser.computeIfPresent(key, (user, count) -> count > 1 ? count - 1 : null);
+            dispatch(started);
+            notifications = positionNotifications();
+        }
+        for (Waiter waiter : started) {
+            waiter.future.complete(new Permit(waiter.user));
+        }
+        notifications.forEach(Runnable::run);
+    }
+
+    /**
+     * Hand free slots to the users in turn, skipping those already at their own limit
+     */
+    private void dispatch(List<Waiter> started) {
+        boolean progress = true;
+        while (running < maxConcurrent && !turnOrder.isEmpty() && progress) {
+            progress = false;
+            Iterator<String> users = turnOrder.iterator();
+            while (users.hasNext()) {
+                String key = users.next();
+                if (!canRun(key)) {
+                    continue;
+                }
+                Deque<Waiter> queue = queues.get(key);
+                Waiter waiter = queue.pollFirst();
+                queued--;
+                start(waiter);
+                started.add(waiter);
+                progress = true;
+                users.remove();
+                if (queue.isEmpty()) {
+                    queues.remove(key);
+                } else {
+                    // Served: this user goes to the back of the line
+                    turnOrder.addLast(key);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Queue positions as they would be served in turn, ignoring per-user limits
+     */
+    private List<Runnable> positionNotifications() {
+        List<Runnable> notifications = new ArrayList<>();
+        Deque<Iterator<Waiter>> rounds = new ArrayDeque<>();
+        turnOrder.forEach(key -> rounds.addLast(queues.get(key).iterator()));
+        int position = 0;
+        while (!rounds.isEmpty()) {
+            Iterator<Waiter> queue = rounds.pollFirst();
+            Waiter waiter = queue.next();
+            int current = ++position;
+            if (waiter.lastPosition != current) {
+                waiter.lastPosition = current;
+                notifications.add(() -> waiter.positionCallback.accept(current));
+            }
+            if (queue.hasNext()) {
+                rounds.addLast(queue);
+            }
+        }
+        return notifications;
+    }
+
+    private static class Waiter {
+        private final String user;
+        private final IntConsumer positionCallback;
+        private final long queuedAt = System.nanoTime();
+        private final CompletableFuture<Permit> future = new CompletableFuture<>();
+        private int lastPosition;
+
+        private Waiter(String user, IntConsumer positionCallback) {
+            this.user = user;
+            this.positionCallback = positionCallback;
+        }
+    }
+
+    /**
+     * A running job's slot
+     */
+    public class Permit {
+        private final String user;
+        private boolean released;
+
+        private Permit(String user) {
+            this.user = user;
+        }
+
+        public void release() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            AdmissionController.this.release(user);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.transcriber.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+/**
+ * Audio held by this node that can be read, from the start, as often as needed.
+ */
+public interface AudioSource {
+
+    String getName();
+
+    /**
+     * Size in bytes, sent as the upload's Content-Length
+     */
+    long length();
+
+    InputStream openStream() throws IOException;
+
+    /**
+     * Hex-encoded SHA-256 of the content if it was computed on the way in, otherwise null
+     */
+    default String getContentHash() {
+        return null;
+    }
+
+    static AudioSource of(File file) {
+        return new AudioSource() {
+            @Override
+            public String getName() {
+                return file.getName();
+            }
+
+            @Override
+            public long length() {
+                return file.length();
+            }
+
+            @Override
+            public InputStream openStream() throws IOException {
+                return Files.newInputStream(file.toPath());
+            }
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.transcriber.service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Computes the SHA-256 of everything written through it, so an upload's content hash
+ * is known as soon as the last byte has been received.
+ */
+public class HashingOutputStream extends FilterOutputStream {
+
+    private final MessageDigest digest;
+    private String contentHash;
+
+    public HashingOutputStream(OutputStream out) {
+        super(out);
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        digest.update((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        digest.update(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            synchronized (this) {
+                if (contentHash == null) {
+                    contentHash = HexFormat.of().formatHex(digest.digest());
+                }
+            }
+        }
+    }
+
+    /**
+     * Hex-encoded SHA-256 of the content, or null until the stream is closed
+     */
+    public synchronized String getContentHash() {
+        return contentHash;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.transcriber.service;
+
+import com.example.transcriber.config.TranscriberProperties;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the one {@link OkHttpClient} all calls to AssemblyAI share: its connection pool,
+ * dispatcher limits, timeouts, rate limiting and retries, and the {@link HttpClientMetrics}
+ * that time its calls.
+ */
+public final class HttpClientFactory {
+
+    private HttpClientFactory() {
+    }
+
+    public static OkHttpClient create(TranscriberProperties properties) {
+        TranscriberProperties.Http http = properties.getHttp();
+        TranscriberProperties.Api api = properties.getApi();
+
+        ConnectionPool connectionPool = new ConnectionPool(http.getMaxIdleConnections(),
+                http.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(http.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(http.getMaxRequestsPerHost());
+        TokenBucket tokenBucket = new TokenBucket(api.getRequestsPerSecond(), api.getBurst());
+
+        return new OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                .dispatcher(dispatcher)
+                .protocols(http.isHttp2() ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
+                .eventListenerFactory(new HttpClientMetrics(connectionPool, dispatcher))
+                .addInterceptor(new RetryInterceptor(tokenBucket, api.getMaxAttempts(),
+                        api.getInitialBackoff(), api.getMaxBackoff()))
+                .connectTimeout(http.getConnectTimeout())
+                .readTimeout(http.getReadTimeout())
+                .writeTimeout(http.getWriteTimeout())
+                .build();
+    }
+
+    /**
+     * The metrics of a client built by {@link #create}
+     */
+    public static HttpClientMetrics metrics(OkHttpClient client) {
+        if (!(client.eventListenerFactory() instanceof HttpClientMetrics metrics)) {
+            throw new IllegalArgumentException("Client was not built by HttpClientFactory");
+        }
+        return metrics;
+    }
+}
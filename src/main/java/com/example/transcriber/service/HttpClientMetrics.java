@@ -0,0 +1,139 @@
+package com.example.transcriber.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the phases of every call to AssemblyAI: DNS lookup, TCP connect, TLS handshake
+ * and time to the first response byte. Calls on a pooled connection skip the first three,
+ * so their counts against the TTFB count show how often connections are reused.
+ * Also reports the shared connection pool and dispatcher.
+ */
+@Slf4j
+public class HttpClientMetrics implements EventListener.Factory, MeterBinder {
+
+    private final ConnectionPool connectionPool;
+    private final Dispatcher dispatcher;
+    // No-op until bound to a registry
+    private volatile Timers timers = new Timers(new CompositeMeterRegistry());
+
+    public HttpClientMetrics(ConnectionPool connectionPool, Dispatcher dispatcher) {
+        this.connectionPool = connectionPool;
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public EventListener create(Call call) {
+        return new CallTimer(timers);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        timers = new Timers(registry);
+        Gauge.builder("transcriber.http.connections", connectionPool, ConnectionPool::connectionCount)
+                .description("Open connections to AssemblyAI")
+                .register(registry);
+        Gauge.builder("transcriber.http.connections.idle", connectionPool, ConnectionPool::idleConnectionCount)
+                .description("Open connections to AssemblyAI not carrying a call")
+                .register(registry);
+        Gauge.builder("transcriber.http.calls.running", dispatcher, Dispatcher::runningCallsCount)
+                .description("Calls to AssemblyAI in flight")
+                .register(registry);
+        Gauge.builder("transcriber.http.calls.queued", dispatcher, Dispatcher::queuedCallsCount)
+                .description("Asynchronous calls to AssemblyAI waiting for the per-host limit")
+                .register(registry);
+    }
+
+    private record Timers(Timer dns, Timer connect, Timer tls, Timer ttfb) {
+
+        Timers(MeterRegistry registry) {
+            this(Timer.builder("transcriber.http.dns").description("DNS lookups of AssemblyAI hosts").register(registry),
+                    Timer.builder("transcriber.http.connect").description("TCP and TLS connection setup").register(registry),
+                    Timer.builder("transcriber.http.tls").description("TLS handshakes").register(registry),
+                    Timer.builder("transcriber.http.ttfb")
+                            .description("From sending a request to the first byte of its response")
+                            .register(registry));
+        }
+    }
+
+    /**
+     * One call's events; OkHttp delivers them sequentially, so plain fields suffice
+     */
+    private static final class CallTimer extends EventListener {
+        private final Timers timers;
+        private long dnsStart;
+        private long connectStart;
+        private long tlsStart;
+        private long requestStart;
+
+        CallTimer(Timers timers) {
+            this.timers = timers;
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> addresses) {
+            timers.dns().record(System.nanoTime() - dnsStart, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+            connectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            tlsStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            timers.tls().record(System.nanoTime() - tlsStart, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+            long elapsed = System.nanoTime() - connectStart;
+            timers.connect().record(elapsed, TimeUnit.NANOSECONDS);
+            log.debug("Connected to {} over {} in {} ms", address, protocol, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol,
+                                  IOException e) {
+            log.debug("Connecting to {} failed: {}", address, e.toString());
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            // Again for every retry of the call
+            requestStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            timers.ttfb().record(System.nanoTime() - requestStart, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.transcriber.service;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends every AssemblyAI call through the shared {@link TokenBucket} and retries the
+ * ones that failed for a transient reason, with exponential backoff and full jitter.
+ *
+ * A 429 or 503 means the request was not processed, so any request whose body can be
+ * sent again is retried, honouring {@code Retry-After}; a 429 also pauses the bucket
+ * for all callers. A network error or a 502/504 leaves it open whether the request
+ * took effect, so only requests that are safe to repeat are retried: status polls and
+ * uploads, but never a transcript submission, which could create a second transcript.
+ * A streamed upload's body can only be sent once and is never retried.
+ *
+ * Waiting for a token or a retry blocks the calling thread, which is fine for
+ * {@code execute()} on a job's own thread but would hold one of OkHttp's dispatcher
+ * slots for an {@code enqueue}d call. Callers that enqueue mark the request
+ * {@link #nonBlocking}, which the interceptor passes straight through, and do the
+ * same waiting on their own scheduler with {@link #reserve()} and {@link #retryDelay}.
+ */
+@Slf4j
+public class RetryInterceptor implements Interceptor {
+
+    // Upper bound on a server-supplied Retry-After, so a bogus value cannot park a job for good
+    private static final Duration MAX_RETRY_AFTER = Duration.ofMinutes(5);
+
+    // Stands in for clients built without rate limiting or retries, e.g. in tests
+    private static final RetryInterceptor NONE =
+            new RetryInterceptor(new TokenBucket(Double.POSITIVE_INFINITY, Integer.MAX_VALUE), 1, Duration.ZERO, Duration.ZERO);
+
+    private enum NonBlocking { INSTANCE }
+
+    private final TokenBucket tokenBucket;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public RetryInterceptor(TokenBucket tokenBucket, int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        this.tokenBucket = tokenBucket;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * The client's retry interceptor, or one that never waits or retries if it has none
+     */
+    static RetryInterceptor of(OkHttpClient client) {
+        for (Interceptor interceptor : client.interceptors()) {
+            if (interceptor instanceof RetryInterceptor retryInterceptor) {
+                return retryInterceptor;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Mark a request whose caller takes its token and schedules its retries itself
+     */
+    static Request.Builder nonBlocking(Request.Builder request) {
+        return request.tag(NonBlocking.class, NonBlocking.INSTANCE);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.tag(NonBlocking.class) != null) {
+            return chain.proceed(request);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            sleep(reserve(), "Interrupted while waiting for the rate limiter");
+
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                Duration delay = chain.call().isCanceled() ? null : retryDelay(request, e, attempt);
+                if (delay == null) {
+                    throw e;
+                }
+                sleep(delay, "Interrupted while waiting to retry");
+                continue;
+            }
+
+            Duration delay = retryDelay(response, attempt);
+            if (delay == null) {
+                return response;
+            }
+            response.close();
+            sleep(delay, "Interrupted while waiting to retry");
+        }
+    }
+
+    /**
+     * Take the next free slot in the rate limit, without waiting for it
+     *
+     * @return how long to wait before sending the request
+     */
+    Duration reserve() {
+        return Duration.ofNanos(Math.max(0, tokenBucket.reserve()));
+    }
+
+    /**
+     * How long to wait before sending a request again that failed with a network error
+     *
+     * @param attempt the attempts made so far, this one included
+     * @return null if it should not be retried
+     */
+    Duration retryDelay(Request request, IOException error, int attempt) {
+        if (!isReplayable(request) || !isSafeToRepeat(request) || attempt >= maxAttempts) {
+            return null;
+        }
+        Duration delay = backoff(attempt);
+        log.warn("{} {} failed ({}), retrying in {} ms", request.method(), request.url().encodedPath(),
+                error.getMessage(), delay.toMillis());
+        return delay;
+    }
+
+    /**
+     * How long to wait before sending the response's request again; a 429 also pauses
+     * the rate limit for every caller that long
+     *
+     * @param attempt the attempts made so far, this one included
+     * @return null if the response is final
+     */
+    Duration retryDelay(Response response, int attempt) {
+        Request request = response.request();
+        if (!isReplayable(request) || attempt >= maxAttempts || !isRetryable(response.code(), request)) {
+            return null;
+        }
+        Duration retryAfter = retryAfter(response);
+        Duration delay = retryAfter != null ? retryAfter : backoff(attempt);
+        if (response.code() == 429) {
+            tokenBucket.pause(delay);
+        }
+        log.warn("{} {} answered {}, retrying in {} ms", request.method(), request.url().encodedPath(),
+                response.code(), delay.toMillis());
+        return delay;
+    }
+
+    private static boolean isReplayable(Request request) {
+        return request.body() == null || !request.body().isOneShot();
+    }
+
+    private static boolean isRetryable(int code, Request request) {
+        return switch (code) {
+            case 429, 503 -> true;
+            case 502, 504 -> isSafeToRepeat(request);
+            default -> false;
+        };
+    }
+
+    private static boolean isSafeToRepeat(Request request) {
+        // A repeated upload only yields another upload URL
+        return "GET".equals(request.method()) || request.url().encodedPath().endsWith("/upload");
+    }
+
+    private Duration backoff(int attempt) {
+        long ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    /**
+     * {@code Retry-After} as either delta-seconds or an HTTP date, or null if absent or malformed
+     */
+    static Duration retryAfter(Response response) {
+        String value = response.header("Retry-After");
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        Duration delay;
+        try {
+            delay = Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                Instant at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                delay = Duration.between(Instant.now(), at);
+            } catch (DateTimeParseException dateException) {
+                return null;
+            }
+        }
+        if (delay.isNegative()) {
+            return Duration.ZERO;
+        }
+        return delay.compareTo(MAX_RETRY_AFTER) > 0 ? MAX_RETRY_AFTER : delay;
+    }
+
+    private static void sleep(Duration delay, String interruptedMessage) throws InterruptedIOException {
+        if (delay.isZero()) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(delay.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(interruptedMessage);
+        }
+    }
+}
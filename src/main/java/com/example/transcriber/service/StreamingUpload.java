@@ -0,0 +1,214 @@
+package com.example.transcriber.service;
+
+import com.example.transcriber.audio.AudioDurationEstimator;
+import com.example.transcriber.audio.WavDownsampler;
+import okhttp3.Call;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Pipe;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * An upload to AssemblyAI whose body is written while the request is in flight.
+ *
+ * Bytes written to {@link #getOutputStream()} pass through a bounded Okio {@link Pipe}
+ * into a chunked request body, so at most {@code maxBufferSize} bytes are held in memory
+ * and the writer blocks whenever the network falls behind. With a target sample rate,
+ * WAV recordings are converted by a {@link WavDownsampler} on their way into the pipe;
+ * the content hash and duration estimate still describe the bytes as written.
+ */
+public class StreamingUpload {
+
+    private final Pipe pipe;
+    private final MediaType contentType;
+    private final WavDownsampler downsampler;
+    private final HashingOutputStream hashingStream;
+    private final OutputStream outputStream;
+    private final CompletableFuture<String> uploadUrl = new CompletableFuture<>();
+    private final long startNanos = System.nanoTime();
+    private volatile Duration uploadTime;
+    private volatile Call call;
+
+    StreamingUpload(long maxBufferSize, MediaType contentType) {
+        this(maxBufferSize, contentType, 0);
+    }
+
+    /**
+     * @param wavSampleRate rate WAV recordings are converted to, or 0 to send every file unchanged
+     */
+    StreamingUpload(long maxBufferSize, MediaType contentType, int wavSampleRate) {
+        this.pipe = new Pipe(maxBufferSize);
+        this.contentType = contentType;
+        OutputStream pipeStream = Okio.buffer(pipe.sink()).outputStream();
+        this.downsampler = wavSampleRate > 0 ? new WavDownsampler(pipeStream, wavSampleRate, -1) : null;
+        this.hashingStream = new HashingOutputStream(downsampler != null ? downsampler : pipeStream);
+        this.outputStream = new CountingOutputStream(hashingStream);
+    }
+
+    /**
+     * Stream the audio bytes are written to. Closing it ends the request body.
+     */
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    /**
+     * Completes with the {@code upload_url} once AssemblyAI has accepted the body.
+     */
+    public CompletableFuture<String> getUploadUrl() {
+        return uploadUrl;
+    }
+
+    /**
+     * Block until the upload finishes and return its {@code upload_url}.
+     */
+    public String awaitUploadUrl() throws IOException, InterruptedException {
+        try {
+            return uploadUrl.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("File upload failed", e.getCause());
+        }
+    }
+
+    /**
+     * Play time of the audio, estimated from the bytes written so far
+     */
+    public Duration getEstimatedDuration() {
+        CountingOutputStream counter = (CountingOutputStream) outputStream;
+        return AudioDurationEstimator.estimate(counter.header, counter.headerLength, counter.count);
+    }
+
+    /**
+     * SHA-256 of the uploaded bytes, or null while the upload is still being written
+     */
+    public String getContentHash() {
+        return hashingStream.getContentHash();
+    }
+
+    /**
+     * Whether the recording is being converted before it is sent
+     */
+    public boolean isConverted() {
+        return downsampler != null && downsampler.isConverting();
+    }
+
+    /**
+     * Bytes written to {@link #getOutputStream()} so far
+     */
+    public long getBytesWritten() {
+        return ((CountingOutputStream) outputStream).count;
+    }
+
+    /**
+     * Bytes sent to AssemblyAI so far, fewer than written if the recording is converted
+     */
+    public long getBytesUploaded() {
+        return downsampler != null ? downsampler.getBytesOut() : getBytesWritten();
+    }
+
+    /**
+     * Time from opening the upload until AssemblyAI accepted it, or null while it is in flight
+     */
+    public Duration getUploadTime() {
+        return uploadTime;
+    }
+
+    public boolean isFailed() {
+        return uploadUrl.isCompletedExceptionally();
+    }
+
+    /**
+     * Cancel the request and unblock any writer, e.g. when the browser upload fails.
+     */
+    public void abort() {
+        Call activeCall = call;
+        if (activeCall != null) {
+            activeCall.cancel();
+        }
+        fail(new IOException("Upload aborted"));
+    }
+
+    RequestBody getRequestBody() {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return contentType;
+            }
+
+            @Override
+            public long contentLength() {
+                // Unknown length: OkHttp sends the body with chunked transfer encoding
+                return -1;
+            }
+
+            @Override
+            public boolean isOneShot() {
+                return true;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                sink.writeAll(pipe.source());
+            }
+        };
+    }
+
+    void attach(Call call) {
+        this.call = call;
+    }
+
+    void complete(String url) {
+        uploadTime = Duration.ofNanos(System.nanoTime() - startNanos);
+        uploadUrl.complete(url);
+    }
+
+    void fail(Throwable cause) {
+        // Wake up a writer blocked on a full pipe so the browser request ends too
+        pipe.cancel();
+        uploadUrl.completeExceptionally(cause);
+    }
+
+    /**
+     * Counts the bytes passing through and keeps the first ones for {@link AudioDurationEstimator}
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private final byte[] header = new byte[AudioDurationEstimator.HEADER_BYTES];
+        private volatile int headerLength;
+        private volatile long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (headerLength < header.length) {
+                header[headerLength++] = (byte) b;
+            }
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            int copied = Math.min(len, header.length - headerLength);
+            if (copied > 0) {
+                System.arraycopy(b, off, header, headerLength, copied);
+                headerLength += copied;
+            }
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.transcriber.service;
+
+import java.time.Duration;
+
+/**
+ * Spaces out requests to AssemblyAI: up to {@code burst} requests go out at once, after
+ * that one every {@code 1 / permitsPerSecond} seconds. Callers queue in arrival order,
+ * each one reserving the next free slot, and a 429 can pause the bucket for everyone.
+ */
+public class TokenBucket {
+
+    private final double permitsPerSecond;
+    private final double burst;
+
+    // Guarded by this
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+    private long pausedUntil = refilledAt;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.tokens = burst;
+    }
+
+    /**
+     * Hold back every request for the given time, e.g. after the server answered 429
+     */
+    public synchronized void pause(Duration duration) {
+        refill();
+        pausedUntil = Math.max(pausedUntil, System.nanoTime() + duration.toNanos());
+        // Requests waiting out the pause must not all fire the moment it ends
+        tokens = Math.min(tokens, 0);
+    }
+
+    /**
+     * Take a token, possibly one that only becomes available in the future. The caller
+     * waits for it however suits its thread, see {@link RetryInterceptor}.
+     *
+     * @return nanoseconds to wait before using it
+     */
+    synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        long now = System.nanoTime();
+        long waitForToken = tokens >= 0 ? 0 : (long) (-tokens / permitsPerSecond * 1_000_000_000L);
+        return Math.max(waitForToken, pausedUntil - now);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        long refillFrom = Math.max(refilledAt, pausedUntil);
+        if (now > refillFrom) {
+            tokens = Math.min(burst, tokens + (now - refillFrom) * permitsPerSecond / 1_000_000_000L);
+        }
+        refilledAt = Math.max(refilledAt, now);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.transcriber.service;
+
+import com.example.transcriber.config.TranscriberProperties;
+import com.example.transcriber.dto.CompactTranscript;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Remembers what AssemblyAI already has for a recording, keyed by the SHA-256 of its content.
+ *
+ * A completed transcript is enough to format a repeat upload locally, and an
+ * {@code upload_url} saves sending the bytes again when a transcript has to be redone.
+ * Identical recordings submitted while one is still being transcribed share that job
+ * instead of starting their own. Entries expire after the TTL and the least recently
+ * used ones are evicted beyond the size limit.
+ */
+@Slf4j
+public class TranscriptCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public TranscriptCache(TranscriberProperties.Cache properties) {
+        this(properties.getMaxEntries(), properties.getTtl());
+    }
+
+    public TranscriptCache(int maxEntries, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > TranscriptCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Completed transcript of the recording, or null if there is none
+     */
+    public CompactTranscript getTranscript(String contentHash) {
+        Entry entry = get(contentHash);
+        return entry != null ? entry.transcript : null;
+    }
+
+    /**
+     * AssemblyAI {@code upload_url} the recording was uploaded to, or null if there is none
+     */
+    public String getUploadUrl(String contentHash) {
+        Entry entry = get(contentHash);
+        return entry != null ? entry.uploadUrl : null;
+    }
+
+    /**
+     * Where the audio behind the recording's {@code upload_url} starts in the recording, zero if it is all there
+     */
+    public Duration getTimeOffset(String contentHash) {
+        Entry entry = get(contentHash);
+        return entry != null ? entry.timeOffset : Duration.ZERO;
+    }
+
+    public void putUploadUrl(String contentHash, String uploadUrl) {
+        putUploadUrl(contentHash, uploadUrl, Duration.ZERO);
+    }
+
+    public synchronized void putUploadUrl(String contentHash, String uploadUrl, Duration timeOffset) {
+        if (maxEntries > 0) {
+            Entry previous = entries.get(contentHash);
+            entries.put(contentHash, new Entry(uploadUrl, timeOffset,
+                    previous != null ? previous.transcript : null, System.nanoTime()));
+        }
+    }
+
+    public synchronized void putTranscript(String contentHash, CompactTranscript transcript) {
+        if (maxEntries > 0) {
+            Entry previous = entries.get(contentHash);
+            entries.put(contentHash, new Entry(previous != null ? previous.uploadUrl : null,
+                    previous != null ? previous.timeOffset : Duration.ZERO, transcript, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Forget the recording, e.g. because its upload URL did not lead to a transcript
+     */
+    public synchronized void remove(String contentHash) {
+        entries.remove(contentHash);
+    }
+
+    /**
+     * Run {@code job} for the recording unless an identical one is already in flight, in
+     * which case its result is shared. Progress of the shared job is reported to every
+     * caller waiting on it, and a successful result is cached.
+     */
+    public CompletableFuture<CompactTranscript> coalesce(String contentHash,
+                                                          Consumer<String> progressCallback,
+                                                          Function<Consumer<String>, CompletableFuture<CompactTranscript>> job) {
+        InFlight created = new InFlight();
+        created.listeners.add(progressCallback);
+        InFlight existing = inFlight.putIfAbsent(contentHash, created);
+        if (existing != null) {
+            log.debug("Joining in-flight transcription of {}", contentHash);
+            existing.listeners.add(progressCallback);
+            progressCallback.accept("Waiting for the same recording to finish transcribing...");
+            return existing.future.copy();
+        }
+
+        CompletableFuture<CompactTranscript> result;
+        try {
+            result = job.apply(message -> created.listeners.forEach(listener -> listener.accept(message)));
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((transcript, error) -> {
+            if (error == null) {
+                // Cached before it stops being in flight so a new caller always finds one of them
+                putTranscript(contentHash, transcript);
+            }
+            inFlight.remove(contentHash, created);
+            if (error != null) {
+                created.future.completeExceptionally(error);
+            } else {
+                created.future.complete(transcript);
+            }
+        });
+        return created.future.copy();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized Entry get(String contentHash) {
+        Entry entry = entries.get(contentHash);
+        if (entry != null && System.nanoTime() - entry.storedAt > ttlNanos) {
+            entries.remove(contentHash);
+            return null;
+        }
+        return entry;
+    }
+
+    private record Entry(String uploadUrl, Duration timeOffset, CompactTranscript transcript, long storedAt) {
+    }
+
+    private static class InFlight {
+        private final CompletableFuture<CompactTranscript> future = new CompletableFuture<>();
+        private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.transcriber.service;
+
+import com.example.transcriber.dto.CompactTranscript;
+import com.example.transcriber.dto.TranscriptResponse;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a transcript as {@code [Name]: text} paragraphs straight to a {@link Writer},
+ * one utterance at a time, so the output never exists as one String.
+ */
+public final class TranscriptFormatter {
+
+    private TranscriptFormatter() {
+    }
+
+    public static void write(CompactTranscript transcript, String speaker1Name, String speaker2Name,
+                             Writer out) throws IOException {
+        if (transcript.size() > 0) {
+            for (int i = 0; i < transcript.size(); i++) {
+                String speakerName = "A".equals(transcript.speaker(i)) ? speaker1Name : speaker2Name;
+                out.write('[');
+                out.write(speakerName);
+                out.write("]: ");
+                transcript.writeText(i, out);
+                out.write("\n\n");
+            }
+        } else {
+            // Fallback to regular transcript if speaker diarization is not available
+            out.write(transcript.getText() != null ? transcript.getText() : "No transcript available");
+        }
+    }
+
+    public static void write(TranscriptResponse transcript, String speaker1Name, String speaker2Name,
+                             Writer out) throws IOException {
+        write(CompactTranscript.of(transcript), speaker1Name, speaker2Name, out);
+    }
+}
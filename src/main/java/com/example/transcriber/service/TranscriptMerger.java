@@ -0,0 +1,208 @@
+package com.example.transcriber.service;
+
+import com.example.transcriber.dto.CompactTranscript;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Joins the transcripts of the parts of a split recording into one.
+ *
+ * Each part after the first also contains the audio just before its cut, which the
+ * previous part ends with. AssemblyAI labels the speakers of every part independently,
+ * so in that overlap a part's labels are matched to the previous part's by how long
+ * they speak at the same time; a speaker without a match keeps a label of its own.
+ *
+ * A cut falls on a pause, which may be inside one speaker's turn: the earlier part heard that
+ * turn only up to the cut, the later one from its start. So the seam is chosen per utterance:
+ * the later part takes over with its first utterance that ends after the cut, kept whole, and
+ * the earlier part's utterances from that one's start onward are dropped.
+ */
+final class TranscriptMerger {
+
+    private TranscriptMerger() {
+    }
+
+    /**
+     * @param parts transcripts in recording order, with times already on the recording's timeline
+     * @param cuts  milliseconds where part {@code i + 1} takes over from part {@code i}
+     */
+    static CompactTranscript merge(List<CompactTranscript> parts, long[] cuts, long overlapMillis, Double audioDuration) {
+        if (cuts.length != parts.size() - 1) {
+            throw new IllegalArgumentException(parts.size() + " parts need " + (parts.size() - 1) + " cuts");
+        }
+
+        CompactTranscript.Builder merged = new CompactTranscript.Builder()
+                .status("completed")
+                .audioDuration(audioDuration);
+        List<String> ids = new ArrayList<>();
+        // Only parts without utterances add text of their own; otherwise it is theirs joined
+        StringBuilder text = new StringBuilder();
+        // Labels handed out so far, in order of appearance
+        Set<String> known = new LinkedHashSet<>();
+        Map<String, String> previousLabels = Map.of();
+
+        // From part i on, its utterance seams[i] and everything after; the previous part's stop at seamStarts[i]
+        int[] seams = new int[parts.size()];
+        long[] seamStarts = new long[parts.size()];
+        for (int part = 1; part < parts.size(); part++) {
+            seams[part] = seam(parts.get(part), cuts[part - 1]);
+            seamStarts[part] = seams[part] < parts.get(part).size()
+                    ? Math.min(position(parts.get(part), seams[part]), cuts[part - 1])
+                    : Long.MAX_VALUE;
+        }
+
+        for (int part = 0; part < parts.size(); part++) {
+            CompactTranscript transcript = parts.get(part);
+            ids.add(transcript.getId());
+            long to = part == parts.size() - 1 ? Long.MAX_VALUE : seamStarts[part + 1];
+
+            Map<String, String> labels = part == 0
+                    ? identity(transcript)
+                    : matchLabels(parts.get(part - 1), previousLabels, transcript,
+                            cuts[part - 1] - overlapMillis, cuts[part - 1], known);
+            known.addAll(labels.values());
+
+            if (transcript.size() == 0) {
+                // Without utterances there is nothing to cut at; the overlap is repeated
+                append(text, transcript.getText());
+            }
+            for (int i = seams[part]; i < transcript.size(); i++) {
+                long start = position(transcript, i);
+                if (start != CompactTranscript.UNKNOWN_TIME && start >= to) {
+                    break;
+                }
+                merged.addUtterance(labels.get(transcript.speaker(i)), transcript.text(i),
+                        transcript.start(i), transcript.end(i), transcript.confidence(i));
+            }
+            previousLabels = labels;
+        }
+        return merged.id(String.join("+", ids)).text(text.toString()).build();
+    }
+
+    /**
+     * The first utterance that ends after the cut, or the size if none does
+     */
+    private static int seam(CompactTranscript transcript, long cut) {
+        for (int i = 0; i < transcript.size(); i++) {
+            long end = transcript.end(i) != CompactTranscript.UNKNOWN_TIME ? transcript.end(i) : transcript.start(i);
+            if (end != CompactTranscript.UNKNOWN_TIME && end > cut) {
+                return i;
+            }
+        }
+        return transcript.size();
+    }
+
+    /**
+     * For each of {@code next}'s labels the label of the same voice in {@code previous}
+     */
+    private static Map<String, String> matchLabels(CompactTranscript previous, Map<String, String> previousLabels,
+                                                   CompactTranscript next, long from, long to, Set<String> known) {
+        // Milliseconds both labels speak at the same time within the overlap
+        Map<String, Map<String, Long>> together = new HashMap<>();
+        for (int i = 0; i < next.size(); i++) {
+            if (next.end(i) < from || next.start(i) > to) {
+                continue;
+            }
+            for (int j = 0; j < previous.size(); j++) {
+                long shared = intersection(next, i, previous, j, from, to);
+                if (shared > 0) {
+                    together.computeIfAbsent(next.speaker(i), label -> new HashMap<>())
+                            .merge(previousLabels.get(previous.speaker(j)), shared, Long::sum);
+                }
+            }
+        }
+
+        Map<String, String> labels = new HashMap<>();
+        Set<String> taken = new LinkedHashSet<>();
+        // Greedily pair the labels that agree longest
+        while (true) {
+            String bestNext = null;
+            String bestPrevious = null;
+            long best = 0;
+            for (Map.Entry<String, Map<String, Long>> entry : together.entrySet()) {
+                if (labels.containsKey(entry.getKey())) {
+                    continue;
+                }
+                for (Map.Entry<String, Long> candidate : entry.getValue().entrySet()) {
+                    if (!taken.contains(candidate.getKey()) && candidate.getValue() > best) {
+                        best = candidate.getValue();
+                        bestNext = entry.getKey();
+                        bestPrevious = candidate.getKey();
+                    }
+                }
+            }
+            if (bestNext == null) {
+                break;
+            }
+            labels.put(bestNext, bestPrevious);
+            taken.add(bestPrevious);
+        }
+
+        for (String label : identity(next).keySet()) {
+            if (!labels.containsKey(label)) {
+                String assigned = unusedLabel(label, known, taken);
+                labels.put(label, assigned);
+                taken.add(assigned);
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * The label itself if it is free, else a known label not used in this part, else a new one
+     */
+    private static String unusedLabel(String label, Set<String> known, Set<String> taken) {
+        if (!taken.contains(label)) {
+            return label;
+        }
+        for (String candidate : known) {
+            if (!taken.contains(candidate)) {
+                return candidate;
+            }
+        }
+        for (char c = 'A'; ; c++) {
+            String candidate = String.valueOf(c);
+            if (!taken.contains(candidate) && !known.contains(candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    private static Map<String, String> identity(CompactTranscript transcript) {
+        Map<String, String> labels = new LinkedHashMap<>();
+        for (int i = 0; i < transcript.size(); i++) {
+            labels.put(transcript.speaker(i), transcript.speaker(i));
+        }
+        return labels;
+    }
+
+    private static long intersection(CompactTranscript a, int i, CompactTranscript b, int j, long from, long to) {
+        if (a.start(i) == CompactTranscript.UNKNOWN_TIME || a.end(i) == CompactTranscript.UNKNOWN_TIME
+                || b.start(j) == CompactTranscript.UNKNOWN_TIME || b.end(j) == CompactTranscript.UNKNOWN_TIME) {
+            return 0;
+        }
+        long start = Math.max(Math.max(a.start(i), b.start(j)), from);
+        long end = Math.min(Math.min(a.end(i), b.end(j)), to);
+        return end - start;
+    }
+
+    private static long position(CompactTranscript transcript, int i) {
+        return transcript.start(i) != CompactTranscript.UNKNOWN_TIME ? transcript.start(i) : transcript.end(i);
+    }
+
+    private static void append(StringBuilder text, String part) {
+        if (part == null || part.isEmpty()) {
+            return;
+        }
+        if (!text.isEmpty()) {
+            text.append(' ');
+        }
+        text.append(part);
+    }
+}
@@ -0,0 +1,333 @@
+package com.example.transcriber.service;
+
+import com.example.transcriber.dto.CompactTranscript;
+import com.example.transcriber.jfr.PollEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Tracks every transcript that AssemblyAI is still processing.
+ *
+ * A single scheduler thread decides when each transcript is due, following the
+ * {@link AdaptivePollSchedule}, and issues the status request with OkHttp's
+ * {@code enqueue}, so no thread is parked per job while it waits. Each transcript's
+ * future completes once its status reaches {@code completed} or {@code error}. A webhook can {@link #signal(String) signal} that a transcript is
+ * finished, which fetches it right away instead of waiting for its next poll.
+ *
+ * The rate limit and retries of the client's {@link RetryInterceptor} are applied here
+ * too, but as later polls on the scheduler: a request waiting for its slot or a
+ * {@code Retry-After} never holds a dispatcher thread or connection slot.
+ */
+@Slf4j
+public class TranscriptPoller implements AutoCloseable {
+
+    private final OkHttpClient httpClient;
+    private final String baseUrl;
+    private final String apiKey;
+    private final ObjectMapper objectMapper;
+    private final AdaptivePollSchedule schedule;
+    private final TranscriptionMetrics metrics;
+    private final RetryInterceptor retries;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, PendingTranscript> pending = new ConcurrentHashMap<>();
+
+    public TranscriptPoller(OkHttpClient httpClient, String baseUrl, String apiKey,
+                            ObjectMapper objectMapper, AdaptivePollSchedule schedule) {
+        this(httpClient, baseUrl, apiKey, objectMapper, schedule, new TranscriptionMetrics());
+    }
+
+    public TranscriptPoller(OkHttpClient httpClient, String baseUrl, String apiKey,
+                            ObjectMapper objectMapper, AdaptivePollSchedule schedule, TranscriptionMetrics metrics) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.objectMapper = objectMapper;
+        this.schedule = schedule;
+        this.metrics = metrics;
+        this.retries = RetryInterceptor.of(httpClient);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("transcript-poller").daemon(true).factory());
+    }
+
+    /**
+     * Start tracking a submitted transcript of unknown length
+     */
+    public CompletableFuture<CompactTranscript> await(String transcriptId, Consumer<String> progressCallback) {
+        return await(transcriptId, Duration.ZERO, progressCallback);
+    }
+
+    /**
+     * Start tracking a submitted transcript, polling on the adaptive schedule for its audio duration
+     */
+    public CompletableFuture<CompactTranscript> await(String transcriptId, Duration audioDuration,
+                                                       Consumer<String> progressCallback) {
+        return await(transcriptId, audioDuration, progressCallback, schedule.firstDelay(audioDuration));
+    }
+
+    /**
+     * Start tracking a submitted transcript, sending the first status request after
+     * {@code firstPollDelay} unless it is {@link #signal(String) signalled} earlier.
+     */
+    public CompletableFuture<CompactTranscript> await(String transcriptId, Duration audioDuration,
+                                                       Consumer<String> progressCallback, Duration firstPollDelay) {
+        return await(null, transcriptId, audioDuration, progressCallback, firstPollDelay);
+    }
+
+    /**
+     * Start tracking a job's transcript; the job ID only labels its {@link PollEvent}s
+     */
+    public CompletableFuture<CompactTranscript> await(String jobId, String transcriptId, Duration audioDuration,
+                                                       Consumer<String> progressCallback, Duration firstPollDelay) {
+        PendingTranscript transcript = new PendingTranscript(jobId, transcriptId, audioDuration, progressCallback);
+        pending.put(transcriptId, transcript);
+        // Also forget transcripts the caller cancels
+        transcript.future.whenComplete((result, error) -> pending.remove(transcriptId, transcript));
+
+        schedule(transcript, firstPollDelay.toMillis());
+        return transcript.future;
+    }
+
+    /**
+     * Fetch a transcript's status now, e.g. because AssemblyAI reported it finished.
+     *
+     * @return false if the transcript is not pending on this node
+     */
+    public boolean signal(String transcriptId) {
+        PendingTranscript transcript = pending.get(transcriptId);
+        if (transcript == null) {
+            return false;
+        }
+
+        synchronized (transcript) {
+            if (transcript.inFlight) {
+                // The response to the running request decides; ask it to poll again without delay
+                transcript.pollRequested = true;
+            } else if (!transcript.slotReserved) {
+                // A poll waiting for its slot in the rate limit goes out as soon as it can anyway
+                schedule(transcript, 0);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stop tracking a transcript, e.g. because the job it is part of failed; its future
+     * completes with a {@link java.util.concurrent.CancellationException}
+     */
+    public void cancel(String transcriptId) {
+        PendingTranscript transcript = pending.get(transcriptId);
+        if (transcript != null) {
+            // Its scheduled poll finds the future done and sends nothing
+            transcript.future.cancel(false);
+        }
+    }
+
+    /**
+     * Number of transcripts still waiting for a final status
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        pending.values().forEach(transcript -> fail(transcript, new IOException("Transcript poller was shut down")));
+    }
+
+    private void schedule(PendingTranscript transcript, long delayMillis) {
+        synchronized (transcript) {
+            // At most one poll is ever scheduled per transcript
+            if (transcript.nextPoll != null) {
+                transcript.nextPoll.cancel(false);
+            }
+            try {
+                transcript.nextPoll = scheduler.schedule(() -> poll(transcript), delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                fail(transcript, new IOException("Transcript poller was shut down", e));
+            }
+        }
+    }
+
+    private void poll(PendingTranscript transcript) {
+        int attempt;
+        synchronized (transcript) {
+            if (transcript.future.isDone()) {
+                // Cancelled by the caller
+                return;
+            }
+            transcript.nextPoll = null;
+            if (!transcript.slotReserved) {
+                Duration wait = retries.reserve();
+                if (wait.isPositive()) {
+                    transcript.slotReserved = true;
+                    schedule(transcript, wait.toMillis());
+                    return;
+                }
+            }
+            transcript.slotReserved = false;
+            transcript.inFlight = true;
+            attempt = ++transcript.polls;
+        }
+        PollEvent event = PollEvent.start();
+
+        Request request = RetryInterceptor.nonBlocking(new Request.Builder())
+                .url(baseUrl + "/transcript/" + transcript.id)
+                .header("Authorization", apiKey)
+                .get()
+                .build();
+
+        httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                event.finish(transcript.jobId, transcript.id, attempt, "failed");
+                Duration delay = call.isCanceled() ? null : retries.retryDelay(request, e, transcript.nextAttempt());
+                if (delay != null) {
+                    retry(transcript, delay);
+                } else {
+                    fail(transcript, e);
+                }
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                CompactTranscript status;
+                try (response) {
+                    Duration delay = response.isSuccessful() ? null : retries.retryDelay(response, transcript.nextAttempt());
+                    if (delay != null) {
+                        event.finish(transcript.jobId, transcript.id, attempt, "failed");
+                        retry(transcript, delay);
+                        return;
+                    }
+                    if (!response.isSuccessful()) {
+                        throw new IOException("Failed to get transcription status: " + response.code() + " " + response.message());
+                    }
+
+                    // Parsed from the byte stream straight into arrays; a completed transcript is
+                    // never held as one String or as one object per utterance
+                    status = objectMapper.readValue(response.body().byteStream(), CompactTranscript.class);
+                } catch (Exception e) {
+                    event.finish(transcript.jobId, transcript.id, attempt, "failed");
+                    fail(transcript, e);
+                    return;
+                }
+                event.finish(transcript.jobId, transcript.id, attempt, status.getStatus());
+                try {
+                    handleStatus(transcript, status);
+                } catch (Exception e) {
+                    fail(transcript, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Send the status request again after a transient failure, e.g. a 429 with its {@code Retry-After}
+     */
+    private void retry(PendingTranscript transcript, Duration delay) {
+        synchronized (transcript) {
+            transcript.inFlight = false;
+            transcript.pollRequested = false;
+            schedule(transcript, delay.toMillis());
+        }
+    }
+
+    private void handleStatus(PendingTranscript transcript, CompactTranscript response) {
+        synchronized (transcript) {
+            transcript.failedAttempts = 0;
+        }
+        String status = response.getStatus();
+        transcript.progressCallback.accept("Status: " + status);
+
+        if ("completed".equals(status)) {
+            // AssemblyAI reports the exact audio length once it has processed the file
+            Duration audioDuration = response.getAudioDuration() != null
+                    ? Duration.ofMillis((long) (response.getAudioDuration() * 1000))
+                    : transcript.audioDuration;
+            schedule.recordCompletion(audioDuration, transcript.elapsed());
+
+            if (pending.remove(transcript.id, transcript)) {
+                metrics.recordProcessing(transcript.elapsed(), transcript.getPolls(), true);
+            }
+            transcript.future.complete(response);
+        } else if ("error".equals(status)) {
+            fail(transcript, new RuntimeException("Transcription failed: " + response.getError()));
+        } else {
+            synchronized (transcript) {
+                transcript.inFlight = false;
+                long delayMillis = transcript.pollRequested
+                        ? 0 : schedule.nextDelay(transcript.audioDuration, transcript.elapsed()).toMillis();
+                transcript.pollRequested = false;
+                log.debug("Transcript {} is {}, polling again in {} ms", transcript.id, status, delayMillis);
+                schedule(transcript, delayMillis);
+            }
+        }
+    }
+
+    private void fail(PendingTranscript transcript, Throwable error) {
+        // Removed before completing so callers never see a finished transcript as pending
+        if (pending.remove(transcript.id, transcript)) {
+            metrics.recordProcessing(transcript.elapsed(), transcript.getPolls(), false);
+        }
+        transcript.future.completeExceptionally(error);
+    }
+
+    private static class PendingTranscript {
+        private final String jobId;
+        private final String id;
+        private final Duration audioDuration;
+        private final Consumer<String> progressCallback;
+        private final long submittedAt = System.nanoTime();
+        private final CompletableFuture<CompactTranscript> future = new CompletableFuture<>();
+        // Guarded by the instance lock
+        private ScheduledFuture<?> nextPoll;
+        private boolean inFlight;
+        private boolean pollRequested;
+        // Whether the next poll already holds its slot in the rate limit
+        private boolean slotReserved;
+        // Status requests in a row that failed and were retried
+        private int failedAttempts;
+        private int polls;
+
+        private PendingTranscript(String jobId, String id, Duration audioDuration, Consumer<String> progressCallback) {
+            this.jobId = jobId;
+            this.id = id;
+            this.audioDuration = audioDuration;
+            this.progressCallback = progressCallback;
+        }
+
+        private synchronized int getPolls() {
+            return polls;
+        }
+
+        /**
+         * Count a failed status request
+         *
+         * @return the attempts in a row so far, this one included
+         */
+        private synchronized int nextAttempt() {
+            return ++failedAttempts;
+        }
+
+        private Duration elapsed() {
+            return Duration.ofNanos(System.nanoTime() - submittedAt);
+        }
+    }
+}
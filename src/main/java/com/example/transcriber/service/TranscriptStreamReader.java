@@ -0,0 +1,86 @@
+package com.example.transcriber.service;
+
+import com.example.transcriber.dto.TranscriptResponse;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads AssemblyAI transcript responses straight from the response body with a
+ * streaming {@link JsonParser}.
+ *
+ * Only the fields the application uses are bound. Utterances are handed to a consumer
+ * one at a time as they are parsed, and everything else, above all the per-word
+ * {@code words} arrays that dominate a long recording's payload, is skipped without
+ * being materialized. Field order does not matter. Completed transcripts that are
+ * kept in memory are read into a {@link com.example.transcriber.dto.CompactTranscript} instead.
+ */
+public final class TranscriptStreamReader {
+
+    private TranscriptStreamReader() {
+    }
+
+    /**
+     * Read a response, collecting its utterances into {@link TranscriptResponse#getUtterances()}
+     */
+    public static TranscriptResponse read(ObjectMapper objectMapper, InputStream body) throws IOException {
+        List<TranscriptResponse.Utterance> utterances = new ArrayList<>();
+        TranscriptResponse response = read(objectMapper, body, utterances::add);
+        if (!utterances.isEmpty()) {
+            response.setUtterances(utterances);
+        }
+        return response;
+    }
+
+    /**
+     * Read a response, passing each utterance to {@code utteranceConsumer} as soon as it is
+     * parsed. The returned response carries every other field but no utterances.
+     */
+    public static TranscriptResponse read(ObjectMapper objectMapper, InputStream body,
+                                          Consumer<TranscriptResponse.Utterance> utteranceConsumer) throws IOException {
+        TranscriptResponse response = new TranscriptResponse();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a transcript object but got " + parser.currentToken());
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "id" -> response.setId(textOrNull(parser));
+                    case "status" -> response.setStatus(textOrNull(parser));
+                    case "text" -> response.setText(textOrNull(parser));
+                    case "error" -> response.setError(textOrNull(parser));
+                    case "audio_duration" -> response.setAudioDuration(
+                            value == JsonToken.VALUE_NULL ? null : parser.getValueAsDouble());
+                    case "utterances" -> readUtterances(objectMapper, parser, utteranceConsumer);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return response;
+    }
+
+    private static void readUtterances(ObjectMapper objectMapper, JsonParser parser,
+                                       Consumer<TranscriptResponse.Utterance> utteranceConsumer) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            // Binds one utterance; its nested words are skipped as unknown properties
+            utteranceConsumer.accept(objectMapper.readValue(parser, TranscriptResponse.Utterance.class));
+        }
+    }
+
+    private static String textOrNull(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.transcriber.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs transcription jobs off the common ForkJoinPool.
+ *
+ * Jobs spend almost all of their time blocked on AssemblyAI, so by default each one
+ * gets its own virtual thread. The bounded platform-thread mode is a fallback that
+ * caps concurrency and rejects jobs once its queue is full. Either way the number of
+ * running and waiting jobs is published as {@code transcriber.jobs.active} and
+ * {@code transcriber.jobs.queued}.
+ */
+@Slf4j
+public class TranscriptionExecutor implements Executor, MeterBinder, AutoCloseable {
+
+    public enum Mode {
+        VIRTUAL,
+        PLATFORM
+    }
+
+    private final ExecutorService delegate;
+    private final AtomicInteger activeJobs = new AtomicInteger();
+    private final AtomicInteger queuedJobs = new AtomicInteger();
+
+    private TranscriptionExecutor(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * One virtual thread per job, with no limit on concurrency
+     */
+    public static TranscriptionExecutor virtualThreads() {
+        ThreadFactory factory = Thread.ofVirtual().name("transcription-", 0).factory();
+        return new TranscriptionExecutor(Executors.newThreadPerTaskExecutor(factory));
+    }
+
+    /**
+     * At most {@code maxThreads} concurrent jobs and {@code queueCapacity} waiting ones
+     */
+    public static TranscriptionExecutor platformThreads(int maxThreads, int queueCapacity) {
+        ThreadFactory factory = Thread.ofPlatform().name("transcription-", 0).daemon(true).factory();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                factory,
+                new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return new TranscriptionExecutor(pool);
+    }
+
+    public static TranscriptionExecutor create(Mode mode, int maxThreads, int queueCapacity) {
+        return mode == Mode.PLATFORM ? platformThreads(maxThreads, queueCapacity) : virtualThreads();
+    }
+
+    @Override
+    public void execute(Runnable job) {
+        queuedJobs.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queuedJobs.decrementAndGet();
+                activeJobs.incrementAndGet();
+                try {
+                    job.run();
+                } finally {
+                    activeJobs.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            queuedJobs.decrementAndGet();
+            log.warn("Transcription job rejected: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    public int getActiveJobs() {
+        return activeJobs.get();
+    }
+
+    public int getQueuedJobs() {
+        return queuedJobs.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("transcriber.jobs.active", activeJobs, AtomicInteger::get)
+                .description("Transcription jobs currently running")
+                .register(registry);
+        Gauge.builder("transcriber.jobs.queued", queuedJobs, AtomicInteger::get)
+                .description("Transcription jobs waiting for a thread")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        delegate.shutdownNow();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.transcriber.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import java.time.Duration;
+
+/**
+ * Timings and sizes of every phase of a transcription, to tell time spent on our side
+ * (upload, formatting) from time spent waiting for AssemblyAI (submit, processing). The
+ * wait for an admission slot is timed by {@link AdmissionController}.
+ *
+ * Meters are looked up per event, which Micrometer answers from its own map; jobs are far
+ * too rare for that to matter. Until the metrics are bound to a registry they go nowhere.
+ */
+public class TranscriptionMetrics implements MeterBinder {
+
+    static final String SOURCE_FILE = "file";
+    static final String SOURCE_STREAM = "stream";
+
+    private volatile MeterRegistry registry = new CompositeMeterRegistry();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @param source    {@link #SOURCE_FILE} for spooled and local files, {@link #SOURCE_STREAM} for streamed uploads
+     * @param converted whether a WAV recording was downmixed or trimmed on the way
+     */
+    void recordUpload(String source, boolean converted, long bytes, Duration time) {
+        String[] tags = {"source", source, "converted", String.valueOf(converted)};
+        DistributionSummary.builder("transcriber.upload.size")
+                .description("Bytes sent to AssemblyAI per upload")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(registry)
+                .record(bytes);
+        if (time != null) {
+            Timer.builder("transcriber.upload.duration")
+                    .description("Time to send an upload and get its URL back")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(time);
+        }
+    }
+
+    void recordSubmit(Duration latency, boolean success) {
+        Timer.builder("transcriber.submit.duration")
+                .description("Time for AssemblyAI to accept a transcript request")
+                .tag("outcome", success ? "success" : "failure")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(latency);
+    }
+
+    /**
+     * A transcript reached a final status at AssemblyAI
+     *
+     * @param polls status requests sent for it
+     */
+    void recordProcessing(Duration time, int polls, boolean success) {
+        String outcome = success ? "success" : "failure";
+        Timer.builder("transcriber.provider.duration")
+                .description("Time from submitting a transcript to its final status")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(time);
+        DistributionSummary.builder("transcriber.provider.polls")
+                .description("Status requests sent per transcript")
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(polls);
+    }
+
+    void recordFormatting(Duration time) {
+        Timer.builder("transcriber.format.duration")
+                .description("Time to format a transcript and write it to disk")
+                .register(registry)
+                .record(time);
+    }
+
+    /**
+     * A job finished, counted from when it was started or resumed on this node
+     *
+     * @param error the failure's cause, or null if a transcript was written
+     */
+    void recordJob(Duration time, Throwable error) {
+        Timer.builder("transcriber.job.duration")
+                .description("Time from starting a job to its transcript file or failure")
+                .tag("outcome", error == null ? "success" : "failure")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(time);
+        if (error != null) {
+            Counter.builder("transcriber.job.errors")
+                    .description("Failed jobs by the type of their cause")
+                    .tag("cause", error.getClass().getSimpleName())
+                    .register(registry)
+                    .increment();
+        }
+    }
+}
@@ -1,14 +1,33 @@
 package com.example.transcriber.service;
 
 
-import com.example.transcriber.dto.TranscriptResponse;
+import com.example.transcriber.audio.AudioDurationEstimator;
+import com.example.transcriber.audio.SilenceDetector;
+import com.example.transcriber.audio.WavDownsampler;
+import com.example.transcriber.audio.WavFormat;
+import com.example.transcriber.config.TranscriberProperties;
+import com.example.transcriber.dto.CompactTranscript;
+import com.example.transcriber.jfr.FormatEvent;
+import com.example.transcriber.jfr.SubmitEvent;
+import com.example.transcriber.jfr.UploadEvent;
+import com.example.transcriber.job.JobStore;
+import com.example.transcriber.job.TranscriptFile;
+import com.example.transcriber.job.TranscriptStore;
+import com.example.transcriber.job.TranscriptionJob;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,7 +35,17 @@ import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -24,64 +53,355 @@ import java.util.function.Consumer;
 @Service
 public class TranscriptionService {
 
+    // Upper bound on bytes held in memory between the browser and the /upload request
+    private static final long UPLOAD_PIPE_BUFFER_BYTES = 256 * 1024;
+
+    // Length of the pause a split recording is cut in the middle of
+    private static final Duration SPLIT_PAUSE = Duration.ofMillis(500);
+
+    /** Path of the callback AssemblyAI calls when a transcript finishes, see {@code WebhookController} */
+    public static final String WEBHOOK_PATH = "/api/webhooks/assemblyai";
+
+    /** Header AssemblyAI echoes the webhook secret back in */
+    public static final String WEBHOOK_AUTH_HEADER = "X-Transcriber-Webhook-Secret";
+
     private final String baseUrl;
     private final String apiKey;
     private final OkHttpClient httpClient;
+    private final OkHttpClient uploadClient;
+    private final TranscriberProperties.Http http;
+    private final TranscriptionMetrics metrics;
     private final ObjectMapper objectMapper;
+    private final TranscriptionExecutor executor;
+    private final AdaptivePollSchedule pollSchedule;
+    private final TranscriptPoller poller;
+    private final TranscriptCache cache;
+    private final JobStore jobStore;
+    private final TranscriptStore transcriptStore;
+    private final AdmissionController admission;
+    // Jobs started or resumed on this node that have not finished yet, by job ID
+    private final Map<String, CompletableFuture<TranscriptFile>> running = new ConcurrentHashMap<>();
+    private final TranscriberProperties.Webhook webhook;
+    private final TranscriberProperties.Upload uploadProperties;
+    private final TranscriberProperties.Split split;
+    // Rate WAV recordings are converted to before uploading, 0 if they are sent unchanged
+    private final int wavSampleRate;
 
     @Autowired
-    public TranscriptionService(@Value("${assemblyai.api-key}") String apiKey) {
-        this(apiKey, "https://api.assemblyai.com/v2");
+    public TranscriptionService(@Value("${assemblyai.api-key}") String apiKey,
+                                TranscriptionExecutor executor,
+                                TranscriberProperties properties,
+                                JobStore jobStore,
+                                AdmissionController admission,
+                                OkHttpClient httpClient,
+                                TranscriptionMetrics metrics) {
+        this(apiKey, properties.getApi().getBaseUrl().replaceAll("/$", ""), executor, properties, jobStore, admission,
+                httpClient, metrics);
     }
 
     // Constructor for testing
     public TranscriptionService(String apiKey, String baseUrl) {
+        this(apiKey, baseUrl, TranscriptionExecutor.virtualThreads(), new TranscriberProperties());
+    }
+
+    public TranscriptionService(String apiKey, String baseUrl, TranscriptionExecutor executor,
+                                TranscriberProperties properties) {
+        this(apiKey, baseUrl, executor, properties, JobStore.inMemory());
+    }
+
+    public TranscriptionService(String apiKey, String baseUrl, TranscriptionExecutor executor,
+                                TranscriberProperties properties, JobStore jobStore) {
+        this(apiKey, baseUrl, executor, properties, jobStore, new AdmissionController(properties.getAdmission()));
+    }
+
+    public TranscriptionService(String apiKey, String baseUrl, TranscriptionExecutor executor,
+                                TranscriberProperties properties, JobStore jobStore,
+                                AdmissionController admission) {
+        this(apiKey, baseUrl, executor, properties, jobStore, admission, HttpClientFactory.create(properties),
+                new TranscriptionMetrics());
+    }
+
+    public TranscriptionService(String apiKey, String baseUrl, TranscriptionExecutor executor,
+                                TranscriberProperties properties, JobStore jobStore,
+                                AdmissionController admission, OkHttpClient httpClient,
+                                TranscriptionMetrics metrics) {
         this.apiKey = apiKey;
         this.baseUrl = baseUrl;
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(60, TimeUnit.SECONDS)
-                .writeTimeout(60, TimeUnit.SECONDS)
+        this.executor = executor;
+        this.webhook = properties.getWebhook();
+        this.uploadProperties = properties.getUpload();
+        this.wavSampleRate = uploadProperties.isConvertWav() ? uploadProperties.getWavSampleRate() : 0;
+        if (webhook.isEnabled() && (isBlank(webhook.getPublicUrl()) || isBlank(webhook.getSecret()))) {
+            throw new IllegalStateException("transcriber.webhook.public-url and transcriber.webhook.secret are required when webhooks are enabled");
+        }
+        this.http = properties.getHttp();
+        this.httpClient = httpClient;
+        this.metrics = metrics;
+        // Same pool, dispatcher and rate limit, but AssemblyAI may take a while to answer a large upload
+        this.uploadClient = httpClient.newBuilder()
+                .readTimeout(http.getUploadReadTimeout())
+                .callTimeout(http.getUploadCallTimeout())
                 .build();
         this.objectMapper = new ObjectMapper();
+        this.pollSchedule = new AdaptivePollSchedule(properties.getPolling());
+        this.poller = new TranscriptPoller(httpClient, baseUrl, apiKey, objectMapper, pollSchedule, metrics);
+        this.cache = new TranscriptCache(properties.getCache());
+        this.jobStore = jobStore;
+        this.transcriptStore = new TranscriptStore(properties.getTranscripts());
+        this.admission = admission;
+        this.split = properties.getSplit();
+    }
+
+    /**
+     * Open idle connections to AssemblyAI ahead of the first job, so its upload does not
+     * wait for DNS, TCP and TLS. The answers do not matter; the connections stay pooled.
+     */
+    public void warmUpConnections() {
+        for (int i = 0; i < http.getWarmConnections(); i++) {
+            // Not worth a slot in the rate limit or a retry
+            Request request = RetryInterceptor.nonBlocking(new Request.Builder()).url(baseUrl).head().build();
+            httpClient.newCall(request).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    log.debug("Could not open a connection to {} ahead of time: {}", baseUrl, e.toString());
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    response.close();
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        poller.close();
+    }
+
+    /**
+     * Upload audio to AssemblyAI and get upload URL. WAV recordings are converted to
+     * 16 bit mono at {@code wavSampleRate} on the way, read from the source again on retries,
+     * and their silent ends are left out.
+     */
+    private UploadedAudio uploadAudio(AudioSource audio, Duration estimatedDuration,
+                                      Consumer<String> progressCallback) throws IOException {
+        SilenceDetector.Trim trim = wavSampleRate > 0 && uploadProperties.isTrimSilence() ? scanSilence(audio) : null;
+        long startFrame = trim != null ? trim.startFrame() : 0;
+        long endFrame = trim != null ? trim.endFrame() : Long.MAX_VALUE;
+        long convertedLength = wavSampleRate > 0 ? convertedLength(audio, startFrame, endFrame) : -1;
+        boolean trimmed = convertedLength >= 0 && trim != null && trim.isTrimmed();
+        if (trimmed) {
+            log.info("Leaving {} ms of leading and trailing silence out of {}", trim.removed().toMillis(), audio.getName());
+            progressCallback.accept("Skipping " + trim.removed().toSeconds() + " s of silence...");
+        }
+
+        String uploadUrl = sendUpload(audio, audio.length(), wavSampleRate, convertedLength, startFrame, endFrame,
+                progressCallback, null);
+        long uploadedBytes = convertedLength >= 0 ? convertedLength : audio.length();
+        if (!trimmed) {
+            return new UploadedAudio(uploadUrl, estimatedDuration, Duration.ZERO, uploadedBytes);
+        }
+        // AssemblyAI's timestamps start at the first uploaded sample; the offset maps them back
+        Duration uploadedDuration = estimatedDuration.minus(trim.removed());
+        return new UploadedAudio(uploadUrl, uploadedDuration.isNegative() ? Duration.ZERO : uploadedDuration,
+                trim.offset(), uploadedBytes);
     }
 
     /**
-     * Upload file to AssemblyAI and get upload URL
+     * Send the audio, or with a {@code convertedLength} its frames {@code [startFrame, endFrame)}
+     * converted to 16 bit mono at {@code sampleRate}
+     *
+     * @param originalBytes the share of the file the upload replaces, for reporting what conversion saved
+     * @param parts         the split job the upload is a part of, or null
      */
-    private String uploadFile(File audioFile) throws IOException {
-        RequestBody fileBody = RequestBody.create(audioFile, MediaType.parse("audio/mpeg"));
+    private String sendUpload(AudioSource audio, long originalBytes, int sampleRate, long convertedLength,
+                              long startFrame, long endFrame, Consumer<String> progressCallback,
+                              SplitParts parts) throws IOException {
+        RequestBody fileBody = new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return MediaType.parse(convertedLength >= 0 ? "audio/wav" : "audio/mpeg");
+            }
+
+            @Override
+            public long contentLength() {
+                return convertedLength >= 0 ? convertedLength : audio.length();
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                if (convertedLength >= 0) {
+                    try (InputStream in = audio.openStream()) {
+                        // Not closed: the sink belongs to OkHttp
+                        WavDownsampler downsampler = new WavDownsampler(sink.outputStream(), sampleRate, audio.length())
+                                .trim(startFrame, endFrame);
+                        in.transferTo(downsampler);
+                        downsampler.finish();
+                    }
+                    return;
+                }
+                try (Source source = Okio.source(audio.openStream())) {
+                    sink.writeAll(source);
+                }
+            }
+        };
         
         Request request = new Request.Builder()
                 .url(baseUrl + "/upload")
                 .header("Authorization", apiKey)
                 .post(fileBody)
+                .tag(SplitParts.class, parts)
                 .build();
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("File upload failed: " + response.code() + " " + response.message());
+        long started = System.nanoTime();
+        try (Response response = uploadClient.newCall(request).execute()) {
+            String uploadUrl = readUploadUrl(response);
+            Duration uploadTime = Duration.ofNanos(System.nanoTime() - started);
+            metrics.recordUpload(TranscriptionMetrics.SOURCE_FILE, convertedLength >= 0, fileBody.contentLength(), uploadTime);
+            if (convertedLength >= 0) {
+                reportConversion(audio.getName(), originalBytes, convertedLength, uploadTime, progressCallback);
             }
-            
-            String responseBody = response.body().string();
-            // Parse JSON response to get upload URL
-            return objectMapper.readTree(responseBody).get("upload_url").asText();
+            return uploadUrl;
+        }
+    }
+
+    private SilenceDetector.Trim scanSilence(AudioSource audio) throws IOException {
+        try (InputStream in = audio.openStream()) {
+            return SilenceDetector.scan(in, audio.length(), uploadProperties.getSilenceThreshold(), uploadProperties.getSilencePadding());
+        }
+    }
+
+    private long convertedLength(AudioSource audio, long startFrame, long endFrame) throws IOException {
+        return convertedLength(audio, wavSampleRate, startFrame, endFrame);
+    }
+
+    private long convertedLength(AudioSource audio, int sampleRate, long startFrame, long endFrame) throws IOException {
+        try (InputStream in = audio.openStream()) {
+            byte[] header = in.readNBytes(WavDownsampler.MAX_HEADER_BYTES);
+            return WavDownsampler.convertedLength(header, header.length, audio.length(), sampleRate,
+                    startFrame, endFrame);
+        }
+    }
+
+    /**
+     * Log how much smaller the converted upload was, and roughly how much sooner it finished
+     * at the throughput it actually got
+     */
+    private static void reportConversion(String name, long originalBytes, long uploadedBytes, Duration uploadTime,
+                                         Consumer<String> progressCallback) {
+        long savedBytes = originalBytes - uploadedBytes;
+        long savedMillis = uploadedBytes > 0 ? savedBytes * uploadTime.toMillis() / uploadedBytes : 0;
+        log.info("Uploaded {} converted to mono: {} of {} bytes, {} bytes saved, about {} ms less upload time",
+                name, uploadedBytes, originalBytes, savedBytes, savedMillis);
+        progressCallback.accept(String.format("Uploaded %.1f MB instead of %.1f MB, about %d s faster",
+                uploadedBytes / 1e6, originalBytes / 1e6, savedMillis / 1000));
+    }
+
+    /**
+     * Open an upload to AssemblyAI that is fed while the caller writes.
+     * The request is sent with a chunked body as soon as it is opened, or once the
+     * rate limit allows, and the returned upload's URL completes once the output stream
+     * is closed. Until the request goes out, the writer waits on the full pipe.
+     */
+    public StreamingUpload openUploadStream(String contentType) {
+        MediaType mediaType = contentType != null ? MediaType.parse(contentType) : null;
+        StreamingUpload upload = new StreamingUpload(UPLOAD_PIPE_BUFFER_BYTES,
+                mediaType != null ? mediaType : MediaType.parse("application/octet-stream"), wavSampleRate);
+
+        Request request = RetryInterceptor.nonBlocking(new Request.Builder())
+                .url(baseUrl + "/upload")
+                .header("Authorization", apiKey)
+                .post(upload.getRequestBody())
+                .build();
+
+        Call call = uploadClient.newCall(request);
+        upload.attach(call);
+        Callback callback = new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                log.warn("Streaming upload failed", e);
+                upload.fail(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    upload.complete(readUploadUrl(response));
+                } catch (IOException e) {
+                    log.warn("Streaming upload rejected", e);
+                    upload.fail(e);
+                }
+            }
+        };
+        // The one-shot body is never retried, but the request still waits its turn, off the dispatcher
+        Duration wait = RetryInterceptor.of(uploadClient).reserve();
+        if (wait.isPositive()) {
+            CompletableFuture.delayedExecutor(wait.toNanos(), TimeUnit.NANOSECONDS).execute(() -> call.enqueue(callback));
+        } else {
+            call.enqueue(callback);
+        }
+        return upload;
+    }
+
+    private String readUploadUrl(Response response) throws IOException {
+        if (!response.isSuccessful()) {
+            throw new IOException("File upload failed: " + response.code() + " " + response.message());
+        }
+
+        String responseBody = response.body().string();
+        // Parse JSON response to get upload URL
+        return objectMapper.readTree(responseBody).get("upload_url").asText();
+    }
+
+    /**
+     * Submit a job's upload for transcription with two speakers
+     */
+    private String submitTranscription(String jobId, String uploadUrl) throws IOException {
+        return submitTranscription(jobId, uploadUrl, null);
+    }
+
+    /**
+     * @param parts the split job the upload is a part of, or null
+     */
+    private String submitTranscription(String jobId, String uploadUrl, SplitParts parts) throws IOException {
+        SubmitEvent event = SubmitEvent.start();
+        String transcriptId = null;
+        try {
+            transcriptId = submitTranscription(uploadUrl, true, 2, parts);
+            return transcriptId;
+        } finally {
+            event.finish(jobId, transcriptId);
         }
     }
 
     /**
      * Submit transcription job
      */
-    private String submitTranscription(String uploadUrl, boolean speakerLabels, int speakersExpected) throws IOException {
+    private String submitTranscription(String uploadUrl, boolean speakerLabels, int speakersExpected,
+                                       SplitParts parts) throws IOException {
         MediaType JSON = MediaType.parse("application/json; charset=utf-8");
         
+        String webhookFields = "";
+        if (webhook.isEnabled()) {
+            // AssemblyAI sends the secret back in this header so the callback can be verified
+            webhookFields = String.format("""
+                ,
+                    "webhook_url": %s,
+                    "webhook_auth_header_name": "%s",
+                    "webhook_auth_header_value": %s""",
+                objectMapper.writeValueAsString(webhook.getPublicUrl().replaceAll("/$", "") + WEBHOOK_PATH),
+                WEBHOOK_AUTH_HEADER,
+                objectMapper.writeValueAsString(webhook.getSecret()));
+        }
+
         String jsonBody = String.format("""
             {
                 "audio_url": "%s",
                 "speaker_labels": %s,
-                "speakers_expected": %d
+                "speakers_expected": %d%s
             }
-            """, uploadUrl, speakerLabels, speakersExpected);
+            """, uploadUrl, speakerLabels, speakersExpected, webhookFields);
 
         RequestBody body = RequestBody.create(jsonBody, JSON);
         
@@ -90,105 +410,582 @@ public class TranscriptionService {
                 .header("Authorization", apiKey)
                 .header("Content-Type", "application/json")
                 .post(body)
+                .tag(SplitParts.class, parts)
                 .build();
 
+        long started = System.nanoTime();
+        boolean submitted = false;
         try (Response response = httpClient.newCall(request).execute()) {
             if (!response.isSuccessful()) {
                 throw new IOException("Transcription submission failed: " + response.code() + " " + response.message());
             }
             
-            String responseBody = response.body().string();
-            TranscriptResponse transcriptResponse = objectMapper.readValue(responseBody, TranscriptResponse.class);
-            return transcriptResponse.getId();
+            String transcriptId = TranscriptStreamReader.read(objectMapper, response.body().byteStream()).getId();
+            submitted = true;
+            return transcriptId;
+        } finally {
+            metrics.recordSubmit(Duration.ofNanos(System.nanoTime() - started), submitted);
         }
     }
 
     /**
-     * Poll for transcription completion
+     * Regular transcription using HTTP API, returning the formatted text. Prefer
+     * {@link #transcribeAudio} for long recordings, which leaves the text on disk.
      */
-    private TranscriptResponse pollForCompletion(String transcriptId, Consumer<String> progressCallback) throws IOException, InterruptedException {
-        Request request = new Request.Builder()
-                .url(baseUrl + "/transcript/" + transcriptId)
-                .header("Authorization", apiKey)
-                .get()
-                .build();
+    public CompletableFuture<String> transcribeFile(File audioFile, 
+                                                   String speaker1Name, 
+                                                   String speaker2Name,
+                                                   Consumer<String> progressCallback) {
+        return transcribeAudio(null, AudioSource.of(audioFile), speaker1Name, speaker2Name, progressCallback)
+                .thenApply(file -> {
+                    try {
+                        return file.readText();
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
 
-        while (true) {
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    throw new IOException("Failed to get transcription status: " + response.code() + " " + response.message());
-                }
-                
-                String responseBody = response.body().string();
-                TranscriptResponse transcript = objectMapper.readValue(responseBody, TranscriptResponse.class);
-                
-                String status = transcript.getStatus();
-                progressCallback.accept("Status: " + status);
-                
-                if ("completed".equals(status)) {
+    /**
+     * Transcription of audio held by this node, e.g. a spooled browser upload.
+     * A recording seen before is not uploaded or transcribed again.
+     *
+     * @param owner user the job is recorded for, or null
+     */
+    public CompletableFuture<TranscriptFile> transcribeAudio(String owner,
+                                                     AudioSource audio,
+                                                     String speaker1Name,
+                                                     String speaker2Name,
+                                                     Consumer<String> progressCallback) {
+        String contentHash = audio.getContentHash();
+        UploadStep uploadStep = progress -> {
+            Duration estimatedDuration = estimateDuration(audio);
+            String uploadUrl = contentHash != null ? cache.getUploadUrl(contentHash) : null;
+            if (uploadUrl != null) {
+                return new UploadedAudio(uploadUrl, estimatedDuration, cache.getTimeOffset(contentHash), 0);
+            }
+            progress.accept("Uploading file...");
+            return uploadAudio(audio, estimatedDuration, progress);
+        };
+        if (!split.isEnabled()) {
+            return transcribe(owner, contentHash, uploadStep, speaker1Name, speaker2Name, progressCallback);
+        }
+
+        TranscriptionJob job = jobStore.create(owner, contentHash, speaker1Name, speaker2Name);
+        return track(job, fetchTranscript(job,
+                progress -> transcribeInParts(job, audio, uploadStep, progress), progressCallback), progressCallback);
+    }
+
+    /**
+     * Transcription of audio that was streamed to AssemblyAI with {@link #openUploadStream(String)}.
+     * The bytes are already sent by then, but a recording seen before is not transcribed again.
+     */
+    public CompletableFuture<TranscriptFile> transcribeUpload(String owner,
+                                                      StreamingUpload upload,
+                                                      String speaker1Name,
+                                                      String speaker2Name,
+                                                      Consumer<String> progressCallback) {
+        return transcribe(owner, upload.getContentHash(), progress -> {
+            progress.accept("Finishing upload...");
+            String uploadUrl = upload.awaitUploadUrl();
+            metrics.recordUpload(TranscriptionMetrics.SOURCE_STREAM, upload.isConverted(), upload.getBytesUploaded(),
+                    upload.getUploadTime());
+            if (upload.isConverted()) {
+                reportConversion("streamed upload", upload.getBytesWritten(), upload.getBytesUploaded(),
+                        upload.getUploadTime(), progress);
+            }
+            // Streamed bytes are forwarded before the recording's end is known, so nothing is trimmed
+            return new UploadedAudio(uploadUrl, upload.getEstimatedDuration(), Duration.ZERO, upload.getBytesUploaded());
+        }, speaker1Name, speaker2Name, progressCallback);
+    }
+
+    /**
+     * Format an earlier transcript of the recording with new speaker names, without
+     * contacting AssemblyAI. Fails if the transcript is no longer cached.
+     */
+    public CompletableFuture<TranscriptFile> transcribeCached(String owner,
+                                                      String contentHash,
+                                                      String speaker1Name,
+                                                      String speaker2Name,
+                                                      Consumer<String> progressCallback) {
+        return transcribe(owner, contentHash, progress -> {
+            throw new IOException("The recording is no longer available, please upload it again");
+        }, speaker1Name, speaker2Name, progressCallback);
+    }
+
+    /**
+     * Whether {@link #transcribeCached} can format the recording without uploading it again
+     */
+    public boolean hasCachedTranscript(String contentHash) {
+        return contentHash != null && cache.getTranscript(contentHash) != null;
+    }
+
+    /**
+     * Continue a job recorded before a restart: a submitted transcript is polled again,
+     * an uploaded one is submitted, and one whose upload never finished is failed.
+     */
+    public CompletableFuture<TranscriptFile> resumeJob(TranscriptionJob job) {
+        Consumer<String> progressCallback = message -> log.debug("Resumed job {}: {}", job.getId(), message);
+        Duration audioDuration = job.getAudioDurationMillis() != null
+                ? Duration.ofMillis(job.getAudioDurationMillis()) : Duration.ZERO;
+        Duration timeOffset = Duration.ofMillis(job.getTimeOffsetMillis());
+
+        CompletableFuture<CompactTranscript> transcript;
+        if (job.getTranscriptId() != null) {
+            transcript = awaitTranscript(new SubmittedTranscript(job.getId(), job.getTranscriptId(), audioDuration, timeOffset),
+                    progressCallback);
+        } else if (job.getUploadUrl() != null) {
+            UploadStep uploaded = progress -> new UploadedAudio(job.getUploadUrl(), audioDuration, timeOffset, 0);
+            transcript = runTranscription(job, progress -> submitAndAwait(job, uploaded, progress), progressCallback);
+        } else {
+            transcript = CompletableFuture.failedFuture(
+                    new IOException("Interrupted by a restart before the upload finished, please upload the file again"));
+        }
+
+        if (job.getContentHash() != null) {
+            transcript = transcript.thenApply(response -> {
+                cache.putTranscript(job.getContentHash(), response);
+                return response;
+            });
+        }
+        return track(job, transcript, progressCallback);
+    }
+
+    /**
+     * The owner's most recent job, finished or not
+     */
+    public Optional<TranscriptionJob> findLatestJob(String owner) {
+        return jobStore.findLatest(owner);
+    }
+
+    /**
+     * The result of a job still running on this node, e.g. to reattach a reopened view to it
+     */
+    public Optional<CompletableFuture<TranscriptFile>> findRunningJob(String jobId) {
+        return Optional.ofNullable(running.get(jobId));
+    }
+
+    private CompletableFuture<TranscriptFile> transcribe(String owner,
+                                                 String contentHash,
+                                                 UploadStep uploadStep,
+                                                 String speaker1Name,
+                                                 String speaker2Name,
+                                                 Consumer<String> progressCallback) {
+        TranscriptionJob job = jobStore.create(owner, contentHash, speaker1Name, speaker2Name);
+        return track(job, fetchTranscript(job,
+                progress -> submitAndAwait(job, uploadStep, progress), progressCallback), progressCallback);
+    }
+
+    /**
+     * Format the transcript once it arrives and record the job's outcome
+     */
+    private CompletableFuture<TranscriptFile> track(TranscriptionJob job,
+                                            CompletableFuture<CompactTranscript> transcript,
+                                            Consumer<String> progressCallback) {
+        long started = System.nanoTime();
+        CompletableFuture<TranscriptFile> result = transcript
+                .thenApplyAsync(response -> {
+                    progressCallback.accept("Formatting transcript...");
+                    TranscriptFile file;
+                    long formatting = System.nanoTime();
+                    FormatEvent formatEvent = FormatEvent.start();
+                    try {
+                        file = transcriptStore.write(job.getId(),
+                                out -> TranscriptFormatter.write(response, job.getSpeaker1Name(), job.getSpeaker2Name(), out),
+                                // Kept for the other export formats, which need the utterance timings
+                                out -> objectMapper.writeValue(out, response));
+                        formatEvent.finish(job.getId(), response.size(), file.size());
+                    } catch (IOException e) {
+                        formatEvent.finish(job.getId(), response.size(), -1);
+                        throw new CompletionException(e);
+                    }
+                    metrics.recordFormatting(Duration.ofNanos(System.nanoTime() - formatting));
+                    jobStore.markCompleted(job.getId(), file.path().toString());
+                    
+                    metrics.recordJob(Duration.ofNanos(System.nanoTime() - started), null);
+                    progressCallback.accept("Transcription complete!");
+                    return file;
+                }, executor)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    log.error("Error during transcription", cause);
+                    metrics.recordJob(Duration.ofNanos(System.nanoTime() - started), cause);
+                    jobStore.markFailed(job.getId(), cause.getMessage());
+                    progressCallback.accept("Error: " + cause.getMessage());
+                    throw new RuntimeException("Transcription failed", cause);
+                });
+
+        running.put(job.getId(), result);
+        result.whenComplete((file, error) -> running.remove(job.getId()));
+        return result;
+    }
+
+    private CompletableFuture<CompactTranscript> fetchTranscript(TranscriptionJob job,
+                                                                  TranscriptionStep step,
+                                                                  Consumer<String> progressCallback) {
+        String contentHash = job.getContentHash();
+        if (contentHash == null) {
+            return runTranscription(job, step, progressCallback);
+        }
+
+        CompactTranscript cached = cache.getTranscript(contentHash);
+        if (cached != null) {
+            log.debug("Reusing transcript {} for recording {}", cached.getId(), contentHash);
+            progressCallback.accept("Reusing the earlier transcript of this recording...");
+            return CompletableFuture.completedFuture(cached);
+        }
+        return cache.coalesce(contentHash, progressCallback,
+                progress -> runTranscription(job, step, progress));
+    }
+
+    private CompletableFuture<CompactTranscript> runTranscription(TranscriptionJob job,
+                                                                   TranscriptionStep step,
+                                                                   Consumer<String> progressCallback) {
+        // Nothing is sent to AssemblyAI until the job gets one of the limited slots; the
+        // controller times the wait as transcriber.queue.wait
+        return admission.admit(job.getOwner(), position -> progressCallback.accept("Waiting in queue, position " + position + "..."))
+                .thenCompose(permit -> {
+                    CompletableFuture<CompactTranscript> transcript = step.run(progressCallback);
+                    transcript.whenComplete((response, error) -> permit.release());
                     return transcript;
-                } else if ("error".equals(status)) {
-                    throw new RuntimeException("Transcription failed: " + transcript.getError());
+                });
+    }
+
+    private CompletableFuture<CompactTranscript> submitAndAwait(TranscriptionJob job,
+                                                                 UploadStep uploadStep,
+                                                                 Consumer<String> progressCallback) {
+        String contentHash = job.getContentHash();
+        CompletableFuture<SubmittedTranscript> submitted;
+        try {
+            submitted = CompletableFuture.supplyAsync(
+                    () -> uploadAndSubmit(job.getId(), contentHash, uploadStep, progressCallback), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("too many transcriptions in progress, please try again later", e));
+        }
+
+        return submitted.thenCompose(transcript -> awaitTranscript(transcript, progressCallback))
+                .whenComplete((transcript, error) -> {
+                    if (error != null && contentHash != null) {
+                        // The cached upload URL may have expired; the next attempt uploads afresh
+                        cache.remove(contentHash);
+                    }
+                });
+    }
+
+    private CompletableFuture<CompactTranscript> awaitTranscript(SubmittedTranscript transcript,
+                                                                  Consumer<String> progressCallback) {
+        // No thread is held while AssemblyAI processes the audio: the poller completes the next stage
+        progressCallback.accept("Processing transcription...");
+        // With webhooks the callback triggers the fetch; polling only starts after the deadline
+        Duration firstPollDelay = webhook.isEnabled()
+                ? webhook.getDeadline() : pollSchedule.firstDelay(transcript.audioDuration());
+        CompletableFuture<CompactTranscript> result = poller.await(transcript.jobId(), transcript.id(),
+                transcript.audioDuration(), progressCallback, firstPollDelay);
+        // Back on the recording's own timeline if its leading silence was not uploaded
+        int offsetMillis = (int) transcript.timeOffset().toMillis();
+        return offsetMillis == 0 ? result : result.thenApply(response -> response.withTimeOffset(offsetMillis));
+    }
+
+    /**
+     * Transcription of a long WAV recording cut at pauses into parts that are uploaded and
+     * transcribed at the same time, then merged. Shorter or other recordings go through
+     * {@link #submitAndAwait} whole. The parts share the job's admission slot, held until
+     * every part has settled; the first part to fail stops the others. As only the merged
+     * result is recorded, a restart in between fails the job.
+     */
+    private CompletableFuture<CompactTranscript> transcribeInParts(TranscriptionJob job,
+                                                                    AudioSource audio,
+                                                                    UploadStep wholeUpload,
+                                                                    Consumer<String> progressCallback) {
+        CompletableFuture<List<Part>> planned;
+        try {
+            planned = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return planParts(audio, progressCallback);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
                 }
-                
-                // Wait before polling again
-                Thread.sleep(3000);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("too many transcriptions in progress, please try again later", e));
+        }
+        return planned.thenCompose(parts -> parts.size() < 2
+                ? submitAndAwait(job, wholeUpload, progressCallback)
+                : transcribeParts(job.getId(), audio, parts, progressCallback));
+    }
+
+    private CompletableFuture<CompactTranscript> transcribeParts(String jobId, AudioSource audio, List<Part> parts,
+                                                                  Consumer<String> progressCallback) {
+        log.info("Transcribing {} in {} parts", audio.getName(), parts.size());
+        progressCallback.accept("Transcribing in " + parts.size() + " parts...");
+        int sampleRate = partSampleRate(parts.get(0).sampleRate());
+        SplitParts group = new SplitParts();
+
+        List<CompletableFuture<CompactTranscript>> transcripts = new ArrayList<>();
+        for (Part part : parts) {
+            Consumer<String> progress = message ->
+                    progressCallback.accept("Part " + (part.index() + 1) + " of " + parts.size() + ": " + message);
+            CompletableFuture<SubmittedTranscript> submitted;
+            try {
+                submitted = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        group.checkRunning();
+                        progress.accept("Uploading...");
+                        UploadEvent uploadEvent = UploadEvent.start();
+                        long convertedLength = convertedLength(audio, sampleRate, part.startFrame(), part.endFrame());
+                        String uploadUrl = sendUpload(audio, part.originalBytes(), sampleRate, convertedLength,
+                                part.startFrame(), part.endFrame(), progress, group);
+                        uploadEvent.finish(jobId, convertedLength);
+                        group.checkRunning();
+                        progress.accept("Starting transcription...");
+                        String transcriptId = submitTranscription(jobId, uploadUrl, group);
+                        return new SubmittedTranscript(jobId, transcriptId, part.duration(), part.offset());
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor);
+            } catch (RejectedExecutionException e) {
+                submitted = CompletableFuture.failedFuture(e);
             }
+            CompletableFuture<CompactTranscript> transcript = submitted.thenCompose(submittedTranscript -> {
+                CompletableFuture<CompactTranscript> result = awaitTranscript(submittedTranscript, progress);
+                group.track(submittedTranscript.id());
+                return result;
+            });
+            // The first failed part stops the others
+            transcript.whenComplete((response, error) -> {
+                if (error != null) {
+                    group.fail(error);
+                }
+            });
+            transcripts.add(transcript);
         }
+
+        long[] cuts = parts.stream().skip(1).mapToLong(Part::cutMillis).toArray();
+        Part last = parts.get(parts.size() - 1);
+        double audioSeconds = last.offset().plus(last.duration()).toMillis() / 1000.0;
+        // Settles only once every part has, so the job's admission slot covers all their calls
+        return CompletableFuture
+                .allOf(transcripts.toArray(CompletableFuture[]::new))
+                .handle((done, error) -> {
+                    if (error != null) {
+                        // The failure that stopped the job, not one of the cancellations that followed
+                        Throwable cause = group.failure() != null ? group.failure() : error;
+                        throw cause instanceof CompletionException completion ? completion : new CompletionException(cause);
+                    }
+                    return TranscriptMerger.merge(transcripts.stream().map(CompletableFuture::join).toList(),
+                            cuts, split.getOverlap().toMillis(), audioSeconds);
+                });
     }
 
     /**
-     * Regular transcription using HTTP API
+     * Parts are cut out by the downsampler, which converts them to {@code wavSampleRate}, or
+     * without conversion keeps the recording's own rate
      */
-    public CompletableFuture<String> transcribeFile(File audioFile, 
-                                                   String speaker1Name, 
-                                                   String speaker2Name,
-                                                   Consumer<String> progressCallback) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                progressCallback.accept("Uploading file...");
-                String uploadUrl = uploadFile(audioFile);
-                
-                progressCallback.accept("Starting transcription...");
-                String transcriptId = submitTranscription(uploadUrl, true, 2);
-                
-                progressCallback.accept("Processing transcription...");
-                TranscriptResponse transcript = pollForCompletion(transcriptId, progressCallback);
-                
-                progressCallback.accept("Formatting transcript...");
-                String formattedTranscript = formatTranscriptWithSpeakers(transcript, speaker1Name, speaker2Name);
-                
-                progressCallback.accept("Transcription complete!");
-                return formattedTranscript;
-                
-            } catch (Exception e) {
-                log.error("Error during transcription", e);
-                progressCallback.accept("Error: " + e.getMessage());
-                throw new RuntimeException("Transcription failed", e);
+    private int partSampleRate(int recordingSampleRate) {
+        return wavSampleRate > 0 ? wavSampleRate : recordingSampleRate;
+    }
+
+    /**
+     * Where to cut the recording: at the quietest pause near each even share of the kept
+     * audio, in one streaming pass. Empty if it is too short to split or not a WAV file.
+     */
+    private List<Part> planParts(AudioSource audio, Consumer<String> progressCallback) throws IOException {
+        WavFormat format;
+        long firstFrameLength;
+        try (InputStream in = audio.openStream()) {
+            byte[] header = in.readNBytes(WavDownsampler.MAX_HEADER_BYTES);
+            format = WavFormat.parse(header, header.length);
+            // A part the downsampler cannot cut out would be uploaded as the whole file
+            firstFrameLength = format == null ? -1 : WavDownsampler.convertedLength(header, header.length,
+                    audio.length(), partSampleRate(format.sampleRate()), 0, 1);
+        }
+        long minimumMillis = split.getMinSegmentLength().toMillis();
+        if (format == null || firstFrameLength < 0
+                || (audio.length() - format.dataOffset()) * 1000 / format.byteRate() < 2 * minimumMillis) {
+            return List.of();
+        }
+
+        progressCallback.accept("Looking for pauses to split at...");
+        SilenceDetector.EnergyProfile profile;
+        try (InputStream in = audio.openStream()) {
+            profile = SilenceDetector.profile(in, audio.length());
+        }
+        int rate = profile.sampleRate();
+        SilenceDetector.Trim trim = uploadProperties.isTrimSilence()
+                ? profile.trim(uploadProperties.getSilenceThreshold(), uploadProperties.getSilencePadding())
+                : new SilenceDetector.Trim(rate, 0, profile.totalFrames(), profile.totalFrames());
+        long kept = trim.endFrame() - trim.startFrame();
+        int count = (int) Math.min(split.getMaxSegments(), kept / Math.max(1, minimumMillis * rate / 1000));
+        if (count < 2) {
+            return List.of();
+        }
+
+        long share = kept / count;
+        long[] bounds = new long[count + 1];
+        bounds[0] = trim.startFrame();
+        bounds[count] = trim.endFrame();
+        for (int i = 1; i < count; i++) {
+            long target = trim.startFrame() + i * share;
+            bounds[i] = profile.quietestPoint(target - share / 4, target + share / 4, SPLIT_PAUSE);
+        }
+
+        long overlapFrames = split.getOverlap().toMillis() * rate / 1000;
+        List<Part> parts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long start = i == 0 ? bounds[0] : Math.max(bounds[0], bounds[i] - overlapFrames);
+            parts.add(new Part(i, rate, start, bounds[i + 1], bounds[i], (bounds[i + 1] - start) * format.blockAlign()));
+        }
+        return parts;
+    }
+
+    /**
+     * Called when AssemblyAI reports that a transcript has finished
+     *
+     * @return false if the transcript is not being tracked by this node
+     */
+    public boolean handleWebhook(String transcriptId, String status) {
+        log.debug("Webhook for transcript {} with status {}", transcriptId, status);
+        return poller.signal(transcriptId);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private SubmittedTranscript uploadAndSubmit(String jobId, String contentHash, UploadStep uploadStep,
+                                                Consumer<String> progressCallback) {
+        try {
+            UploadEvent uploadEvent = UploadEvent.start();
+            UploadedAudio audio = uploadStep.upload(progressCallback);
+            uploadEvent.finish(jobId, audio.bytes());
+            jobStore.markUploaded(jobId, audio.uploadUrl(), audio.estimatedDuration(), audio.timeOffset());
+            if (contentHash != null) {
+                cache.putUploadUrl(contentHash, audio.uploadUrl(), audio.timeOffset());
             }
-        });
+            
+            progressCallback.accept("Starting transcription...");
+            String transcriptId = submitTranscription(jobId, audio.uploadUrl());
+            jobStore.markSubmitted(jobId, transcriptId);
+            return new SubmittedTranscript(jobId, transcriptId, audio.estimatedDuration(), audio.timeOffset());
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
     }
 
+    private Duration estimateDuration(AudioSource audio) throws IOException {
+        try (InputStream in = audio.openStream()) {
+            byte[] header = in.readNBytes(AudioDurationEstimator.HEADER_BYTES);
+            return AudioDurationEstimator.estimate(header, header.length, audio.length());
+        }
+    }
 
+    /** Everything from getting the audio to AssemblyAI to the finished transcript, once admitted */
+    @FunctionalInterface
+    private interface TranscriptionStep {
+        CompletableFuture<CompactTranscript> run(Consumer<String> progressCallback);
+    }
+
+    /** Gets the audio to AssemblyAI, reporting to the given callback */
+    @FunctionalInterface
+    private interface UploadStep {
+        UploadedAudio upload(Consumer<String> progressCallback) throws Exception;
+    }
 
     /**
-     * Format transcript with speaker names
+     * Audio that has reached AssemblyAI, with its play time as far as it is known, where
+     * it starts in the recording and the bytes sent for it, 0 if an earlier upload is reused
      */
-    private String formatTranscriptWithSpeakers(TranscriptResponse transcript, String speaker1Name, String speaker2Name) {
-        StringBuilder formatted = new StringBuilder();
-        
-        if (transcript.getUtterances() != null && !transcript.getUtterances().isEmpty()) {
-            transcript.getUtterances().forEach(utterance -> {
-                String speakerName = "A".equals(utterance.getSpeaker()) ? speaker1Name : speaker2Name;
-                formatted.append(String.format("[%s]: %s\n\n", speakerName, utterance.getText()));
-            });
-        } else {
-            // Fallback to regular transcript if speaker diarization is not available
-            formatted.append(transcript.getText() != null ? transcript.getText() : "No transcript available");
+    private record UploadedAudio(String uploadUrl, Duration estimatedDuration, Duration timeOffset, long bytes) {
+    }
+
+    /**
+     * The parts of one split recording in flight. Their requests carry it as a tag, so the
+     * first part to fail can cancel the others' calls and stop polling their transcripts.
+     */
+    private final class SplitParts {
+        // Guarded by this
+        private Throwable failure;
+        private final List<String> transcriptIds = new ArrayList<>();
+
+        synchronized Throwable failure() {
+            return failure;
         }
-        
-        return formatted.toString();
+
+        /**
+         * Stop a part before its next step if another one has failed
+         */
+        synchronized void checkRunning() {
+            if (failure != null) {
+                throw new CancellationException("Another part of the recording failed");
+            }
+        }
+
+        /**
+         * Remember a part's submitted transcript, or stop polling it at once if another part has failed
+         */
+        void track(String transcriptId) {
+            synchronized (this) {
+                if (failure == null) {
+                    transcriptIds.add(transcriptId);
+                    return;
+                }
+            }
+            poller.cancel(transcriptId);
+        }
+
+        void fail(Throwable error) {
+            List<String> pendingIds;
+            synchronized (this) {
+                if (failure != null) {
+                    return;
+                }
+                failure = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                pendingIds = List.copyOf(transcriptIds);
+            }
+            // Upload and submit calls share the dispatcher of httpClient, whether running or queued
+            Dispatcher dispatcher = httpClient.dispatcher();
+            for (Call call : dispatcher.runningCalls()) {
+                cancelIfOurs(call);
+            }
+            for (Call call : dispatcher.queuedCalls()) {
+                cancelIfOurs(call);
+            }
+            pendingIds.forEach(poller::cancel);
+        }
+
+        private void cancelIfOurs(Call call) {
+            if (call.request().tag(SplitParts.class) == this) {
+                call.cancel();
+            }
+        }
+    }
+
+    /**
+     * Frames {@code [startFrame, endFrame)} of a split recording; what comes before
+     * {@code cutFrame} is the overlap with the previous part, whose audio ends there
+     */
+    private record Part(int index, int sampleRate, long startFrame, long endFrame, long cutFrame, long originalBytes) {
+
+        Duration offset() {
+            return Duration.ofMillis(startFrame * 1000 / sampleRate);
+        }
+
+        Duration duration() {
+            return Duration.ofMillis((endFrame - startFrame) * 1000 / sampleRate);
+        }
+
+        long cutMillis() {
+            return cutFrame * 1000 / sampleRate;
+        }
+    }
+
+    /** A transcript AssemblyAI is working on for a job */
+    private record SubmittedTranscript(String jobId, String id, Duration audioDuration, Duration timeOffset) {
     }
 
 
-} 
\ No newline at end of file
+}
\ No newline at end of file
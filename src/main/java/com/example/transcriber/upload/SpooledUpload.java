@@ -0,0 +1,149 @@
+package com.example.transcriber.upload;
+
+import com.example.transcriber.service.AudioSource;
+import com.example.transcriber.service.HashingOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An upload received into memory up to a threshold and spilled to a spool file beyond it.
+ * Every byte it holds is reserved against the node's {@link UploadBudget} first, and
+ * {@link #discard()} hands the reservation back and deletes the spool file.
+ */
+@Slf4j
+public class SpooledUpload implements AudioSource {
+
+    // Disk is reserved in steps so the budget lock is not taken for every write
+    private static final long DISK_RESERVATION_STEP = 1024 * 1024;
+
+    private final String fileName;
+    private final int memoryThreshold;
+    private final UploadBudget budget;
+    private final DeferredFileOutputStream buffer;
+    private final HashingOutputStream outputStream;
+
+    private long diskReserved;
+    private boolean discarded;
+
+    SpooledUpload(String fileName, Path spoolDirectory, int memoryThreshold, UploadBudget budget) throws IOException {
+        this.fileName = fileName;
+        this.memoryThreshold = memoryThreshold;
+        this.budget = budget;
+
+        budget.acquireMemory(memoryThreshold);
+        try {
+            this.buffer = DeferredFileOutputStream.builder()
+                    .setThreshold(memoryThreshold)
+                    .setDirectory(spoolDirectory)
+                    .setPrefix("upload_")
+                    .setSuffix(".spool")
+                    .get();
+        } catch (RuntimeException e) {
+            budget.releaseMemory(memoryThreshold);
+            throw e;
+        }
+        this.outputStream = new HashingOutputStream(new BudgetedOutputStream());
+    }
+
+    /**
+     * Stream the browser's bytes are written to
+     */
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    public boolean isInMemory() {
+        return buffer.isInMemory();
+    }
+
+    @Override
+    public String getName() {
+        return fileName;
+    }
+
+    @Override
+    public long length() {
+        return buffer.getByteCount();
+    }
+
+    @Override
+    public String getContentHash() {
+        return outputStream.getContentHash();
+    }
+
+    @Override
+    public synchronized InputStream openStream() throws IOException {
+        if (discarded) {
+            throw new IOException("Upload " + fileName + " was already discarded");
+        }
+        return buffer.toInputStream();
+    }
+
+    /**
+     * Delete the spool file and return the memory and disk reservations to the budget
+     */
+    public synchronized void discard() {
+        if (discarded) {
+            return;
+        }
+        discarded = true;
+
+        try {
+            buffer.close();
+        } catch (IOException e) {
+            log.debug("Error closing spooled upload {}", fileName, e);
+        }
+        if (!buffer.isInMemory()) {
+            try {
+                Files.deleteIfExists(buffer.getPath());
+            } catch (IOException e) {
+                log.warn("Could not delete spool file {}", buffer.getPath(), e);
+            }
+        }
+        budget.releaseMemory(memoryThreshold);
+        budget.releaseDisk(diskReserved);
+    }
+
+    /**
+     * Reserves disk for bytes beyond the memory threshold before they reach the spool file
+     */
+    private class BudgetedOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            reserve(1);
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            reserve(len);
+            buffer.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            buffer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            buffer.close();
+        }
+
+        private void reserve(int len) throws IOException {
+            long onDisk = buffer.getByteCount() + len - memoryThreshold;
+            if (onDisk > diskReserved) {
+                long step = Math.max(DISK_RESERVATION_STEP, onDisk - diskReserved);
+                budget.acquireDisk(step);
+                diskReserved += step;
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.transcriber.upload;
+
+import com.example.transcriber.config.TranscriberProperties;
+import com.vaadin.flow.component.upload.Receiver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Upload receiver that keeps the first few MB of a file in memory and spills the
+ * rest to the spool directory, within the node's {@link UploadBudget}.
+ */
+public class SpoolingUploadReceiver implements Receiver {
+
+    private final Path spoolDirectory;
+    private final int memoryThreshold;
+    private final UploadBudget budget;
+    private SpooledUpload currentUpload;
+
+    public SpoolingUploadReceiver(TranscriberProperties.Upload properties, UploadBudget budget) {
+        this.spoolDirectory = Paths.get(properties.getSpoolDirectory());
+        this.memoryThreshold = (int) properties.getMemoryThreshold().toBytes();
+        this.budget = budget;
+    }
+
+    @Override
+    public OutputStream receiveUpload(String fileName, String mimeType) {
+        try {
+            Files.createDirectories(spoolDirectory);
+            currentUpload = new SpooledUpload(fileName, spoolDirectory, memoryThreshold, budget);
+            return currentUpload.getOutputStream();
+        } catch (IOException e) {
+            // Vaadin reports exceptions from the receiver as a failed upload
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public SpooledUpload getCurrentUpload() {
+        return currentUpload;
+    }
+
+    /**
+     * Drop the upload in progress, if any
+     */
+    public void abort() {
+        if (currentUpload != null) {
+            currentUpload.discard();
+            currentUpload = null;
+        }
+    }
+}
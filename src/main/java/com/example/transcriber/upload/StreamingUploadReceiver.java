@@ -0,0 +1,43 @@
+package com.example.transcriber.upload;
+
+import com.example.transcriber.service.StreamingUpload;
+import com.example.transcriber.service.TranscriptionService;
+import com.vaadin.flow.component.upload.Receiver;
+
+import java.io.OutputStream;
+
+/**
+ * Upload receiver that forwards the browser's bytes straight to AssemblyAI
+ * instead of buffering the whole file in memory.
+ */
+public class StreamingUploadReceiver implements Receiver {
+
+    private final TranscriptionService transcriptionService;
+    private StreamingUpload currentUpload;
+
+    public StreamingUploadReceiver(TranscriptionService transcriptionService) {
+        this.transcriptionService = transcriptionService;
+    }
+
+    @Override
+    public OutputStream receiveUpload(String fileName, String mimeType) {
+        // A new file replaces the previous one; don't leave its request waiting for a body
+        abort();
+        currentUpload = transcriptionService.openUploadStream(mimeType);
+        return currentUpload.getOutputStream();
+    }
+
+    public StreamingUpload getCurrentUpload() {
+        return currentUpload;
+    }
+
+    /**
+     * Cancel the upload in progress, if any
+     */
+    public void abort() {
+        if (currentUpload != null) {
+            currentUpload.abort();
+            currentUpload = null;
+        }
+    }
+}
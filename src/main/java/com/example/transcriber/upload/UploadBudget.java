@@ -0,0 +1,130 @@
+package com.example.transcriber.upload;
+
+import com.example.transcriber.config.TranscriberProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Node-wide memory and disk allowance shared by all spooled uploads.
+ *
+ * Callers reserve bytes before they buffer them. When the budget is used up a
+ * memory reservation is rejected with an {@link IOException} at once; a disk
+ * reservation waits for other uploads to release theirs, and is rejected once the
+ * queue timeout passes.
+ */
+@Slf4j
+@Component
+public class UploadBudget {
+
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    private final Duration queueTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private long memoryInUse;
+    private long diskInUse;
+
+    @Autowired
+    public UploadBudget(TranscriberProperties properties) {
+        this(properties.getUpload().getMaxMemory().toBytes(),
+             properties.getUpload().getMaxDisk().toBytes(),
+             properties.getUpload().getQueueTimeout());
+    }
+
+    public UploadBudget(long maxMemoryBytes, long maxDiskBytes, Duration queueTimeout) {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = maxDiskBytes;
+        this.queueTimeout = queueTimeout;
+    }
+
+    /**
+     * Reserve memory only if it is free right away. Uploads reserve it when they start,
+     * while Vaadin holds the session lock, so waiting here would freeze the user's UI.
+     */
+    public void acquireMemory(long bytes) throws IOException {
+        lock.lock();
+        try {
+            awaitCapacity(bytes, true, 0);
+            memoryInUse += bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void releaseMemory(long bytes) {
+        lock.lock();
+        try {
+            memoryInUse -= bytes;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void acquireDisk(long bytes) throws IOException {
+        lock.lock();
+        try {
+            awaitCapacity(bytes, false, queueTimeout.toNanos());
+            diskInUse += bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void releaseDisk(long bytes) {
+        lock.lock();
+        try {
+            diskInUse -= bytes;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getMemoryInUse() {
+        lock.lock();
+        try {
+            return memoryInUse;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDiskInUse() {
+        lock.lock();
+        try {
+            return diskInUse;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitCapacity(long bytes, boolean memory, long timeoutNanos) throws IOException {
+        String kind = memory ? "memory" : "disk";
+        long max = memory ? maxMemoryBytes : maxDiskBytes;
+        if (bytes > max) {
+            throw new IOException("Upload needs " + bytes + " bytes of " + kind + " but the budget is " + max);
+        }
+
+        long remainingNanos = timeoutNanos;
+        while ((memory ? memoryInUse : diskInUse) + bytes > max) {
+            if (remainingNanos <= 0) {
+                log.warn("Rejecting upload: {} budget of {} bytes exhausted", kind, max);
+                throw new IOException("Server is busy receiving other uploads, please try again later");
+            }
+            try {
+                remainingNanos = released.awaitNanos(remainingNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for upload " + kind + " budget", e);
+            }
+        }
+    }
+}
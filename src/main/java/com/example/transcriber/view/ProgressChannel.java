@@ -0,0 +1,85 @@
+package com.example.transcriber.view;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Carries one job's progress messages to its UI, at most one push per interval.
+ *
+ * A message that arrives while an earlier one waits replaces it, so a browser only ever
+ * sees the latest status and the server never pushes more often than the interval, however
+ * chatty the job. The first message goes out at once; later ones wait out the rest of the
+ * interval on the JDK's shared delay timer, so idle channels cost no thread. Once closed,
+ * nothing more is shown, even a message whose push was already on its way.
+ */
+final class ProgressChannel {
+
+    private final UI ui;
+    private final Consumer<String> display;
+    private final long intervalNanos;
+    private final AtomicReference<String> latest = new AtomicReference<>();
+    // Whether a flush is due, so a burst of messages schedules only one
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    private volatile long lastFlush;
+    private volatile boolean closed;
+
+    ProgressChannel(UI ui, Duration interval, Consumer<String> display) {
+        this.ui = ui;
+        this.display = display;
+        this.intervalNanos = interval.toNanos();
+        this.lastFlush = System.nanoTime() - intervalNanos;
+    }
+
+    /**
+     * Show the message once the interval allows, unless a newer one comes first; callable from any thread
+     */
+    void publish(String message) {
+        if (closed) {
+            return;
+        }
+        latest.set(message);
+        if (flushPending.compareAndSet(false, true)) {
+            long wait = lastFlush + intervalNanos - System.nanoTime();
+            if (wait <= 0) {
+                flush();
+            } else {
+                CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS).execute(this::flush);
+            }
+        }
+    }
+
+    /**
+     * Drop the waiting message and ignore any later ones, e.g. when the job's result is shown
+     */
+    void close() {
+        closed = true;
+        latest.set(null);
+    }
+
+    private void flush() {
+        lastFlush = System.nanoTime();
+        // Before taking the message, so one published meanwhile schedules the next flush
+        flushPending.set(false);
+        String message = latest.getAndSet(null);
+        if (message == null || closed) {
+            return;
+        }
+        try {
+            ui.access(() -> {
+                if (!closed) {
+                    display.accept(message);
+                }
+            });
+        } catch (UIDetachedException e) {
+            // The user left; the job carries on without them
+            close();
+        }
+    }
+}
@@ -1,6 +1,16 @@
 package com.example.transcriber.view;
 
+import com.example.transcriber.config.TranscriberProperties;
+import com.example.transcriber.export.ExportFormat;
+import com.example.transcriber.job.TranscriptFile;
+import com.example.transcriber.job.TranscriptionJob;
+import com.example.transcriber.service.StreamingUpload;
 import com.example.transcriber.service.TranscriptionService;
+import com.example.transcriber.upload.SpooledUpload;
+import com.example.transcriber.upload.SpoolingUploadReceiver;
+import com.example.transcriber.upload.StreamingUploadReceiver;
+import com.example.transcriber.upload.UploadBudget;
+import com.example.transcriber.web.TranscriptDownloadController;
 import com.vaadin.flow.component.Key;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
@@ -14,23 +24,22 @@ import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.progressbar.ProgressBar;
+import com.vaadin.flow.component.select.Select;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.component.upload.FailedEvent;
 import com.vaadin.flow.component.upload.Upload;
-import com.vaadin.flow.component.upload.receivers.MultiFileMemoryBuffer;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
-import com.vaadin.flow.server.StreamResource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 
 import jakarta.annotation.security.PermitAll;
-import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Slf4j
 @Route(value = "/transcriber", layout = MainLayout.class)
@@ -39,6 +48,9 @@ import java.util.concurrent.CompletableFuture;
 public class TranscriberView extends VerticalLayout {
 
     private final TranscriptionService transcriptionService;
+    private final TranscriberProperties.Upload uploadProperties;
+    private final UploadBudget uploadBudget;
+    private final Duration progressInterval;
     
     private TextField speaker1Field;
     private TextField speaker2Field;
@@ -48,13 +60,24 @@ public class TranscriberView extends VerticalLayout {
     private Paragraph statusLabel;
     private Button downloadButton;
     private Anchor downloadAnchor;
+    private Select<ExportFormat> formatSelect;
     
-    private String currentTranscript;
-    private File uploadedFile;
+    private TranscriptFile currentTranscript;
+    private StreamingUpload currentUpload;
+    private SpooledUpload spooledUpload;
+    // Recording of the last transcript, so new speaker names can be applied without a new upload
+    private String transcribedHash;
     private UI currentUI;
+    // Progress of the job started in this view, pushed at most once per progressInterval
+    private ProgressChannel progress;
 
-    public TranscriberView(TranscriptionService transcriptionService) {
+    public TranscriberView(TranscriptionService transcriptionService,
+                           TranscriberProperties properties,
+                           UploadBudget uploadBudget) {
         this.transcriptionService = transcriptionService;
+        this.uploadProperties = properties.getUpload();
+        this.uploadBudget = uploadBudget;
+        this.progressInterval = properties.getProgress().getPushInterval();
         this.currentUI = UI.getCurrent();
         
         setSizeFull();
@@ -69,6 +92,13 @@ public class TranscriberView extends VerticalLayout {
         createDownloadSection();
         
         updateUIState();
+        reattachToLatestJob();
+        
+        // Hand spooled bytes no job holds back to the node's upload budget when the user leaves
+        addDetachListener(event -> {
+            discardUpload();
+            closeProgress();
+        });
     }
 
     private void createHeader() {
@@ -112,34 +142,39 @@ public class TranscriberView extends VerticalLayout {
     private void createFileUpload() {
         H3 uploadHeader = new H3("Upload MP3 File");
         
-        MultiFileMemoryBuffer buffer = new MultiFileMemoryBuffer();
-        upload = new Upload(buffer);
+        if (uploadProperties.getMode() == TranscriberProperties.Upload.Mode.SPOOL) {
+            SpoolingUploadReceiver receiver = new SpoolingUploadReceiver(uploadProperties, uploadBudget);
+            upload = new Upload(receiver);
+            upload.addSucceededListener(event -> {
+                spooledUpload = receiver.getCurrentUpload();
+                uploadSucceeded(event.getFileName());
+            });
+            upload.addFailedListener(event -> {
+                receiver.abort();
+                uploadFailed(event);
+            });
+        } else {
+            StreamingUploadReceiver receiver = new StreamingUploadReceiver(transcriptionService);
+            upload = new Upload(receiver);
+            upload.addSucceededListener(event -> {
+                // The bytes were forwarded to AssemblyAI while the browser sent them
+                currentUpload = receiver.getCurrentUpload();
+                uploadSucceeded(event.getFileName());
+            });
+            upload.addFailedListener(event -> {
+                receiver.abort();
+                uploadFailed(event);
+            });
+        }
         
         upload.setAcceptedFileTypes("audio/mpeg", "audio/mp3", ".mp3", "audio/wav", ".wav");
         upload.setMaxFiles(1);
         upload.setMaxFileSize(500 * 1024 * 1024); // 500MB
         
-        upload.addSucceededListener(event -> {
-            try {
-                // Save uploaded file to temporary location
-                uploadedFile = File.createTempFile("upload_", "_" + event.getFileName());
-                
-                try (FileOutputStream fos = new FileOutputStream(uploadedFile)) {
-                    buffer.getInputStream(event.getFileName()).transferTo(fos);
-                }
-                
-                Notification.show("File uploaded successfully: " + event.getFileName(), 
-                    3000, Notification.Position.TOP_CENTER)
-                    .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
-                
-                updateUIState();
-                
-            } catch (IOException e) {
-                log.error("Error saving uploaded file", e);
-                Notification.show("Error uploading file: " + e.getMessage(), 
-                    5000, Notification.Position.TOP_CENTER)
-                    .addThemeVariants(NotificationVariant.LUMO_ERROR);
-            }
+        // A new file replaces the previous one
+        upload.addStartedListener(event -> {
+            discardUpload();
+            transcribedHash = null;
         });
         
         upload.addFileRejectedListener(event -> {
@@ -151,6 +186,37 @@ public class TranscriberView extends VerticalLayout {
         add(uploadHeader, upload);
     }
 
+    private void uploadSucceeded(String fileName) {
+        Notification.show("File uploaded successfully: " + fileName, 
+            3000, Notification.Position.TOP_CENTER)
+            .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
+        
+        updateUIState();
+    }
+
+    private void uploadFailed(FailedEvent event) {
+        log.error("Error receiving uploaded file", event.getReason());
+        updateUIState();
+        
+        String reason = event.getReason() != null ? event.getReason().getMessage() : "upload interrupted";
+        Notification.show("Error uploading file: " + reason, 
+            5000, Notification.Position.TOP_CENTER)
+            .addThemeVariants(NotificationVariant.LUMO_ERROR);
+    }
+
+    private void discardUpload() {
+        if (spooledUpload != null) {
+            spooledUpload.discard();
+            spooledUpload = null;
+        }
+        currentUpload = null;
+    }
+
+    private boolean hasUpload() {
+        return spooledUpload != null || (currentUpload != null && !currentUpload.isFailed())
+            || transcriptionService.hasCachedTranscript(transcribedHash);
+    }
+
     private void createTranscribeButton() {
         transcribeButton = new Button("Start Transcription");
         transcribeButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
@@ -180,12 +246,21 @@ public class TranscriberView extends VerticalLayout {
         downloadAnchor = new Anchor();
         downloadAnchor.getElement().setAttribute("download", true);
         downloadAnchor.add(downloadButton);
-        
-        add(downloadAnchor);
+
+        formatSelect = new Select<>();
+        formatSelect.setItems(ExportFormat.values());
+        formatSelect.setItemLabelGenerator(ExportFormat::getLabel);
+        formatSelect.setValue(ExportFormat.TEXT);
+        formatSelect.setVisible(false);
+        formatSelect.addValueChangeListener(event -> setupDownload());
+
+        HorizontalLayout downloadLayout = new HorizontalLayout(formatSelect, downloadAnchor);
+        downloadLayout.setAlignItems(Alignment.BASELINE);
+        add(downloadLayout);
     }
 
     private void startTranscription() {
-        if (uploadedFile == null || !uploadedFile.exists()) {
+        if (!hasUpload()) {
             Notification.show("Please upload an MP3 file first", 
                 3000, Notification.Position.TOP_CENTER)
                 .addThemeVariants(NotificationVariant.LUMO_ERROR);
@@ -204,27 +279,89 @@ public class TranscriberView extends VerticalLayout {
         progressBar.setVisible(true);
         progressBar.setIndeterminate(true);
         downloadButton.setVisible(false);
+        formatSelect.setVisible(false);
         
         startRegularTranscription(speaker1Name, speaker2Name);
     }
 
     private void startRegularTranscription(String speaker1Name, String speaker2Name) {
         // Start regular transcription
-        CompletableFuture<String> transcriptionFuture = transcriptionService.transcribeFile(
-            uploadedFile, 
-            speaker1Name, 
-            speaker2Name,
-            this::updateProgress
-        );
+        ProgressChannel channel = openProgress();
+        Consumer<String> progressCallback = channel != null ? channel::publish : message -> { };
+        CompletableFuture<TranscriptFile> transcriptionFuture;
+        if (spooledUpload != null) {
+            // The job owns the recording from here, so leaving the page doesn't delete it under the job
+            SpooledUpload audio = spooledUpload;
+            spooledUpload = null;
+            transcribedHash = audio.getContentHash();
+            transcriptionFuture = transcriptionService.transcribeAudio(currentOwner(), audio, speaker1Name, speaker2Name, progressCallback);
+            transcriptionFuture.whenComplete((transcript, throwable) -> audio.discard());
+        } else if (currentUpload != null) {
+            transcribedHash = currentUpload.getContentHash();
+            transcriptionFuture = transcriptionService.transcribeUpload(currentOwner(), currentUpload, speaker1Name, speaker2Name, progressCallback);
+        } else {
+            // Only the speaker names changed: the earlier transcript is formatted again
+            transcriptionFuture = transcriptionService.transcribeCached(currentOwner(), transcribedHash, speaker1Name, speaker2Name, progressCallback);
+        }
         
+        awaitTranscription(transcriptionFuture, channel);
+    }
+
+    /**
+     * @param channel the job's progress, closed first so no late message hides the result; null if there is none
+     */
+    private void awaitTranscription(CompletableFuture<TranscriptFile> transcriptionFuture, ProgressChannel channel) {
         transcriptionFuture.whenComplete((transcript, throwable) -> {
+            if (channel != null) {
+                channel.close();
+            }
             if (currentUI != null) {
                 currentUI.access(() -> handleTranscriptionComplete(transcript, throwable));
             }
         });
     }
 
-    private void handleTranscriptionComplete(String transcript, Throwable throwable) {
+    /**
+     * Show the user's last job again: its transcript if it finished while they were away,
+     * or its progress if it is still running on this node.
+     */
+    private void reattachToLatestJob() {
+        String owner = currentOwner();
+        if (owner == null) {
+            return;
+        }
+
+        transcriptionService.findLatestJob(owner).ifPresent(job -> {
+            speaker1Field.setValue(job.getSpeaker1Name() != null ? job.getSpeaker1Name() : "");
+            speaker2Field.setValue(job.getSpeaker2Name() != null ? job.getSpeaker2Name() : "");
+            transcribedHash = job.getContentHash();
+
+            if (job.getStatus() == TranscriptionJob.Status.COMPLETED && job.getResultPath() != null) {
+                TranscriptFile file = new TranscriptFile(job.getId(), Path.of(job.getResultPath()));
+                if (file.exists()) {
+                    currentTranscript = file;
+                    statusLabel.setText("Your last transcript is ready");
+                    setupDownload();
+                }
+            } else if (!job.getStatus().isFinished()) {
+                transcriptionService.findRunningJob(job.getId()).ifPresent(future -> {
+                    transcribeButton.setEnabled(false);
+                    upload.setVisible(false);
+                    progressBar.setVisible(true);
+                    progressBar.setIndeterminate(true);
+                    statusLabel.setText("Your last transcription is still in progress...");
+                    awaitTranscription(future, null);
+                });
+            }
+        });
+    }
+
+    private String currentOwner() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private void handleTranscriptionComplete(TranscriptFile transcript, Throwable throwable) {
         if (throwable != null) {
             log.error("Transcription failed", throwable);
             statusLabel.setText("Transcription failed: " + throwable.getMessage());
@@ -238,7 +375,10 @@ public class TranscriberView extends VerticalLayout {
         } else {
             currentTranscript = transcript;
             statusLabel.setText("Transcription completed successfully!");
+            discardUpload();
             progressBar.setVisible(false);
+            upload.setVisible(true);
+            updateUIState();
             
             // Setup download
             setupDownload();
@@ -249,34 +389,36 @@ public class TranscriberView extends VerticalLayout {
         }
     }
 
-    private void updateProgress(String message) {
+    /**
+     * A new progress channel for the job about to start, replacing the previous job's
+     *
+     * @return null outside of a UI
+     */
+    private ProgressChannel openProgress() {
+        closeProgress();
         if (currentUI != null) {
-            currentUI.access(() -> {
-                statusLabel.setText(message);
-            });
+            progress = new ProgressChannel(currentUI, progressInterval, statusLabel::setText);
+        }
+        return progress;
+    }
+
+    private void closeProgress() {
+        if (progress != null) {
+            progress.close();
+            progress = null;
         }
     }
 
     private void setupDownload() {
         if (currentTranscript != null) {
-            String speaker2Name = speaker2Field.getValue().trim();
-            if (speaker2Name.isEmpty()) {
-                speaker2Name = "Speaker2";
-            }
-            String filename = speaker2Name + "_transcript.txt";
-            
-            StreamResource resource = new StreamResource(
-                filename,
-                () -> new ByteArrayInputStream(currentTranscript.getBytes(StandardCharsets.UTF_8))
-            );
-            
-            downloadAnchor.setHref(resource);
+            // Served from the transcript file by TranscriptDownloadController, not kept in the session
+            downloadAnchor.setHref(TranscriptDownloadController.downloadUrl(currentTranscript.jobId(), formatSelect.getValue()));
             downloadButton.setVisible(true);
+            formatSelect.setVisible(true);
         }
     }
 
     private void updateUIState() {
-        boolean fileUploaded = uploadedFile != null && uploadedFile.exists();
-        transcribeButton.setEnabled(fileUploaded);
+        transcribeButton.setEnabled(hasUpload());
     }
 } 
\ No newline at end of file
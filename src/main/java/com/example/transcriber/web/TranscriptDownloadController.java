@@ -0,0 +1,233 @@
+package com.example.transcriber.web;
+
+import com.example.transcriber.export.ExportFormat;
+import com.example.transcriber.export.TranscriptExporter;
+import com.example.transcriber.job.JobStore;
+import com.example.transcriber.job.TranscriptFile;
+import com.example.transcriber.job.TranscriptionJob;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.Principal;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Serves finished transcripts from the files the {@link com.example.transcriber.job.TranscriptStore} wrote.
+ *
+ * Only the job's owner may download it, as plain text or in any other {@link ExportFormat},
+ * which the {@link TranscriptExporter} renders on first request. Responses carry an ETag derived from the file's
+ * size and modification time, answer a single byte range with 206, and are sent from the
+ * pre-compressed copy when the client accepts gzip. The body never passes through the
+ * heap: Tomcat's sendfile is used when the connector offers it, {@link FileChannel#transferTo}
+ * otherwise.
+ */
+@Slf4j
+@RestController
+public class TranscriptDownloadController {
+
+    public static final String DOWNLOAD_PATH = "/transcripts/{jobId}";
+
+    // Request attributes of Tomcat's NIO connector for handing a file to sendfile
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final JobStore jobStore;
+    private final TranscriptExporter exporter;
+
+    public TranscriptDownloadController(JobStore jobStore, TranscriptExporter exporter) {
+        this.jobStore = jobStore;
+        this.exporter = exporter;
+    }
+
+    /**
+     * Relative URL the view links a job's download to
+     */
+    public static String downloadUrl(String jobId, ExportFormat format) {
+        String url = DOWNLOAD_PATH.substring(1).replace("{jobId}", jobId);
+        return format == ExportFormat.TEXT ? url : url + "?format=" + format.getParameter();
+    }
+
+    @GetMapping(DOWNLOAD_PATH)
+    public void download(@PathVariable String jobId,
+                         @RequestParam(value = "format", defaultValue = "txt") String formatParameter,
+                         Principal principal,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<ExportFormat> format = ExportFormat.fromParameter(formatParameter);
+        if (format.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown format " + formatParameter);
+            return;
+        }
+
+        Optional<TranscriptionJob> job = jobStore.findById(jobId)
+                .filter(found -> principal != null && Objects.equals(found.getOwner(), principal.getName()))
+                .filter(found -> found.getStatus() == TranscriptionJob.Status.COMPLETED && found.getResultPath() != null);
+        if (job.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        TranscriptFile file = new TranscriptFile(jobId, Path.of(job.get().getResultPath()));
+        if (!file.exists()) {
+            log.warn("Transcript file {} of job {} is missing", file.path(), jobId);
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Optional<Path> export = exporter.export(file, format.get(), job.get().getSpeaker1Name(), job.get().getSpeaker2Name());
+        if (export.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Transcript is only available as plain text");
+            return;
+        }
+        Path body = export.get();
+
+        long length = Files.size(body);
+        long lastModified = Files.getLastModifiedTime(body).toMillis();
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        // Ranges always refer to the uncompressed bytes; only plain text has a compressed copy
+        boolean gzip = rangeHeader == null && format.get() == ExportFormat.TEXT
+                && acceptsGzip(request) && Files.isRegularFile(file.gzipPath());
+        String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + (gzip ? "-gz" : "") + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(format.get().getMediaType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(filename(job.get(), format.get())));
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            send(request, response, file.gzipPath(), 0, Files.size(file.gzipPath()));
+            return;
+        }
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Several ranges would need a multipart body; the whole file is a valid answer too
+            if (ranges.size() == 1) {
+                long start;
+                long end;
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                    end = length;
+                }
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                send(request, response, body, start, end - start + 1);
+                return;
+            }
+        }
+
+        send(request, response, body, 0, length);
+    }
+
+    private void send(HttpServletRequest request, HttpServletResponse response,
+                      Path path, long position, long count) throws IOException {
+        response.setContentLengthLong(count);
+        if (count == 0) {
+            return;
+        }
+
+        if ("GET".equals(request.getMethod()) && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file from the kernel page cache after the handler returns
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + count);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            while (count > 0) {
+                long sent = channel.transferTo(position, count, out);
+                if (sent <= 0) {
+                    throw new IOException("Transcript " + path + " shrank while it was sent");
+                }
+                position += sent;
+                count -= sent;
+            }
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String contentDisposition(String filename) {
+        ContentDisposition.Builder builder = ContentDisposition.attachment();
+        // With a charset Spring also encodes the plain filename, which only non-ASCII names need
+        if (StandardCharsets.US_ASCII.newEncoder().canEncode(filename)) {
+            builder.filename(filename);
+        } else {
+            builder.filename(filename, StandardCharsets.UTF_8);
+        }
+        return builder.build().toString();
+    }
+
+    private static String filename(TranscriptionJob job, ExportFormat format) {
+        String speaker2Name = job.getSpeaker2Name() != null ? job.getSpeaker2Name().trim() : "";
+        return (speaker2Name.isEmpty() ? "Speaker2" : speaker2Name) + "_transcript" + format.getSuffix();
+    }
+}
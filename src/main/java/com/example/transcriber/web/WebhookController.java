@@ -0,0 +1,71 @@
+package com.example.transcriber.web;
+
+import com.example.transcriber.config.TranscriberProperties;
+import com.example.transcriber.service.TranscriptionService;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Receives AssemblyAI's completion callbacks when {@code transcriber.webhook.enabled} is set.
+ *
+ * The endpoint is reachable without a login, so every call must carry the shared
+ * webhook secret in {@link TranscriptionService#WEBHOOK_AUTH_HEADER}. The callback
+ * itself carries no transcript data; it only tells the poller to fetch the transcript.
+ */
+@Slf4j
+@RestController
+public class WebhookController {
+
+    private final TranscriptionService transcriptionService;
+    private final TranscriberProperties.Webhook webhook;
+
+    public WebhookController(TranscriptionService transcriptionService, TranscriberProperties properties) {
+        this.transcriptionService = transcriptionService;
+        this.webhook = properties.getWebhook();
+    }
+
+    @PostMapping(TranscriptionService.WEBHOOK_PATH)
+    public ResponseEntity<Void> transcriptFinished(
+            @RequestHeader(value = TranscriptionService.WEBHOOK_AUTH_HEADER, required = false) String secret,
+            @RequestBody WebhookPayload payload) {
+        if (!webhook.isEnabled() || !isValidSecret(secret)) {
+            log.warn("Rejected webhook call for transcript {}", payload.getTranscriptId());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        if (!transcriptionService.handleWebhook(payload.getTranscriptId(), payload.getStatus())) {
+            // Still acknowledged so AssemblyAI does not retry a callback nobody is waiting for
+            log.info("Webhook for transcript {} which is not pending on this node", payload.getTranscriptId());
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    private boolean isValidSecret(String secret) {
+        if (secret == null || webhook.getSecret() == null) {
+            return false;
+        }
+        // Constant-time comparison so the secret cannot be guessed byte by byte
+        return MessageDigest.isEqual(
+                webhook.getSecret().getBytes(StandardCharsets.UTF_8),
+                secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class WebhookPayload {
+        @JsonProperty("transcript_id")
+        private String transcriptId;
+        private String status;
+    }
+}
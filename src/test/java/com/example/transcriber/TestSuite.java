@@ -7,9 +7,31 @@ package com.example.transcriber;
  * 
  * ## Unit Tests
  * - TranscriptResponseTest: Tests DTO serialization/deserialization
+ * - CompactTranscriptTest: Tests the columnar transcript model and its Jackson (de)serializer
  * - TranscriptionServiceTest: Tests service layer with mocked HTTP calls
+ * - TranscriptionExecutorTest: Tests virtual/platform job execution and job gauges
+ * - TranscriptPollerTest: Tests the shared status poller against many in-flight transcripts
+ * - JobStoreTest: Tests the persistent job table used to resume and reattach to transcriptions
+ * - TranscriptStoreTest: Tests streaming formatting of transcripts into per-job files
+ * - TranscriptExporterTest: Tests SRT/WebVTT/timestamped rendering and reuse of rendered exports
+ * - AdmissionControllerTest: Tests global/per-user job limits, round-robin fairness and queue metrics
+ * - RetryInterceptorTest: Tests the shared token bucket and 429/Retry-After aware retries
+ * - HttpClientFactoryTest: Tests the shared OkHttp client's settings, call timings and pool gauges
+ * - TranscriptStreamReaderTest: Tests streaming parsing of transcript responses
+ * - TranscriptCacheTest: Tests content-hash caching and coalescing of identical transcriptions
+ * - AdaptivePollScheduleTest: Tests poll delays derived from audio duration and observed processing speed
+ * - AudioDurationEstimatorTest: Tests WAV/MP3 header based duration estimates
+ * - WavDownsamplerTest: Tests streaming WAV downmixing and resampling to 16 kHz mono
+ * - SilenceDetectorTest: Tests detection of silent ends and of pauses to split WAV recordings at
+ * - TranscriptMergerTest: Tests joining the transcripts of split recordings across their overlaps
  * - WelcomeViewTest: Tests welcome page UI components
  * - TranscriberViewTest: Tests main transcriber UI components
+ * - ProgressChannelTest: Tests coalescing of progress pushes to one update per interval
+ * - WebhookControllerTest: Tests AssemblyAI callback verification and hand-off to the poller
+ * - TranscriptDownloadControllerTest: Tests owner checks, ETag, Range and gzip handling of transcript downloads
+ * - SpoolingUploadReceiverTest: Tests memory/disk spooling of uploads and the node-wide upload budget
+ * - AssemblyAiSimulatorTest: Tests the local AssemblyAI stand-in's job lifecycle, fault injection and use by the service
+ * - LoadHarnessTest: Tests the concurrent-user load harness's phases and its comparable reports
  * 
  * ## Configuration Tests
  * - SecurityConfigTest: Tests Spring Security configuration
@@ -0,0 +1,72 @@
+package com.example.transcriber.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioDurationEstimatorTest {
+
+    @Test
+    void testWavUsesDeclaredByteRate() {
+        // 44.1 kHz, 16 bit stereo: 176,400 bytes per second
+        byte[] header = wavHeader(44_100, 2, 16);
+        long length = 44 + 176_400L * 90;
+
+        Duration duration = AudioDurationEstimator.estimate(header, header.length, length);
+
+        assertEquals(90, duration.toSeconds());
+    }
+
+    @Test
+    void testMp3UsesFirstFrameBitrate() {
+        // ID3v2 tag of 20 bytes followed by an MPEG-1 Layer III frame header at 64 kbps
+        byte[] header = new byte[64];
+        header[0] = 'I';
+        header[1] = 'D';
+        header[2] = '3';
+        header[9] = 20;
+        header[30] = (byte) 0xFF;
+        header[31] = (byte) 0xFB;
+        header[32] = (byte) 0x50;
+
+        Duration duration = AudioDurationEstimator.estimate(header, header.length, 8_000L * 120);
+
+        assertEquals(120, duration.toSeconds());
+    }
+
+    @Test
+    void testUnknownFormatAssumes128Kbps() {
+        byte[] header = "not audio".getBytes();
+
+        Duration duration = AudioDurationEstimator.estimate(header, header.length, 16_000L * 60);
+
+        assertEquals(60, duration.toSeconds());
+    }
+
+    @Test
+    void testCorruptWavChunkSizeFallsBackTo128Kbps() {
+        // A chunk declaring 2 GB before the fmt chunk, which would take an int offset past Integer.MAX_VALUE
+        ByteBuffer buffer = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("RIFF".getBytes()).putInt(0).put("WAVE".getBytes());
+        buffer.put("LIST".getBytes()).putInt(0x7FFFFFF0);
+        byte[] header = buffer.array();
+
+        Duration duration = AudioDurationEstimator.estimate(header, header.length, 16_000L * 60);
+
+        assertEquals(60, duration.toSeconds());
+    }
+
+    static byte[] wavHeader(int sampleRate, int channels, int bitsPerSample) {
+        ByteBuffer buffer = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("RIFF".getBytes()).putInt(0).put("WAVE".getBytes());
+        buffer.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) channels);
+        buffer.putInt(sampleRate).putInt(sampleRate * channels * bitsPerSample / 8);
+        buffer.putShort((short) (channels * bitsPerSample / 8)).putShort((short) bitsPerSample);
+        buffer.put("data".getBytes()).putInt(0);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.transcriber.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SilenceDetectorTest {
+
+    private static final Duration PADDING = Duration.ofMillis(500);
+
+    @Test
+    void testSilentEndsAreTrimmedWithPadding() throws IOException {
+        // 3 s of silence, 1 s of a tone, 2 s of silence at 8 kHz stereo
+        byte[] wav = wav(8_000, 2, 3, 1, 2);
+
+        SilenceDetector.Trim trim = SilenceDetector.scan(new ByteArrayInputStream(wav), wav.length, -50, PADDING);
+
+        assertEquals(48_000, trim.totalFrames());
+        assertEquals(20_000, trim.startFrame());
+        assertEquals(36_000, trim.endFrame());
+        assertTrue(trim.isTrimmed());
+        assertEquals(Duration.ofMillis(2500), trim.offset());
+        assertEquals(Duration.ofSeconds(4), trim.removed());
+    }
+
+    @Test
+    void testRecordingWithoutSilenceIsKept() throws IOException {
+        byte[] wav = wav(8_000, 1, 0, 2, 0);
+
+        SilenceDetector.Trim trim = SilenceDetector.scan(new ByteArrayInputStream(wav), wav.length, -50, PADDING);
+
+        assertFalse(trim.isTrimmed());
+        assertEquals(Duration.ZERO, trim.offset());
+    }
+
+    @Test
+    void testAllSilenceIsKept() throws IOException {
+        byte[] wav = wav(8_000, 1, 2, 0, 0);
+
+        SilenceDetector.Trim trim = SilenceDetector.scan(new ByteArrayInputStream(wav), wav.length, -50, PADDING);
+
+        assertFalse(trim.isTrimmed());
+        assertEquals(16_000, trim.endFrame());
+    }
+
+    @Test
+    void testProfileFindsThePauseToCutAt() throws IOException {
+        // Two tones with a second of silence between them, at 2 to 3 s
+        byte[] first = wav(8_000, 1, 0, 2, 1);
+        byte[] second = wav(8_000, 1, 0, 2, 0);
+        ByteBuffer joined = ByteBuffer.allocate(first.length + second.length - 44).order(ByteOrder.LITTLE_ENDIAN);
+        joined.put(first).put(second, 44, second.length - 44).putInt(40, joined.capacity() - 44);
+        byte[] wav = joined.array();
+
+        SilenceDetector.EnergyProfile profile = SilenceDetector.profile(new ByteArrayInputStream(wav), wav.length);
+
+        assertEquals(40_000, profile.totalFrames());
+        long cut = profile.quietestPoint(8_000, 32_000, PADDING);
+        assertTrue(cut >= 18_000 && cut <= 22_000, "cut at " + cut);
+        assertFalse(profile.trim(-50, PADDING).isTrimmed());
+    }
+
+    @Test
+    void testNonWavIsNotScanned() throws IOException {
+        byte[] mp3 = "ID3 not a wav file".getBytes();
+
+        assertNull(SilenceDetector.scan(new ByteArrayInputStream(mp3), mp3.length, -50, PADDING));
+        assertNull(SilenceDetector.profile(new ByteArrayInputStream(mp3), mp3.length));
+    }
+
+    /**
+     * 16 bit WAV of leading silence, a 440 Hz tone and trailing silence, in whole seconds
+     */
+    static byte[] wav(int sampleRate, int channels, int leadingSeconds, int toneSeconds, int trailingSeconds) {
+        int frames = sampleRate * (leadingSeconds + toneSeconds + trailingSeconds);
+        ByteBuffer buffer = ByteBuffer.allocate(44 + frames * channels * 2).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(AudioDurationEstimatorTest.wavHeader(sampleRate, channels, 16)).putInt(40, frames * channels * 2);
+        for (int i = 0; i < frames; i++) {
+            boolean tone = i >= leadingSeconds * sampleRate && i < (leadingSeconds + toneSeconds) * sampleRate;
+            short value = tone ? (short) Math.round(8000 * Math.sin(2 * Math.PI * 440 * i / sampleRate)) : 0;
+            for (int channel = 0; channel < channels; channel++) {
+                buffer.putShort(value);
+            }
+        }
+        return buffer.array();
+    }
+}
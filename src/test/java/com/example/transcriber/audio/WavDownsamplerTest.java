@@ -0,0 +1,155 @@
+package com.example.transcriber.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WavDownsamplerTest {
+
+    @Test
+    void testStereo44kIsConvertedTo16kMono() throws IOException {
+        byte[] wav = sineWav(44_100, 2, 2, 1000, 0.5);
+
+        byte[] converted = convert(wav, wav.length);
+
+        WavFormat format = WavFormat.parse(converted, converted.length);
+        assertNotNull(format);
+        assertEquals(16_000, format.sampleRate());
+        assertEquals(1, format.channels());
+        assertEquals(16, format.bitsPerSample());
+        assertEquals(32_000 * 2, format.dataSize());
+        assertEquals(converted.length, WavDownsampler.convertedLength(wav, wav.length, wav.length, 16_000));
+
+        float[] samples = samples(converted, format);
+        // A 1 kHz tone crosses zero 2000 times a second and keeps its level
+        int crossings = 0;
+        for (int i = 1001; i < 31_000; i++) {
+            if (samples[i - 1] < 0 && samples[i] >= 0 || samples[i - 1] >= 0 && samples[i] < 0) {
+                crossings++;
+            }
+        }
+        assertEquals(3750, crossings, 5);
+        assertEquals(0.5 / Math.sqrt(2), rms(samples, 1000, 31_000), 0.01);
+    }
+
+    @Test
+    void testFrequenciesAboveNewNyquistAreFilteredOut() throws IOException {
+        // 10 kHz cannot be represented at 16 kHz and would otherwise alias to 6 kHz
+        byte[] wav = sineWav(48_000, 1, 1, 10_000, 0.5);
+
+        byte[] converted = convert(wav, wav.length);
+
+        WavFormat format = WavFormat.parse(converted, converted.length);
+        assertTrue(rms(samples(converted, format), 500, 15_500) < 0.005);
+    }
+
+    @Test
+    void testOutputDoesNotDependOnWriteSizes() throws IOException {
+        byte[] wav = sineWav(22_050, 2, 1, 440, 0.3);
+
+        ByteArrayOutputStream byteByByte = new ByteArrayOutputStream();
+        WavDownsampler downsampler = new WavDownsampler(byteByByte, 16_000, wav.length);
+        for (byte b : wav) {
+            downsampler.write(b);
+        }
+        downsampler.finish();
+
+        assertArrayEquals(convert(wav, wav.length), byteByByte.toByteArray());
+        assertEquals(wav.length, downsampler.getBytesIn());
+        assertEquals(byteByByte.size(), downsampler.getBytesOut());
+    }
+
+    @Test
+    void testUnknownDataSizeIsStreamed() throws IOException {
+        byte[] wav = sineWav(32_000, 2, 1, 440, 0.3);
+        ByteBuffer.wrap(wav).order(ByteOrder.LITTLE_ENDIAN).putInt(40, -1);
+
+        byte[] converted = convert(wav, -1);
+
+        WavFormat format = WavFormat.parse(converted, converted.length);
+        assertEquals(-1, format.dataSize());
+        assertEquals(44 + 16_000 * 2, converted.length);
+        assertEquals(-1, WavDownsampler.convertedLength(wav, wav.length, -1, 16_000));
+    }
+
+    @Test
+    void testTrimmedFramesAreLeftOut() throws IOException {
+        // Already 16 kHz mono, but trimming alone is worth rewriting the file
+        byte[] wav = sineWav(16_000, 1, 2, 440, 0.3);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WavDownsampler downsampler = new WavDownsampler(out, 16_000, wav.length).trim(4_000, 20_000);
+        downsampler.write(wav);
+        downsampler.finish();
+
+        byte[] converted = out.toByteArray();
+        assertEquals(44 + 16_000 * 2, converted.length);
+        assertEquals(converted.length, WavDownsampler.convertedLength(wav, wav.length, wav.length, 16_000, 4_000, 20_000));
+        // Without resampling the kept samples are copied exactly
+        assertArrayEquals(Arrays.copyOfRange(wav, 44 + 8_000, 44 + 40_000),
+                Arrays.copyOfRange(converted, 44, converted.length));
+    }
+
+    @Test
+    void testOtherFilesPassThroughUnchanged() throws IOException {
+        byte[] mp3 = new byte[10_000];
+        mp3[0] = 'I';
+        mp3[1] = 'D';
+        mp3[2] = '3';
+        byte[] alreadySmall = sineWav(16_000, 1, 1, 440, 0.3);
+
+        assertArrayEquals(mp3, convert(mp3, mp3.length));
+        assertArrayEquals(alreadySmall, convert(alreadySmall, alreadySmall.length));
+        assertEquals(-1, WavDownsampler.convertedLength(alreadySmall, alreadySmall.length, alreadySmall.length, 16_000));
+        assertArrayEquals(new byte[5], convert(new byte[5], 5));
+    }
+
+    private static byte[] convert(byte[] wav, long inputLength) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WavDownsampler downsampler = new WavDownsampler(out, 16_000, inputLength);
+        // Odd chunk sizes split frames and the header across writes
+        for (int offset = 0; offset < wav.length; offset += 1000) {
+            downsampler.write(wav, offset, Math.min(1000, wav.length - offset));
+        }
+        downsampler.finish();
+        return out.toByteArray();
+    }
+
+    private static byte[] sineWav(int sampleRate, int channels, int seconds, double frequency, double amplitude) {
+        int frames = sampleRate * seconds;
+        ByteBuffer buffer = ByteBuffer.allocate(44 + frames * channels * 2).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] header = AudioDurationEstimatorTest.wavHeader(sampleRate, channels, 16);
+        buffer.put(header).putInt(40, frames * channels * 2);
+        for (int i = 0; i < frames; i++) {
+            short value = (short) Math.round(amplitude * 32767 * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+            for (int channel = 0; channel < channels; channel++) {
+                buffer.putShort(value);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static float[] samples(byte[] wav, WavFormat format) {
+        ByteBuffer buffer = ByteBuffer.wrap(wav, format.dataOffset(), wav.length - format.dataOffset())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        float[] samples = new float[buffer.remaining() / 2];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = buffer.getShort() / 32768f;
+        }
+        return samples;
+    }
+
+    private static double rms(float[] samples, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += samples[i] * samples[i];
+        }
+        return Math.sqrt(sum / (to - from));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.transcriber.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactTranscriptTest {
+
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+    }
+
+    @Test
+    void testDeserializesIntoColumns() throws Exception {
+        String json = """
+            {
+                "id": "transcript-123",
+                "status": "completed",
+                "text": "Hello world again",
+                "audio_duration": 2.5,
+                "words": [{"text": "Hello", "start": 0, "end": 500}],
+                "utterances": [
+                    {"speaker": "A", "text": "Hello", "start": 0, "end": 1000, "confidence": 0.95,
+                     "words": [{"text": "Hello", "start": 0, "end": 1000, "confidence": 0.95, "speaker": "A"}]},
+                    {"speaker": "B", "text": "world", "start": 1000, "end": 2000, "confidence": null},
+                    {"speaker": "A", "text": "again", "start": null, "end": 2500}
+                ],
+                "unknown_field": {"nested": true}
+            }
+            """;
+
+        CompactTranscript transcript = objectMapper.readValue(json, CompactTranscript.class);
+
+        assertEquals("transcript-123", transcript.getId());
+        assertEquals("completed", transcript.getStatus());
+        assertEquals("Hello world again", transcript.getText());
+        assertEquals(2.5, transcript.getAudioDuration());
+        assertEquals(3, transcript.size());
+        assertEquals("A", transcript.speaker(0));
+        assertEquals("B", transcript.speaker(1));
+        assertEquals("A", transcript.speaker(2));
+        assertEquals("world", transcript.text(1));
+        assertEquals(1000, transcript.start(1));
+        assertEquals(2000, transcript.end(1));
+        assertEquals(0.95f, transcript.confidence(0));
+        assertTrue(Float.isNaN(transcript.confidence(1)));
+        assertEquals(CompactTranscript.UNKNOWN_TIME, transcript.start(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> transcript.text(3));
+    }
+
+    @Test
+    void testStatusOnlyResponse() throws Exception {
+        CompactTranscript transcript = objectMapper.readValue(
+            "{\"id\": \"transcript-123\", \"status\": \"error\", \"error\": \"Audio too short\", \"utterances\": null}",
+            CompactTranscript.class);
+
+        assertEquals("error", transcript.getStatus());
+        assertEquals("Audio too short", transcript.getError());
+        assertEquals(0, transcript.size());
+    }
+
+    @Test
+    void testSerializesToTranscriptResponseShape() throws Exception {
+        CompactTranscript.Builder builder = new CompactTranscript.Builder().id("transcript-123").status("completed");
+        for (int i = 0; i < 40; i++) {
+            builder.addUtterance(i % 2 == 0 ? "A" : "B", "Utterance " + i, i * 1000, i * 1000 + 900, 0.5f);
+        }
+        CompactTranscript transcript = builder.build();
+
+        TranscriptResponse response = objectMapper.readValue(objectMapper.writeValueAsString(transcript), TranscriptResponse.class);
+
+        assertEquals("transcript-123", response.getId());
+        assertEquals(40, response.getUtterances().size());
+        TranscriptResponse.Utterance last = response.getUtterances().get(39);
+        assertEquals("B", last.getSpeaker());
+        assertEquals("Utterance 39", last.getText());
+        assertEquals(39000, last.getStart());
+        assertEquals(39900, last.getEnd());
+        assertEquals(0.5, last.getConfidence());
+    }
+
+    @Test
+    void testWritesUtteranceTextFromSharedBuffer() throws Exception {
+        TranscriptResponse response = new TranscriptResponse();
+        TranscriptResponse.Utterance first = new TranscriptResponse.Utterance();
+        first.setSpeaker("A");
+        first.setText("Hello");
+        TranscriptResponse.Utterance second = new TranscriptResponse.Utterance();
+        second.setSpeaker("B");
+        second.setText("there");
+        response.setUtterances(List.of(first, second));
+
+        CompactTranscript transcript = CompactTranscript.of(response);
+        StringWriter out = new StringWriter();
+        transcript.writeText(1, out);
+        transcript.writeText(0, out);
+
+        assertEquals("thereHello", out.toString());
+        assertEquals(CompactTranscript.UNKNOWN_TIME, transcript.end(0));
+    }
+
+    @Test
+    void testTextIsKeptOnlyWithoutUtterances() {
+        CompactTranscript diarized = new CompactTranscript.Builder()
+                .text("Ignored copy")
+                .addUtterance("A", "Hello", 0, 900, 0.9f)
+                .addUtterance("B", "there", 1000, 1500, 0.8f)
+                .build();
+        CompactTranscript plain = new CompactTranscript.Builder().text("Hello there").build();
+
+        assertEquals("Hello there", diarized.getText());
+        assertEquals("Hello", diarized.text(0));
+        assertEquals("there", diarized.text(1));
+        assertEquals("Hello there", plain.getText());
+        assertEquals(0, plain.size());
+    }
+
+    @Test
+    void testTimeOffsetShiftsKnownTimesOnly() {
+        CompactTranscript transcript = new CompactTranscript.Builder()
+                .addUtterance("A", "Hello", 100, 900, 0.9f)
+                .addUtterance("B", "there", CompactTranscript.UNKNOWN_TIME, 1500, 0.8f)
+                .build();
+
+        CompactTranscript shifted = transcript.withTimeOffset(2500);
+
+        assertEquals(2600, shifted.start(0));
+        assertEquals(3400, shifted.end(0));
+        assertEquals(CompactTranscript.UNKNOWN_TIME, shifted.start(1));
+        assertEquals(4000, shifted.end(1));
+        assertEquals("there", shifted.text(1));
+        assertEquals(100, transcript.start(0));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.transcriber.export;
+
+import com.example.transcriber.job.TranscriptFile;
+import com.example.transcriber.job.TranscriptStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranscriptExporterTest {
+
+    private static final String JSON = """
+        {"id": "transcript-1", "status": "completed", "text": "Hello Hi <there>", "audio_duration": 5.5,
+         "utterances": [
+           {"speaker": "A", "text": "Hello", "start": 250, "end": 1500, "confidence": 0.9, "words": [{"text": "Hello"}]},
+           {"speaker": "B", "text": "Hi <there>", "start": 3723004, "end": 3725000, "confidence": 0.8}
+         ]}
+        """;
+
+    private final TranscriptExporter exporter = new TranscriptExporter(new ObjectMapper(), 2);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRendersSrt() throws IOException {
+        assertEquals("""
+            1
+            00:00:00,250 --> 00:00:01,500
+            Alice: Hello
+
+            2
+            01:02:03,004 --> 01:02:05,000
+            Bob: Hi <there>
+
+            """, render(JSON, ExportFormat.SRT));
+    }
+
+    @Test
+    void testRendersWebVttWithVoiceTagsAndEscaping() throws IOException {
+        assertEquals("""
+            WEBVTT
+
+            00:00:00.250 --> 00:00:01.500
+            <v Alice>Hello
+
+            01:02:03.004 --> 01:02:05.000
+            <v Bob>Hi &lt;there&gt;
+
+            """, render(JSON, ExportFormat.VTT));
+    }
+
+    @Test
+    void testRendersTimestampedText() throws IOException {
+        assertEquals("[00:00:00] Alice: Hello\n\n[01:02:03] Bob: Hi <there>\n\n", render(JSON, ExportFormat.TIMESTAMPED));
+    }
+
+    @Test
+    void testWithoutUtterancesTheTextBecomesOneEntry() throws IOException {
+        assertEquals("1\n00:00:00,000 --> 00:00:05,500\nHello there\n\n",
+            render("{\"text\": \"Hello there\", \"audio_duration\": 5.5}", ExportFormat.SRT));
+    }
+
+    @Test
+    void testReusesRenderedExportUntilEvicted() throws IOException {
+        TranscriptStore store = new TranscriptStore(directory, Duration.ofDays(1));
+        TranscriptFile first = store.write("job-1", out -> out.write("text"), out -> out.write(JSON));
+        TranscriptFile second = store.write("job-2", out -> out.write("text"), out -> out.write(JSON));
+
+        Path srt = exporter.export(first, ExportFormat.SRT, "Alice", "Bob").orElseThrow();
+        Files.writeString(srt, "edited");
+        assertEquals(srt, exporter.export(first, ExportFormat.SRT, "Alice", "Bob").orElseThrow());
+        assertEquals("edited", Files.readString(srt));
+
+        exporter.export(first, ExportFormat.VTT, "Alice", "Bob");
+        exporter.export(second, ExportFormat.SRT, "Alice", "Bob");
+        assertFalse(Files.exists(srt));
+    }
+
+    @Test
+    void testPlainTextAndJsonAreServedAsStored() throws IOException {
+        TranscriptStore store = new TranscriptStore(directory, Duration.ofDays(1));
+        TranscriptFile withJson = store.write("job-1", out -> out.write("text"), out -> out.write(JSON));
+        TranscriptFile textOnly = store.write("job-2", out -> out.write("text"));
+
+        assertEquals(withJson.path(), exporter.export(withJson, ExportFormat.TEXT, "Alice", "Bob").orElseThrow());
+        assertEquals(withJson.jsonPath(), exporter.export(withJson, ExportFormat.JSON, "Alice", "Bob").orElseThrow());
+        assertTrue(exporter.export(textOnly, ExportFormat.SRT, "Alice", "Bob").isEmpty());
+    }
+
+    private String render(String json, ExportFormat format) throws IOException {
+        StringWriter out = new StringWriter();
+        exporter.render(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), format, "Alice", "Bob", out);
+        return out.toString();
+    }
+}
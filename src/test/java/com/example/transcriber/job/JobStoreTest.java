@@ -0,0 +1,64 @@
+package com.example.transcriber.job;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobStoreTest {
+
+    private JobStore jobStore;
+
+    @BeforeEach
+    void setUp() {
+        jobStore = JobStore.inMemory();
+    }
+
+    @Test
+    void testRecordsEachStepOfAJob() {
+        TranscriptionJob job = jobStore.create("alice", "hash", "Alice", "Bob");
+        assertEquals(TranscriptionJob.Status.QUEUED, job.getStatus());
+
+        jobStore.markUploaded(job.getId(), "https://upload.assemblyai.com/file", Duration.ofMinutes(3));
+        jobStore.markSubmitted(job.getId(), "transcript-id");
+
+        TranscriptionJob submitted = jobStore.findById(job.getId()).orElseThrow();
+        assertEquals(TranscriptionJob.Status.SUBMITTED, submitted.getStatus());
+        assertEquals("https://upload.assemblyai.com/file", submitted.getUploadUrl());
+        assertEquals("transcript-id", submitted.getTranscriptId());
+        assertEquals(180_000L, submitted.getAudioDurationMillis());
+
+        jobStore.markCompleted(job.getId(), "/tmp/transcripts/" + job.getId() + ".txt");
+
+        TranscriptionJob completed = jobStore.findById(job.getId()).orElseThrow();
+        assertEquals(TranscriptionJob.Status.COMPLETED, completed.getStatus());
+        assertEquals("/tmp/transcripts/" + job.getId() + ".txt", completed.getResultPath());
+    }
+
+    @Test
+    void testFindsUnfinishedJobs() {
+        TranscriptionJob running = jobStore.create("alice", null, "Alice", "Bob");
+        jobStore.markSubmitted(running.getId(), "transcript-id");
+        TranscriptionJob failed = jobStore.create("alice", null, "Alice", "Bob");
+        jobStore.markFailed(failed.getId(), "upload failed");
+
+        List<TranscriptionJob> unfinished = jobStore.findUnfinished();
+
+        assertEquals(1, unfinished.size());
+        assertEquals(running.getId(), unfinished.get(0).getId());
+    }
+
+    @Test
+    void testFindsLatestJobOfOwner() throws InterruptedException {
+        jobStore.create("alice", null, "Alice", "Bob");
+        Thread.sleep(5);
+        TranscriptionJob latest = jobStore.create("alice", null, "Carol", "Dave");
+        jobStore.create("bob", null, "Erin", "Frank");
+
+        assertEquals(latest.getId(), jobStore.findLatest("alice").orElseThrow().getId());
+        assertTrue(jobStore.findLatest("nobody").isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.transcriber.job;
+
+import com.example.transcriber.dto.TranscriptResponse;
+import com.example.transcriber.service.TranscriptFormatter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranscriptStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWritesFormattedTranscriptToFile() throws IOException {
+        TranscriptStore store = new TranscriptStore(directory, Duration.ofDays(1));
+        TranscriptResponse transcript = new TranscriptResponse();
+        transcript.setUtterances(List.of(utterance("A", "Hello"), utterance("B", "Hi there")));
+
+        TranscriptFile file = store.write("job-1", out -> TranscriptFormatter.write(transcript, "Alice", "Bob", out));
+
+        assertEquals(directory.resolve("job-1.txt"), file.path());
+        assertEquals("[Alice]: Hello\n\n[Bob]: Hi there\n\n", file.readText());
+        assertEquals(file.readText().length(), file.size());
+        try (var in = new GZIPInputStream(Files.newInputStream(file.gzipPath()))) {
+            assertEquals(file.readText(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testFallsBackToPlainText() throws IOException {
+        TranscriptStore store = new TranscriptStore(directory, Duration.ofDays(1));
+        TranscriptResponse transcript = new TranscriptResponse();
+        transcript.setText("Hello Hi there");
+
+        TranscriptFile file = store.write("job-1", out -> TranscriptFormatter.write(transcript, "Alice", "Bob", out));
+
+        assertEquals("Hello Hi there", file.readText());
+    }
+
+    @Test
+    void testFailedWriteLeavesNoFile() throws IOException {
+        TranscriptStore store = new TranscriptStore(directory, Duration.ofDays(1));
+
+        assertThrows(IOException.class, () -> store.write("job-1", out -> {
+            out.write("partial");
+            throw new IOException("disk full");
+        }));
+
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testDeletesExpiredTranscripts() throws IOException {
+        Path expired = Files.writeString(directory.resolve("old.txt"), "old");
+        Files.setLastModifiedTime(expired, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        TranscriptStore store = new TranscriptStore(directory, Duration.ofDays(1));
+
+        store.write("job-1", out -> out.write("new"));
+
+        assertFalse(Files.exists(expired));
+        assertTrue(Files.exists(directory.resolve("job-1.txt")));
+    }
+
+    private static TranscriptResponse.Utterance utterance(String speaker, String text) {
+        TranscriptResponse.Utterance utterance = new TranscriptResponse.Utterance();
+        utterance.setSpeaker(speaker);
+        utterance.setText(text);
+        return utterance;
+    }
+}
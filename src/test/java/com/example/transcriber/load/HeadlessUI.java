@@ -0,0 +1,46 @@
+package com.example.transcriber.load;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.Command;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A UI without a browser or session: {@link #access} runs the command at once while
+ * holding the UI's lock, as the session lock would, and wakes whoever waits in {@link #await}.
+ */
+class HeadlessUI extends UI {
+
+    @Override
+    public synchronized Future<Void> access(Command command) {
+        UI previous = UI.getCurrent();
+        UI.setCurrent(this);
+        try {
+            command.execute();
+        } finally {
+            UI.setCurrent(previous);
+            notifyAll();
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Wait until the condition, checked under the UI's lock, holds
+     *
+     * @return false if it still does not after the timeout
+     */
+    synchronized boolean await(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(Math.max(1, remaining / 1_000_000));
+        }
+        return true;
+    }
+}
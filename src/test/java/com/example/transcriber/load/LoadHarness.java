@@ -0,0 +1,471 @@
+package com.example.transcriber.load;
+
+import com.example.transcriber.config.TranscriberProperties;
+import com.example.transcriber.export.ExportFormat;
+import com.example.transcriber.export.TranscriptExporter;
+import com.example.transcriber.job.JobStore;
+import com.example.transcriber.service.AdmissionController;
+import com.example.transcriber.service.HttpClientFactory;
+import com.example.transcriber.service.TranscriptionExecutor;
+import com.example.transcriber.service.TranscriptionMetrics;
+import com.example.transcriber.service.TranscriptionService;
+import com.example.transcriber.simulator.AssemblyAiSimulator;
+import com.example.transcriber.upload.UploadBudget;
+import com.example.transcriber.view.TranscriberView;
+import com.example.transcriber.web.TranscriptDownloadController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.html.Anchor;
+import com.vaadin.flow.component.html.Paragraph;
+import com.vaadin.flow.component.upload.FinishedEvent;
+import com.vaadin.flow.component.upload.StartedEvent;
+import com.vaadin.flow.component.upload.SucceededEvent;
+import com.vaadin.flow.component.upload.Upload;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives simulated users through sign-in, upload, transcription and download on one node
+ * talking to the {@link AssemblyAiSimulator}, and reports what that cost.
+ *
+ * Each user gets the real {@link TranscriberView} on a {@link HeadlessUI}, with an OIDC
+ * principal as Google sign-in would leave it, so uploads go through the configured receiver,
+ * progress through {@code UI.access} and downloads through {@link TranscriptDownloadController},
+ * as with a browser; only Vaadin's and Tomcat's HTTP handling is left out. All users sign in
+ * first, which measures the heap each open view holds; then they all upload, transcribe and
+ * download at once, spread over the ramp-up. Uploads are streamed from a generator, never held
+ * whole, so the harness itself adds nothing to the heap the report shows.
+ *
+ * Run it with {@code mvn -Pload test-compile exec:exec}, see README-Testing.md.
+ */
+@Slf4j
+public class LoadHarness {
+
+    static final String LOGIN = "login";
+    static final String UPLOAD = "upload";
+    static final String TRANSCRIBE = "transcribe";
+    static final String DOWNLOAD = "download";
+
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    @Data
+    public static class Settings {
+
+        /** Simulated users, each running one job */
+        private int users = 20;
+
+        /** Time over which the users start each stage */
+        private Duration rampUp = Duration.ofSeconds(5);
+
+        /** Size of every user's recording */
+        private DataSize uploadSize = DataSize.ofMegabytes(5);
+
+        /** Longest a user waits for their transcript */
+        private Duration timeout = Duration.ofMinutes(10);
+
+        /** Name of the run in the report, e.g. the release */
+        private String label = "local";
+
+        /** Where the JSON report is written */
+        private String reportDirectory = "target/load-reports";
+
+        /** An earlier report to compare with */
+        private String baseline;
+    }
+
+    private record Session(String owner, Authentication authentication, HeadlessUI ui, TranscriberView view) {
+    }
+
+    private final Settings settings;
+    private final TranscriberProperties properties;
+    private final AssemblyAiSimulator.Settings simulatorSettings;
+    private final Map<String, Queue<Long>> latencies = new LinkedHashMap<>();
+    private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+
+    /**
+     * @param properties the node's settings; the API base URL is replaced with the simulator's
+     */
+    public LoadHarness(Settings settings, TranscriberProperties properties, AssemblyAiSimulator.Settings simulatorSettings) {
+        this.settings = settings;
+        this.properties = properties;
+        this.simulatorSettings = simulatorSettings;
+        for (String phase : List.of(LOGIN, UPLOAD, TRANSCRIBE, DOWNLOAD)) {
+            latencies.put(phase, new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    public LoadReport run() throws Exception {
+        String startedAt = Instant.now().toString();
+        try (AssemblyAiSimulator simulator = new AssemblyAiSimulator(simulatorSettings).start();
+             TranscriptionExecutor executor = TranscriptionExecutor.create(properties.getExecutor().getMode(),
+                     properties.getExecutor().getMaxThreads(), properties.getExecutor().getQueueCapacity())) {
+            properties.getApi().setBaseUrl(simulator.baseUrl());
+            OkHttpClient httpClient = HttpClientFactory.create(properties);
+            JobStore jobStore = JobStore.inMemory();
+            TranscriptionService service = new TranscriptionService("load-test-key", simulator.baseUrl(), executor,
+                    properties, jobStore, new AdmissionController(properties.getAdmission()), httpClient,
+                    new TranscriptionMetrics());
+            UploadBudget uploadBudget = new UploadBudget(properties);
+            TranscriptDownloadController downloads = new TranscriptDownloadController(jobStore,
+                    new TranscriptExporter(properties.getTranscripts()));
+
+            List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .toList();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+            long heapBefore = heapAfterGc();
+            long started = System.nanoTime();
+
+            try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Session> sessions = stage(users, user -> signIn(user, service, uploadBudget));
+                long sessionBytes = (heapAfterGc() - heapBefore) / settings.getUsers();
+                log.info("{} users signed in, {} bytes of heap each", sessions.size(), sessionBytes);
+
+                stage(users, user -> {
+                    Session session = sessions.get(user);
+                    if (session != null && upload(session, user)) {
+                        String jobId = transcribe(session);
+                        if (jobId != null) {
+                            download(session, jobId, downloads);
+                        }
+                    }
+                    return null;
+                });
+                long duration = System.nanoTime() - started;
+                long sessionBytesAfterRun = (heapAfterGc() - heapBefore) / settings.getUsers();
+
+                long heapPeak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+                LoadReport report = new LoadReport(settings.getLabel(), startedAt, settings.getUsers(),
+                        settings.getUploadSize().toBytes(), properties.getUpload().getMode().name(),
+                        TimeUnit.NANOSECONDS.toMillis(duration), LoadReport.phases(latencies, failures), heapPeak,
+                        ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax(), sessionBytes,
+                        sessionBytesAfterRun, ManagementFactory.getThreadMXBean().getPeakThreadCount());
+                // Keep the views reachable until the last measurement
+                log.debug("Finished {} sessions", sessions.size());
+                return report;
+            } finally {
+                service.close();
+                httpClient.dispatcher().executorService().shutdown();
+                httpClient.connectionPool().evictAll();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface UserTask<T> {
+        T run(int user) throws Exception;
+    }
+
+    /**
+     * Run the task for every user, starting them evenly over the ramp-up, and wait for all
+     */
+    private <T> List<T> stage(ExecutorService users, UserTask<T> task) throws InterruptedException {
+        long stageStart = System.nanoTime();
+        List<Future<T>> futures = new ArrayList<>();
+        for (int user = 0; user < settings.getUsers(); user++) {
+            long offset = settings.getRampUp().toNanos() * user / settings.getUsers();
+            int index = user;
+            futures.add(users.submit(() -> {
+                long delay = stageStart + offset - System.nanoTime();
+                if (delay > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+                return task.run(index);
+            }));
+        }
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (Exception e) {
+                log.warn("Simulated user failed", e);
+                results.add(null);
+            }
+        }
+        return results;
+    }
+
+    private Session signIn(int user, TranscriptionService service, UploadBudget uploadBudget) {
+        String owner = "load-user-" + user;
+        long start = System.nanoTime();
+        try {
+            Authentication authentication = authentication(owner);
+            HeadlessUI ui = new HeadlessUI();
+            TranscriberView[] view = new TranscriberView[1];
+            withUser(authentication, () -> ui.access(() -> {
+                view[0] = new TranscriberView(service, properties, uploadBudget);
+                ui.add(view[0]);
+            }));
+            record(LOGIN, start);
+            return new Session(owner, authentication, ui, view[0]);
+        } catch (RuntimeException e) {
+            fail(LOGIN, owner, e);
+            return null;
+        }
+    }
+
+    /**
+     * Send the recording through the view's own upload receiver
+     */
+    private boolean upload(Session session, int user) {
+        Upload upload = field(session.view(), "upload");
+        long length = settings.getUploadSize().toBytes();
+        String fileName = session.owner() + ".mp3";
+        long start = System.nanoTime();
+        try {
+            OutputStream[] out = new OutputStream[1];
+            withUser(session.authentication(), () -> session.ui().access(() -> {
+                ComponentUtil.fireEvent(upload, new StartedEvent(upload, fileName, "audio/mpeg", length));
+                out[0] = upload.getReceiver().receiveUpload(fileName, "audio/mpeg");
+            }));
+            try (OutputStream stream = out[0]) {
+                writeRecording(stream, user, length);
+            }
+            withUser(session.authentication(), () -> session.ui().access(() -> {
+                ComponentUtil.fireEvent(upload, new SucceededEvent(upload, fileName, "audio/mpeg", length));
+                ComponentUtil.fireEvent(upload, new FinishedEvent(upload, fileName, "audio/mpeg", length));
+            }));
+            record(UPLOAD, start);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            fail(UPLOAD, session.owner(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Press the button and wait for the download link
+     *
+     * @return the job's ID, or null if it failed
+     */
+    private String transcribe(Session session) throws InterruptedException {
+        Button button = field(session.view(), "transcribeButton");
+        Anchor link = field(session.view(), "downloadAnchor");
+        Paragraph status = field(session.view(), "statusLabel");
+        long start = System.nanoTime();
+        withUser(session.authentication(), () -> session.ui().access(button::click));
+        boolean finished = session.ui().await(() -> hasHref(link)
+                || status.getText().startsWith("Transcription failed"), settings.getTimeout());
+        if (!finished || !hasHref(link)) {
+            fail(TRANSCRIBE, session.owner(), new IllegalStateException(finished ? status.getText() : "timed out"));
+            return null;
+        }
+        record(TRANSCRIBE, start);
+        String href = link.getHref();
+        return href.substring(href.lastIndexOf('/') + 1);
+    }
+
+    private static boolean hasHref(Anchor link) {
+        return link.getHref() != null && !link.getHref().isEmpty();
+    }
+
+    private void download(Session session, String jobId, TranscriptDownloadController downloads) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/transcripts/" + jobId);
+        DiscardingResponse response = new DiscardingResponse();
+        long start = System.nanoTime();
+        try {
+            downloads.download(jobId, ExportFormat.TEXT.getParameter(), session.authentication(), request, response);
+            if (response.getStatus() != 200 || response.bytes == 0) {
+                throw new IllegalStateException("Download answered " + response.getStatus()
+                        + " with " + response.bytes + " bytes");
+            }
+            record(DOWNLOAD, start);
+        } catch (IOException | RuntimeException e) {
+            fail(DOWNLOAD, session.owner(), e);
+        }
+    }
+
+    /**
+     * Silence with the user's number at the start, so the content hash cache does not
+     * answer one user with another's transcript
+     */
+    private static void writeRecording(OutputStream out, int user, long length) throws IOException {
+        byte[] chunk = new byte[CHUNK_BYTES];
+        ByteBuffer.wrap(chunk).putInt(user + 1);
+        for (long written = 0; written < length; ) {
+            int size = (int) Math.min(chunk.length, length - written);
+            out.write(chunk, 0, size);
+            if (written == 0) {
+                ByteBuffer.wrap(chunk).putInt(0);
+            }
+            written += size;
+        }
+    }
+
+    private static Authentication authentication(String owner) {
+        Instant now = Instant.now();
+        OidcIdToken token = new OidcIdToken("load-test-token", now, now.plus(Duration.ofHours(1)),
+                Map.of("sub", owner, "name", "Load " + owner, "email", owner + "@example.com"));
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        return new OAuth2AuthenticationToken(new DefaultOidcUser(authorities, token), authorities, "google");
+    }
+
+    /**
+     * Run as the signed-in user, as Spring Security does for each of their requests
+     */
+    private static void withUser(Authentication authentication, Runnable action) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        try {
+            action.run();
+        } finally {
+            SecurityContextHolder.clearContext();
+            UI.setCurrent(null);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T field(TranscriberView view, String name) {
+        return (T) ReflectionTestUtils.getField(view, name);
+    }
+
+    private void record(String phase, long start) {
+        latencies.get(phase).add(System.nanoTime() - start);
+    }
+
+    private void fail(String phase, String owner, Exception e) {
+        failures.merge(phase, 1, Integer::sum);
+        log.warn("{} failed for {}: {}", phase, owner, e.toString());
+    }
+
+    private static long heapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Counts what the controller sends instead of keeping it
+     */
+    private static final class DiscardingResponse extends MockHttpServletResponse {
+        private long bytes;
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                }
+
+                @Override
+                public void write(int b) {
+                    bytes++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    bytes += len;
+                }
+            };
+        }
+    }
+
+    /**
+     * Write the report as JSON next to the earlier ones and print it
+     */
+    static Path writeReport(LoadReport report, Settings settings) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        LoadReport baseline = settings.getBaseline() != null
+                ? objectMapper.readValue(new File(settings.getBaseline()), LoadReport.class)
+                : null;
+        Path directory = Files.createDirectories(Path.of(settings.getReportDirectory()));
+        Path file = directory.resolve("load-" + report.label() + "-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        objectMapper.writeValue(file.toFile(), report);
+        System.out.println(report.format(baseline));
+        System.out.println("Report written to " + file);
+        return file;
+    }
+
+    /**
+     * Settings are given as {@code --name=value}: the harness's own ({@code --users=200}),
+     * the node's with their {@code transcriber.} prefix ({@code --transcriber.upload.mode=spool})
+     * and the simulator's with a {@code simulator.} prefix ({@code --simulator.queue-delay=10s}).
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, equals);
+            boolean prefixed = name.startsWith("transcriber.") || name.startsWith("simulator.");
+            values.put(prefixed ? name : "load." + name, arg.substring(equals + 1));
+        }
+
+        Path workDirectory = Files.createTempDirectory("transcriber-load");
+        TranscriberProperties properties = new TranscriberProperties();
+        properties.getTranscripts().setDirectory(workDirectory.resolve("transcripts").toString());
+        properties.getUpload().setSpoolDirectory(workDirectory.resolve("uploads").toString());
+
+        Binder binder = new Binder(new MapConfigurationPropertySource(values));
+        Settings settings = binder.bindOrCreate("load", Bindable.of(Settings.class));
+        binder.bind("transcriber", Bindable.ofInstance(properties));
+        AssemblyAiSimulator.Settings simulatorSettings = binder.bindOrCreate("simulator",
+                Bindable.of(AssemblyAiSimulator.Settings.class));
+
+        try {
+            writeReport(new LoadHarness(settings, properties, simulatorSettings).run(), settings);
+        } finally {
+            FileSystemUtils.deleteRecursively(workDirectory);
+        }
+        System.exit(0);
+    }
+}
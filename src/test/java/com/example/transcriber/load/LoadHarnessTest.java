@@ -0,0 +1,83 @@
+package com.example.transcriber.load;
+
+import com.example.transcriber.config.TranscriberProperties;
+import com.example.transcriber.simulator.AssemblyAiSimulator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadHarnessTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEveryUserGoesThroughEveryPhase() throws Exception {
+        LoadReport report = new LoadHarness(settings(), properties(TranscriberProperties.Upload.Mode.STREAM),
+                simulator()).run();
+
+        assertEquals(3, report.users());
+        assertEquals("STREAM", report.uploadMode());
+        for (String phase : new String[] {LoadHarness.LOGIN, LoadHarness.UPLOAD, LoadHarness.TRANSCRIBE, LoadHarness.DOWNLOAD}) {
+            LoadReport.Phase measured = report.phases().get(phase);
+            assertEquals(3, measured.count(), phase);
+            assertEquals(0, measured.failures(), phase);
+            assertTrue(measured.p50() <= measured.p99() && measured.p99() <= measured.max(), phase);
+        }
+        assertTrue(report.heapPeakBytes() > 0);
+        assertTrue(report.threadPeak() > 0);
+    }
+
+    @Test
+    void testSpooledUploadsAndReportAgainstBaseline() throws Exception {
+        LoadHarness.Settings settings = settings();
+        LoadReport report = new LoadHarness(settings, properties(TranscriberProperties.Upload.Mode.SPOOL),
+                simulator()).run();
+        assertEquals(3, report.phases().get(LoadHarness.DOWNLOAD).count());
+
+        Path written = LoadHarness.writeReport(report, settings);
+        LoadReport read = new ObjectMapper().readValue(written.toFile(), LoadReport.class);
+        assertEquals(report, read);
+
+        settings.setBaseline(written.toString());
+        String table = report.format(read);
+        assertTrue(table.contains("p99 +0.0%"), table);
+        assertTrue(table.startsWith("Load run 'test': 3 users, SPOOL uploads of 64.0 KB"), table);
+    }
+
+    private LoadHarness.Settings settings() {
+        LoadHarness.Settings settings = new LoadHarness.Settings();
+        settings.setUsers(3);
+        settings.setRampUp(Duration.ZERO);
+        settings.setUploadSize(DataSize.ofKilobytes(64));
+        settings.setTimeout(Duration.ofSeconds(20));
+        settings.setLabel("test");
+        settings.setReportDirectory(directory.resolve("reports").toString());
+        return settings;
+    }
+
+    private TranscriberProperties properties(TranscriberProperties.Upload.Mode mode) {
+        TranscriberProperties properties = new TranscriberProperties();
+        properties.getUpload().setMode(mode);
+        properties.getUpload().setSpoolDirectory(directory.resolve("uploads").toString());
+        properties.getTranscripts().setDirectory(directory.resolve("transcripts").toString());
+        properties.getPolling().setMinInterval(Duration.ofMillis(50));
+        properties.getPolling().setBaseLatency(Duration.ZERO);
+        properties.getPolling().setInitialSecondsPerAudioMinute(0);
+        properties.getHttp().setWarmConnections(0);
+        return properties;
+    }
+
+    private AssemblyAiSimulator.Settings simulator() {
+        AssemblyAiSimulator.Settings settings = new AssemblyAiSimulator.Settings();
+        settings.setQueueDelay(Duration.ofMillis(50));
+        settings.setProcessingPerAudioMinute(Duration.ofMillis(100));
+        return settings;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.transcriber.load;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What one load run measured, written as JSON so runs of different releases can be compared
+ *
+ * @param heapPeakBytes        highest heap use during the run, summed over the heap's memory pools
+ * @param sessionBytes         heap retained per signed-in user with the view open, measured after a GC
+ * @param sessionBytesAfterRun the same once every user's transcript is done
+ * @param threadPeak           most live platform threads at once; virtual threads are not counted
+ */
+public record LoadReport(String label, String startedAt, int users, long uploadBytes, String uploadMode,
+                         long durationMillis, Map<String, Phase> phases, long heapPeakBytes, long heapMaxBytes,
+                         long sessionBytes, long sessionBytesAfterRun, int threadPeak) {
+
+    /**
+     * Latencies of one phase over all users, in milliseconds
+     */
+    public record Phase(int count, int failures, double p50, double p99, double max) {
+
+        static Phase of(Collection<Long> nanos, int failures) {
+            long[] sorted = nanos.stream().mapToLong(Long::longValue).sorted().toArray();
+            return new Phase(sorted.length, failures, millis(percentile(sorted, 0.50)),
+                    millis(percentile(sorted, 0.99)), millis(sorted.length > 0 ? sorted[sorted.length - 1] : 0));
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            // Nearest rank
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        private static double millis(long nanos) {
+            return Math.round(nanos / 10_000.0) / 100.0;
+        }
+    }
+
+    /**
+     * A table of the run, with the change against an earlier run if one is given
+     */
+    public String format(LoadReport baseline) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Load run '%s': %d users, %s uploads of %s, %.1f s%n", label, users, uploadMode,
+                bytes(uploadBytes), durationMillis / 1000.0));
+        out.append(String.format("%-12s %7s %8s %11s %11s %11s%n", "phase", "count", "failed", "p50 ms", "p99 ms", "max ms"));
+        phases.forEach((name, phase) -> {
+            out.append(String.format("%-12s %7d %8d %11.1f %11.1f %11.1f", name, phase.count(), phase.failures(),
+                    phase.p50(), phase.p99(), phase.max()));
+            Phase before = baseline != null ? baseline.phases().get(name) : null;
+            if (before != null) {
+                out.append(String.format("   p99 %s", change(before.p99(), phase.p99())));
+            }
+            out.append(System.lineSeparator());
+        });
+        out.append(String.format("heap peak    %s of %s%s%n", bytes(heapPeakBytes), bytes(heapMaxBytes),
+                baseline != null ? "   " + change(baseline.heapPeakBytes(), heapPeakBytes) : ""));
+        out.append(String.format("per session  %s open, %s after the run%s%n", bytes(sessionBytes),
+                bytes(sessionBytesAfterRun),
+                baseline != null ? "   " + change(baseline.sessionBytes(), sessionBytes) : ""));
+        out.append(String.format("thread peak  %d%s%n", threadPeak,
+                baseline != null ? "   " + change(baseline.threadPeak(), threadPeak) : ""));
+        return out.toString();
+    }
+
+    static Map<String, Phase> phases(Map<String, ? extends Collection<Long>> nanos, Map<String, Integer> failures) {
+        Map<String, Phase> phases = new LinkedHashMap<>();
+        nanos.forEach((name, values) -> phases.put(name, Phase.of(values, failures.getOrDefault(name, 0))));
+        return phases;
+    }
+
+    private static String change(double before, double after) {
+        if (before == 0) {
+            return "(new)";
+        }
+        return String.format("%+.1f%%", (after - before) * 100 / before);
+    }
+
+    private static String bytes(long bytes) {
+        String[] units = {"B", "KB", "MB", "GB"};
+        double value = bytes;
+        int unit = 0;
+        while (Math.abs(value) >= 1024 && unit < units.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return unit == 0 ? bytes + " B" : String.format("%.1f %s", value, units[unit]);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.transcriber.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptivePollScheduleTest {
+
+    private final AdaptivePollSchedule schedule = new AdaptivePollSchedule(
+        Duration.ofSeconds(1), Duration.ofSeconds(60), Duration.ofSeconds(3), 15, 0);
+
+    @Test
+    void testPollsAreSparseEarlyAndDenseNearExpectedFinish() {
+        Duration audio = Duration.ofMinutes(60);
+        Duration expected = schedule.expectedProcessingTime(audio);
+        assertEquals(Duration.ofSeconds(903), expected);
+
+        // Capped at the maximum interval early on
+        assertEquals(Duration.ofSeconds(60), schedule.firstDelay(audio));
+        // Half of the remaining time once it falls below the cap
+        assertEquals(Duration.ofSeconds(40), schedule.nextDelay(audio, expected.minusSeconds(80)));
+        // Down to the minimum interval right before the expected finish
+        assertEquals(Duration.ofSeconds(1), schedule.nextDelay(audio, expected.minusSeconds(1)));
+    }
+
+    @Test
+    void testOverdueTranscriptsBackOff() {
+        Duration audio = Duration.ofMinutes(60);
+        Duration expected = schedule.expectedProcessingTime(audio);
+
+        assertEquals(Duration.ofSeconds(1), schedule.nextDelay(audio, expected));
+        assertEquals(Duration.ofSeconds(30), schedule.nextDelay(audio, expected.plusSeconds(120)));
+        assertEquals(Duration.ofSeconds(60), schedule.nextDelay(audio, expected.plusHours(1)));
+    }
+
+    @Test
+    void testShortClipIsPolledSoonerThanTheOldFixedInterval() {
+        Duration firstDelay = schedule.firstDelay(Duration.ofSeconds(5));
+
+        assertTrue(firstDelay.compareTo(Duration.ofSeconds(3)) < 0, "First poll after " + firstDelay);
+    }
+
+    @Test
+    void testFarFewerPollsThanFixedInterval() {
+        Duration audio = Duration.ofMinutes(60);
+        Duration expected = schedule.expectedProcessingTime(audio);
+
+        int polls = 0;
+        Duration elapsed = schedule.firstDelay(audio);
+        while (elapsed.compareTo(expected) < 0) {
+            polls++;
+            elapsed = elapsed.plus(schedule.nextDelay(audio, elapsed));
+        }
+
+        long fixedIntervalPolls = expected.toSeconds() / 3;
+        assertTrue(polls * 10 <= fixedIntervalPolls, polls + " polls vs " + fixedIntervalPolls);
+    }
+
+    @Test
+    void testRollingAverageLearnsFromCompletedJobs() {
+        Duration audio = Duration.ofMinutes(10);
+
+        for (int i = 0; i < 30; i++) {
+            schedule.recordCompletion(audio, Duration.ofSeconds(3 + 60));
+        }
+
+        assertEquals(6.0, schedule.getSecondsPerAudioMinute(), 0.1);
+        assertEquals(Duration.ofSeconds(63).toSeconds(), schedule.expectedProcessingTime(audio).toSeconds(), 1);
+    }
+
+    @Test
+    void testJitterStaysWithinBounds() {
+        AdaptivePollSchedule jittered = new AdaptivePollSchedule(
+            Duration.ofSeconds(1), Duration.ofSeconds(60), Duration.ofSeconds(3), 15, 0.1);
+        Duration audio = Duration.ofMinutes(2);
+
+        for (int i = 0; i < 100; i++) {
+            long delay = jittered.firstDelay(audio).toMillis();
+            assertTrue(delay >= 14_850 && delay <= 18_150, "Delay " + delay);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.transcriber.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControllerTest {
+
+    @Test
+    void testEnforcesGlobalAndPerUserLimits() {
+        AdmissionController admission = new AdmissionController(3, 2, 10);
+
+        CompletableFuture<AdmissionController.Permit> alice1 = admission.admit("alice", position -> {});
+        CompletableFuture<AdmissionController.Permit> alice2 = admission.admit("alice", position -> {});
+        CompletableFuture<AdmissionController.Permit> alice3 = admission.admit("alice", position -> {});
+        CompletableFuture<AdmissionController.Permit> bob1 = admission.admit("bob", position -> {});
+        CompletableFuture<AdmissionController.Permit> carol1 = admission.admit("carol", position -> {});
+
+        assertTrue(alice1.isDone() && alice2.isDone() && bob1.isDone());
+        assertFalse(alice3.isDone(), "Alice is at her own limit");
+        assertFalse(carol1.isDone(), "All slots are taken");
+        assertEquals(3, admission.getRunning());
+        assertEquals(2, admission.getQueued());
+
+        // A slot freed by Bob cannot go to Alice, who still runs two jobs
+        bob1.join().release();
+        assertTrue(carol1.isDone());
+        assertFalse(alice3.isDone());
+
+        alice1.join().release();
+        assertTrue(alice3.isDone());
+        assertEquals(0, admission.getQueued());
+    }
+
+    @Test
+    void testServesUsersInTurn() {
+        AdmissionController admission = new AdmissionController(1, 1, 10);
+        AdmissionController.Permit running = admission.admit("alice", position -> {}).join();
+
+        List<String> order = new ArrayList<>();
+        for (String user : List.of("alice", "alice", "alice", "bob", "carol")) {
+            admission.admit(user, position -> {}).thenAccept(permit -> {
+                order.add(user);
+                permit.release();
+            });
+        }
+        running.release();
+
+        assertEquals(List.of("alice", "bob", "carol", "alice", "alice"), order);
+        assertEquals(0, admission.getRunning());
+    }
+
+    @Test
+    void testReportsQueuePositions() {
+        AdmissionController admission = new AdmissionController(1, 1, 10);
+        AdmissionController.Permit running = admission.admit("alice", position -> {}).join();
+
+        AtomicInteger alicePosition = new AtomicInteger();
+        AtomicInteger bobPosition = new AtomicInteger();
+        admission.admit("alice", alicePosition::set);
+        admission.admit("alice", position -> {});
+        admission.admit("bob", bobPosition::set);
+
+        assertEquals(1, alicePosition.get());
+        assertEquals(2, bobPosition.get(), "Bob is served before Alice's second waiting job");
+
+        running.release();
+        assertEquals(1, bobPosition.get());
+    }
+
+    @Test
+    void testRejectsBeyondPerUserQueueLimit() {
+        AdmissionController admission = new AdmissionController(1, 1, 1);
+        admission.admit("alice", position -> {});
+        admission.admit("alice", position -> {});
+
+        assertTrue(admission.admit("alice", position -> {}).isCompletedExceptionally());
+        assertFalse(admission.admit("bob", position -> {}).isCompletedExceptionally());
+    }
+
+    @Test
+    void testPublishesQueueMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionController admission = new AdmissionController(1, 1, 10);
+        admission.bindTo(registry);
+
+        AdmissionController.Permit running = admission.admit("alice", position -> {}).join();
+        admission.admit("bob", position -> {});
+        assertEquals(1.0, registry.get("transcriber.queue.depth").gauge().value());
+
+        running.release();
+        assertEquals(0.0, registry.get("transcriber.queue.depth").gauge().value());
+        assertEquals(2, registry.get("transcriber.queue.wait").timer().count());
+    }
+}
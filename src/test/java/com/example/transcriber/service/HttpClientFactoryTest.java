@@ -0,0 +1,75 @@
+package com.example.transcriber.service;
+
+import com.example.transcriber.config.TranscriberProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientFactoryTest {
+
+    private MockWebServer mockWebServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void testClientIsBuiltFromProperties() {
+        TranscriberProperties properties = new TranscriberProperties();
+        properties.getHttp().setMaxRequestsPerHost(32);
+        properties.getHttp().setHttp2(false);
+        properties.getHttp().setReadTimeout(Duration.ofSeconds(90));
+
+        OkHttpClient client = HttpClientFactory.create(properties);
+
+        assertEquals(32, client.dispatcher().getMaxRequestsPerHost());
+        assertEquals(List.of(Protocol.HTTP_1_1), client.protocols());
+        assertEquals(90_000, client.readTimeoutMillis());
+        assertTrue(client.interceptors().stream().anyMatch(RetryInterceptor.class::isInstance));
+    }
+
+    @Test
+    void testCallsAreTimedAndReuseTheConnection() throws IOException {
+        mockWebServer.enqueue(new MockResponse().setBody("first"));
+        mockWebServer.enqueue(new MockResponse().setBody("second"));
+        OkHttpClient client = HttpClientFactory.create(new TranscriberProperties());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HttpClientFactory.metrics(client).bindTo(registry);
+
+        for (int i = 0; i < 2; i++) {
+            try (Response response = client.newCall(new Request.Builder().url(mockWebServer.url("/v2")).build()).execute()) {
+                response.body().string();
+            }
+        }
+
+        assertEquals(1, registry.get("transcriber.http.connect").timer().count());
+        assertEquals(2, registry.get("transcriber.http.ttfb").timer().count());
+        assertEquals(1.0, registry.get("transcriber.http.connections.idle").gauge().value());
+        assertEquals(0.0, registry.get("transcriber.http.calls.running").gauge().value());
+    }
+
+    @Test
+    void testMetricsNeedAFactoryBuiltClient() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientFactory.metrics(new OkHttpClient()));
+    }
+}
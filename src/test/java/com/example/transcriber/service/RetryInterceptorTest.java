@@ -0,0 +1,148 @@
+package com.example.transcriber.service;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.BufferedSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryInterceptorTest {
+
+    private MockWebServer server;
+    private OkHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        RetryInterceptor interceptor = new RetryInterceptor(new TokenBucket(1000, 1000), 3,
+            Duration.ofMillis(10), Duration.ofMillis(50));
+        client = new OkHttpClient.Builder().addInterceptor(interceptor).build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void testRetriesRateLimitedSubmitHonouringRetryAfter() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(429).addHeader("Retry-After", "1"));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{\"id\": \"transcript-id\"}"));
+
+        long start = System.nanoTime();
+        try (Response response = client.newCall(post("/v2/transcript")).execute()) {
+            assertEquals(200, response.code());
+        }
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 900, "Waited for Retry-After");
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void testRetriesPollAfterGatewayErrors() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(new MockResponse().setResponseCode(504));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("{\"status\": \"processing\"}"));
+
+        Request poll = new Request.Builder().url(server.url("/v2/transcript/id")).get().build();
+        try (Response response = client.newCall(poll).execute()) {
+            assertEquals(200, response.code());
+            assertEquals("{\"status\": \"processing\"}", response.body().string());
+        }
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void testDoesNotRepeatSubmitWhoseOutcomeIsUnknown() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(504));
+
+        try (Response response = client.newCall(post("/v2/transcript")).execute()) {
+            assertEquals(504, response.code());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void testDoesNotRetryOneShotBody() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        RequestBody oneShot = new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return MediaType.parse("audio/mpeg");
+            }
+
+            @Override
+            public boolean isOneShot() {
+                return true;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                sink.writeUtf8("audio");
+            }
+        };
+        Request upload = new Request.Builder().url(server.url("/v2/upload")).post(oneShot).build();
+        try (Response response = client.newCall(upload).execute()) {
+            assertEquals(503, response.code());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+
+        try (Response response = client.newCall(post("/v2/transcript")).execute()) {
+            assertEquals(503, response.code());
+        }
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void testParsesRetryAfterDate() {
+        Response response = new Response.Builder()
+            .request(new Request.Builder().url("http://localhost/").build())
+            .protocol(okhttp3.Protocol.HTTP_1_1)
+            .code(429)
+            .message("Too Many Requests")
+            .header("Retry-After", "Wed, 21 Oct 2015 07:28:00 GMT")
+            .build();
+
+        assertEquals(Duration.ZERO, RetryInterceptor.retryAfter(response));
+    }
+
+    @Test
+    void testTokenBucketSpacesRequestsAfterBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2);
+
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        long wait = bucket.reserve();
+        assertTrue(wait > 50_000_000L && wait <= 100_000_000L, "Third request waits about 100 ms: " + wait);
+
+        bucket.pause(Duration.ofSeconds(2));
+        assertTrue(bucket.reserve() >= 1_900_000_000L);
+    }
+
+    private Request post(String path) {
+        return new Request.Builder()
+            .url(server.url(path))
+            .post(RequestBody.create("{}", MediaType.parse("application/json")))
+            .build();
+    }
+}
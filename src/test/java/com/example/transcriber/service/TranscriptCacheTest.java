@@ -0,0 +1,84 @@
+package com.example.transcriber.service;
+
+import com.example.transcriber.dto.CompactTranscript;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranscriptCacheTest {
+
+    @Test
+    void testCoalescesIdenticalJobsAndCachesResult() throws Exception {
+        TranscriptCache cache = new TranscriptCache(10, Duration.ofHours(1));
+        CompletableFuture<CompactTranscript> job = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+        List<String> followerProgress = new ArrayList<>();
+
+        CompletableFuture<CompactTranscript> first = cache.coalesce("hash", progress -> {}, progress -> {
+            started.incrementAndGet();
+            progress.accept("Processing transcription...");
+            return job;
+        });
+        CompletableFuture<CompactTranscript> second = cache.coalesce("hash", followerProgress::add, progress -> {
+            started.incrementAndGet();
+            return job;
+        });
+
+        CompactTranscript transcript = new CompactTranscript.Builder().id("transcript-id").build();
+        job.complete(transcript);
+
+        assertEquals(1, started.get());
+        assertSame(transcript, first.get());
+        assertSame(transcript, second.get());
+        assertSame(transcript, cache.getTranscript("hash"));
+        assertEquals(1, followerProgress.size());
+    }
+
+    @Test
+    void testFailedJobIsNotCached() {
+        TranscriptCache cache = new TranscriptCache(10, Duration.ofHours(1));
+
+        CompletableFuture<CompactTranscript> result = cache.coalesce("hash", progress -> {},
+            progress -> CompletableFuture.failedFuture(new IOException("upload failed")));
+
+        assertTrue(result.isCompletedExceptionally());
+        assertNull(cache.getTranscript("hash"));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedAndExpiredEntries() throws Exception {
+        TranscriptCache cache = new TranscriptCache(2, Duration.ofHours(1));
+        cache.putUploadUrl("a", "url-a");
+        cache.putUploadUrl("b", "url-b");
+        cache.getUploadUrl("a");
+        cache.putUploadUrl("c", "url-c");
+
+        assertEquals("url-a", cache.getUploadUrl("a"));
+        assertNull(cache.getUploadUrl("b"));
+
+        TranscriptCache expiring = new TranscriptCache(2, Duration.ofMillis(1));
+        expiring.putUploadUrl("a", "url-a");
+        Thread.sleep(5);
+        assertNull(expiring.getUploadUrl("a"));
+    }
+
+    @Test
+    void testHashingOutputStreamComputesSha256() throws IOException {
+        HashingOutputStream out = new HashingOutputStream(new ByteArrayOutputStream());
+        out.write("abc".getBytes(StandardCharsets.US_ASCII));
+        assertNull(out.getContentHash());
+
+        out.close();
+
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", out.getContentHash());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.transcriber.service;
+
+import com.example.transcriber.dto.CompactTranscript;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranscriptMergerTest {
+
+    @Test
+    void testOverlapIsKeptOnceAndSpeakersKeepTheirLabels() {
+        // The cut is at 60 s, in a pause within A's turn: the first part's audio ends there,
+        // the second part's starts 10 s earlier, hears that turn to its end and has A and B swapped
+        CompactTranscript first = new CompactTranscript.Builder().id("t1").status("completed")
+                .addUtterance("A", "Hello", 0, 40_000, 0.9f)
+                .addUtterance("B", "Hi there", 41_000, 55_000, 0.9f)
+                .addUtterance("A", "So what we", 55_500, 59_400, 0.9f)
+                .build();
+        CompactTranscript second = new CompactTranscript.Builder().id("t2").status("completed")
+                .addUtterance("A", "there", 50_000, 55_000, 0.8f)
+                .addUtterance("B", "So what we did was this", 55_500, 65_000, 0.8f)
+                .addUtterance("A", "Bye", 66_000, 70_000, 0.8f)
+                .build();
+
+        CompactTranscript merged = TranscriptMerger.merge(List.of(first, second), new long[]{60_000}, 10_000, 70.0);
+
+        assertEquals("t1+t2", merged.getId());
+        assertEquals("completed", merged.getStatus());
+        assertEquals(70.0, merged.getAudioDuration());
+        assertEquals(4, merged.size());
+        // Nothing said after the cut is lost, and nothing in the overlap is repeated
+        assertEquals("Hello Hi there So what we did was this Bye", merged.getText());
+        assertEquals("A", merged.speaker(2));
+        assertEquals(55_500, merged.start(2));
+        assertEquals(65_000, merged.end(2));
+        assertEquals("B", merged.speaker(3));
+        assertEquals(66_000, merged.start(3));
+        assertEquals(0.8f, merged.confidence(3));
+    }
+
+    @Test
+    void testPartWithNothingAfterTheCutLeavesThePreviousPartWhole() {
+        CompactTranscript first = new CompactTranscript.Builder().id("t1").status("completed")
+                .addUtterance("A", "One", 0, 9_000, 0.9f)
+                .addUtterance("A", "Two", 9_500, 10_000, 0.9f)
+                .build();
+        CompactTranscript second = new CompactTranscript.Builder().id("t2").status("completed")
+                .addUtterance("A", "Two", 9_500, 10_000, 0.9f)
+                .build();
+
+        CompactTranscript merged = TranscriptMerger.merge(List.of(first, second), new long[]{10_000}, 5_000, 12.0);
+
+        assertEquals("One Two", merged.getText());
+    }
+
+    @Test
+    void testNewSpeakerGetsAnUnusedLabel() {
+        CompactTranscript first = new CompactTranscript.Builder().id("t1").status("completed")
+                .addUtterance("A", "One", 0, 10_000, 0.9f)
+                .build();
+        // A new voice appears after the cut and is labelled A by the second part too
+        CompactTranscript second = new CompactTranscript.Builder().id("t2").status("completed")
+                .addUtterance("B", "One", 0, 10_000, 0.9f)
+                .addUtterance("A", "Two", 12_000, 20_000, 0.9f)
+                .build();
+
+        CompactTranscript merged = TranscriptMerger.merge(List.of(first, second), new long[]{11_000}, 11_000, 20.0);
+
+        assertEquals(2, merged.size());
+        assertEquals("A", merged.speaker(0));
+        assertEquals("B", merged.speaker(1));
+    }
+
+    @Test
+    void testCutsMustMatchParts() {
+        CompactTranscript part = new CompactTranscript.Builder().id("t1").status("completed").build();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> TranscriptMerger.merge(List.of(part, part), new long[0], 0, null));
+    }
+}
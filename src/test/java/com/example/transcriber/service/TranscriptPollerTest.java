@@ -0,0 +1,128 @@
+package com.example.transcriber.service;
+
+import com.example.transcriber.dto.CompactTranscript;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranscriptPollerTest {
+
+    private MockWebServer mockWebServer;
+    private TranscriptPoller poller;
+    private final Map<String, AtomicInteger> pollsPerTranscript = new ConcurrentHashMap<>();
+    private String baseUrl;
+    private AdaptivePollSchedule schedule;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        // Each transcript reports "processing" twice before reaching its final status;
+        // a "busy" one is first turned away with a 503
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String id = request.getPath().substring(request.getPath().lastIndexOf('/') + 1);
+                int polls = pollsPerTranscript.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+                if (polls == 1 && id.startsWith("busy")) {
+                    return new MockResponse().setResponseCode(503).addHeader("Retry-After", "1");
+                }
+                String status = polls < 3 ? "processing" : id.startsWith("bad") ? "error" : "completed";
+                return new MockResponse()
+                    .setResponseCode(200)
+                    .setBody("{\"id\": \"" + id + "\", \"status\": \"" + status + "\", \"error\": \"Audio too short\"}")
+                    .addHeader("Content-Type", "application/json");
+            }
+        });
+        mockWebServer.start();
+
+        String baseUrl = mockWebServer.url("/v2").toString().replaceAll("/$", "");
+        AdaptivePollSchedule schedule = new AdaptivePollSchedule(
+            Duration.ofMillis(10), Duration.ofMillis(10), Duration.ZERO, 15, 0);
+        poller = new TranscriptPoller(new OkHttpClient(), baseUrl, "test-api-key", new ObjectMapper(), schedule);
+        this.baseUrl = baseUrl;
+        this.schedule = schedule;
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        poller.close();
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void testManyTranscriptsShareOnePoller() throws Exception {
+        List<CompletableFuture<CompactTranscript>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(poller.await("transcript-" + i, status -> {}));
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals("completed", futures.get(i).get().getStatus());
+            assertEquals(3, pollsPerTranscript.get("transcript-" + i).get());
+        }
+        assertEquals(0, poller.getPendingCount());
+    }
+
+    @Test
+    void testErrorStatusFailsTheTranscript() {
+        List<String> statuses = new ArrayList<>();
+        CompletableFuture<CompactTranscript> future = poller.await("bad-transcript", statuses::add);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertEquals("Transcription failed: Audio too short", exception.getCause().getMessage());
+        assertEquals(List.of("Status: processing", "Status: processing", "Status: error"), statuses);
+    }
+
+    @Test
+    void testRetryAfterDoesNotHoldAConnectionSlot() throws Exception {
+        // One request at a time, so a retry waiting inside the dispatcher would hold up every other poll
+        OkHttpClient client = new OkHttpClient.Builder()
+            .addInterceptor(new RetryInterceptor(new TokenBucket(1000, 1000), 3, Duration.ofMillis(10), Duration.ofMillis(50)))
+            .build();
+        client.dispatcher().setMaxRequestsPerHost(1);
+        poller.close();
+        poller = new TranscriptPoller(client, baseUrl, "test-api-key", new ObjectMapper(), schedule);
+
+        long start = System.nanoTime();
+        CompletableFuture<CompactTranscript> busy = poller.await("busy-transcript", status -> {});
+        Thread.sleep(100);
+        CompletableFuture<CompactTranscript> other = poller.await("transcript-other", status -> {});
+
+        assertEquals("completed", other.get(10, TimeUnit.SECONDS).getStatus());
+        assertFalse(busy.isDone(), "Still waiting out Retry-After");
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 900);
+        assertEquals("completed", busy.get(10, TimeUnit.SECONDS).getStatus());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 1000, "Waited for Retry-After");
+        assertEquals(3, pollsPerTranscript.get("busy-transcript").get());
+    }
+
+    @Test
+    void testCloseFailsPendingTranscripts() {
+        CompletableFuture<CompactTranscript> future = poller.await("transcript-closed", status -> {});
+
+        poller.close();
+
+        assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+    }
+}
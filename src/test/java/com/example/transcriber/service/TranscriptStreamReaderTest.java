@@ -0,0 +1,89 @@
+package com.example.transcriber.service;
+
+import com.example.transcriber.dto.TranscriptResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranscriptStreamReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testReadsCompletedTranscriptSkippingWords() throws IOException {
+        String json = """
+            {
+                "id": "transcript-id",
+                "words": [{"text": "Hello", "start": 0, "end": 500}],
+                "utterances": [
+                    {"speaker": "A", "text": "Hello", "start": 0, "end": 500, "confidence": 0.9,
+                     "words": [{"text": "Hello", "start": 0, "end": 500}]},
+                    {"speaker": "B", "text": "Hi", "start": 600, "end": 900, "confidence": 0.8, "words": []}
+                ],
+                "text": "Hello Hi",
+                "audio_duration": 12.5,
+                "language_model": {"nested": [1, 2, 3]},
+                "status": "completed"
+            }
+            """;
+
+        TranscriptResponse response = TranscriptStreamReader.read(objectMapper, stream(json));
+
+        assertEquals("transcript-id", response.getId());
+        assertEquals("completed", response.getStatus());
+        assertEquals("Hello Hi", response.getText());
+        assertEquals(12.5, response.getAudioDuration());
+        assertEquals(2, response.getUtterances().size());
+        assertEquals("B", response.getUtterances().get(1).getSpeaker());
+        assertEquals(600, response.getUtterances().get(1).getStart());
+    }
+
+    @Test
+    void testEmitsUtterancesAsTheyAreParsed() throws IOException {
+        String json = """
+            {"status": "completed", "utterances": [
+                {"speaker": "A", "text": "one"}, {"speaker": "B", "text": "two"}, {"speaker": "A", "text": "three"}
+            ]}
+            """;
+        List<String> seen = new ArrayList<>();
+
+        TranscriptResponse response = TranscriptStreamReader.read(objectMapper, stream(json),
+            utterance -> seen.add(utterance.getText()));
+
+        assertEquals(List.of("one", "two", "three"), seen);
+        assertNull(response.getUtterances());
+    }
+
+    @Test
+    void testReadsStatusOfPendingTranscript() throws IOException {
+        String json = """
+            {"id": "transcript-id", "status": "error", "error": "Download failed",
+             "text": null, "utterances": null, "audio_duration": null}
+            """;
+
+        TranscriptResponse response = TranscriptStreamReader.read(objectMapper, stream(json));
+
+        assertEquals("error", response.getStatus());
+        assertEquals("Download failed", response.getError());
+        assertNull(response.getText());
+        assertNull(response.getUtterances());
+        assertNull(response.getAudioDuration());
+    }
+
+    @Test
+    void testRejectsNonObjectBody() {
+        assertThrows(IOException.class, () -> TranscriptStreamReader.read(objectMapper, stream("[]")));
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
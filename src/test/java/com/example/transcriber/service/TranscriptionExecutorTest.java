@@ -0,0 +1,58 @@
+package com.example.transcriber.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranscriptionExecutorTest {
+
+    @Test
+    void testVirtualThreadPerJob() throws Exception {
+        try (TranscriptionExecutor executor = TranscriptionExecutor.virtualThreads()) {
+            Thread jobThread = CompletableFuture.supplyAsync(Thread::currentThread, executor).get(5, TimeUnit.SECONDS);
+
+            assertTrue(jobThread.isVirtual());
+            assertTrue(jobThread.getName().startsWith("transcription-"));
+        }
+    }
+
+    @Test
+    void testPlatformModeTracksActiveAndQueuedJobs() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (TranscriptionExecutor executor = TranscriptionExecutor.platformThreads(1, 1)) {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            executor.bindTo(registry);
+
+            executor.execute(() -> awaitQuietly(release));
+            executor.execute(() -> awaitQuietly(release));
+
+            await().atMost(5, TimeUnit.SECONDS).until(() -> executor.getActiveJobs() == 1);
+            assertEquals(1, executor.getQueuedJobs());
+            assertEquals(1.0, registry.get("transcriber.jobs.active").gauge().value());
+            assertEquals(1.0, registry.get("transcriber.jobs.queued").gauge().value());
+
+            // Pool and queue are both full
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+            assertEquals(1, executor.getQueuedJobs());
+
+            release.countDown();
+            await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> executor.getActiveJobs() == 0 && executor.getQueuedJobs() == 0);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
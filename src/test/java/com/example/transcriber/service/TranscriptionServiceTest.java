@@ -1,7 +1,19 @@
 package com.example.transcriber.service;
 
+import com.example.transcriber.config.TranscriberProperties;
 import com.example.transcriber.dto.TranscriptResponse;
+import com.example.transcriber.job.JobStore;
+import com.example.transcriber.job.TranscriptFile;
+import com.example.transcriber.job.TranscriptionJob;
+import com.example.transcriber.upload.StreamingUploadReceiver;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -14,10 +26,18 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -235,6 +255,541 @@ class TranscriptionServiceTest {
         assertTrue(result.contains("[Speaker 2]: Hello from Bob"));
     }
 
+    @Test
+    void testOpenUploadStream_SendsChunkedBody() throws Exception {
+        String uploadUrl = "https://upload.assemblyai.com/streamed-file-url";
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"upload_url\": \"" + uploadUrl + "\"}")
+            .addHeader("Content-Type", "application/json"));
+
+        // Larger than the in-flight buffer so the writer has to wait on the network
+        byte[] audio = new byte[1024 * 1024];
+        for (int i = 0; i < audio.length; i++) {
+            audio[i] = (byte) i;
+        }
+
+        StreamingUpload upload = transcriptionService.openUploadStream("audio/mpeg");
+        try (OutputStream out = upload.getOutputStream()) {
+            out.write(audio);
+        }
+
+        assertEquals(uploadUrl, upload.getUploadUrl().get(5, TimeUnit.SECONDS));
+
+        RecordedRequest uploadRequest = mockWebServer.takeRequest();
+        assertTrue(uploadRequest.getPath().endsWith("/upload"));
+        assertEquals("chunked", uploadRequest.getHeader("Transfer-Encoding"));
+        assertArrayEquals(audio, uploadRequest.getBody().readByteArray());
+    }
+
+    @Test
+    void testOpenUploadStream_RejectedUploadUnblocksWriter() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(401)
+            .setBody("Unauthorized"));
+
+        StreamingUpload upload = transcriptionService.openUploadStream("audio/mpeg");
+        upload.getOutputStream().close();
+
+        assertThrows(Exception.class, () -> upload.getUploadUrl().get(5, TimeUnit.SECONDS));
+        assertTrue(upload.isFailed());
+    }
+
+    @Test
+    void testStreamingReceiver_NewUploadAbortsPrevious() throws Exception {
+        StreamingUploadReceiver receiver = new StreamingUploadReceiver(transcriptionService);
+        receiver.receiveUpload("first.mp3", "audio/mpeg").write("partial audio".getBytes());
+        StreamingUpload first = receiver.getCurrentUpload();
+
+        receiver.receiveUpload("second.mp3", "audio/mpeg");
+
+        assertThrows(Exception.class, () -> first.getUploadUrl().get(5, TimeUnit.SECONDS));
+        assertNotSame(first, receiver.getCurrentUpload());
+        assertFalse(receiver.getCurrentUpload().isFailed());
+        receiver.abort();
+    }
+
+    @Test
+    void testTranscribeUpload_Success() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"upload_url\": \"https://upload.assemblyai.com/test-file-url\"}")
+            .addHeader("Content-Type", "application/json"));
+
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"id\": \"test-transcript-id\"}")
+            .addHeader("Content-Type", "application/json"));
+
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody(objectMapper.writeValueAsString(createTestTranscriptResponse()))
+            .addHeader("Content-Type", "application/json"));
+
+        StreamingUpload upload = transcriptionService.openUploadStream("audio/mpeg");
+        try (OutputStream out = upload.getOutputStream()) {
+            out.write("test audio content".getBytes());
+        }
+
+        String result = transcriptionService.transcribeUpload(null, upload, "Alice", "Bob", progress -> {})
+            .get(5, TimeUnit.SECONDS).readText();
+
+        assertTrue(result.contains("[Alice]: Hello from Alice"));
+        assertTrue(result.contains("[Bob]: Hello from Bob"));
+    }
+
+    @Test
+    void testTranscribeFile_WebhookCompletesWithoutPolling() throws Exception {
+        TranscriberProperties properties = new TranscriberProperties();
+        properties.getWebhook().setEnabled(true);
+        properties.getWebhook().setPublicUrl("https://transcriber.example.com/");
+        properties.getWebhook().setSecret("webhook-secret");
+        properties.getWebhook().setDeadline(Duration.ofMinutes(5));
+        String baseUrl = mockWebServer.url("/v2").toString().replaceAll("/$", "");
+        TranscriptionService webhookService = new TranscriptionService("test-api-key", baseUrl,
+            TranscriptionExecutor.virtualThreads(), properties);
+
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"upload_url\": \"https://upload.assemblyai.com/test-file-url\"}")
+            .addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"id\": \"test-transcript-id\"}")
+            .addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody(objectMapper.writeValueAsString(createTestTranscriptResponse()))
+            .addHeader("Content-Type", "application/json"));
+
+        CompletableFuture<String> future = webhookService.transcribeFile(testAudioFile, "Alice", "Bob", progress -> {});
+
+        mockWebServer.takeRequest(5, TimeUnit.SECONDS);
+        RecordedRequest submitRequest = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
+        var submitted = objectMapper.readTree(submitRequest.getBody().readUtf8());
+        assertEquals("https://transcriber.example.com" + TranscriptionService.WEBHOOK_PATH,
+            submitted.get("webhook_url").asText());
+        assertEquals(TranscriptionService.WEBHOOK_AUTH_HEADER, submitted.get("webhook_auth_header_name").asText());
+        assertEquals("webhook-secret", submitted.get("webhook_auth_header_value").asText());
+
+        // Nothing is polled before the callback arrives
+        await().atMost(5, TimeUnit.SECONDS)
+            .until(() -> webhookService.handleWebhook("test-transcript-id", "completed"));
+
+        String result = future.get(5, TimeUnit.SECONDS);
+        assertTrue(result.contains("[Alice]: Hello from Alice"));
+        assertEquals(3, mockWebServer.getRequestCount());
+
+        webhookService.close();
+    }
+
+    @Test
+    void testTranscribeAudio_RepeatUploadIsServedFromCache() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"upload_url\": \"https://upload.assemblyai.com/test-file-url\"}")
+            .addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"id\": \"test-transcript-id\"}")
+            .addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody(objectMapper.writeValueAsString(createTestTranscriptResponse()))
+            .addHeader("Content-Type", "application/json"));
+
+        AudioSource audio = hashedAudio("same-recording");
+        transcriptionService.transcribeAudio(null, audio, "Alice", "Bob", progress -> {}).get(5, TimeUnit.SECONDS);
+
+        String renamed = transcriptionService.transcribeAudio(null, hashedAudio("same-recording"), "Carol", "Dave", progress -> {})
+            .get(5, TimeUnit.SECONDS).readText();
+        String cached = transcriptionService.transcribeCached(null, "same-recording", "Erin", "Frank", progress -> {})
+            .get(5, TimeUnit.SECONDS).readText();
+
+        assertTrue(renamed.contains("[Carol]: Hello from Alice"));
+        assertTrue(cached.contains("[Frank]: Hello from Bob"));
+        assertTrue(transcriptionService.hasCachedTranscript("same-recording"));
+        assertEquals(3, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testTranscribeAudio_ConcurrentIdenticalUploadsShareOneJob() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"upload_url\": \"https://upload.assemblyai.com/test-file-url\"}")
+            .setBodyDelay(200, TimeUnit.MILLISECONDS));
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"id\": \"test-transcript-id\"}"));
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody(objectMapper.writeValueAsString(createTestTranscriptResponse())));
+
+        CompletableFuture<TranscriptFile> first = transcriptionService.transcribeAudio(null, hashedAudio("shared"), "Alice", "Bob", progress -> {});
+        CompletableFuture<TranscriptFile> second = transcriptionService.transcribeAudio(null, hashedAudio("shared"), "Carol", "Dave", progress -> {});
+
+        assertTrue(first.get(5, TimeUnit.SECONDS).readText().contains("[Alice]: Hello from Alice"));
+        assertTrue(second.get(5, TimeUnit.SECONDS).readText().contains("[Carol]: Hello from Alice"));
+        assertEquals(3, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testTranscribeCached_FailsWithoutEarlierTranscript() {
+        CompletableFuture<TranscriptFile> future = transcriptionService.transcribeCached(null, "unknown", "Alice", "Bob", progress -> {});
+
+        assertThrows(Exception.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals(0, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testTranscribeAudio_RecordsJobForOwner() throws Exception {
+        enqueueSuccessfulTranscription();
+
+        transcriptionService.transcribeAudio("alice", AudioSource.of(testAudioFile), "Alice", "Bob", progress -> {})
+            .get(5, TimeUnit.SECONDS);
+
+        TranscriptionJob job = transcriptionService.findLatestJob("alice").orElseThrow();
+        assertEquals(TranscriptionJob.Status.COMPLETED, job.getStatus());
+        assertEquals("https://upload.assemblyai.com/test-file-url", job.getUploadUrl());
+        assertEquals("test-transcript-id", job.getTranscriptId());
+        assertTrue(new TranscriptFile(job.getId(), Path.of(job.getResultPath())).readText().contains("[Alice]: Hello from Alice"));
+    }
+
+    @Test
+    void testResumeJob_PollsTranscriptSubmittedBeforeRestart() throws Exception {
+        JobStore jobStore = JobStore.inMemory();
+        TranscriptionJob job = jobStore.create("alice", null, "Alice", "Bob");
+        jobStore.markSubmitted(job.getId(), "test-transcript-id");
+
+        String baseUrl = mockWebServer.url("/v2").toString().replaceAll("/$", "");
+        TranscriptionService restarted = new TranscriptionService("test-api-key", baseUrl,
+            TranscriptionExecutor.virtualThreads(), new TranscriberProperties(), jobStore);
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody(objectMapper.writeValueAsString(createTestTranscriptResponse())));
+
+        TranscriptionJob unfinished = jobStore.findUnfinished().get(0);
+        String result = restarted.resumeJob(unfinished).get(5, TimeUnit.SECONDS).readText();
+
+        assertTrue(result.contains("[Bob]: Hello from Bob"));
+        assertEquals("/v2/transcript/test-transcript-id", mockWebServer.takeRequest().getPath());
+        assertEquals(TranscriptionJob.Status.COMPLETED, jobStore.findById(job.getId()).orElseThrow().getStatus());
+        restarted.close();
+    }
+
+    @Test
+    void testResumeJob_FailsJobInterruptedDuringUpload() {
+        JobStore jobStore = JobStore.inMemory();
+        TranscriptionJob job = jobStore.create("alice", null, "Alice", "Bob");
+        TranscriptionService restarted = new TranscriptionService("test-api-key", "http://localhost",
+            TranscriptionExecutor.virtualThreads(), new TranscriberProperties(), jobStore);
+
+        assertThrows(Exception.class, () -> restarted.resumeJob(job).get(5, TimeUnit.SECONDS));
+        assertEquals(TranscriptionJob.Status.FAILED, jobStore.findById(job.getId()).orElseThrow().getStatus());
+        assertEquals(0, mockWebServer.getRequestCount());
+        restarted.close();
+    }
+
+    @Test
+    void testTranscribeFile_RateLimitedSubmitIsRetriedWithoutReupload() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"upload_url\": \"https://upload.assemblyai.com/test-file-url\"}"));
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(429)
+            .addHeader("Retry-After", "0"));
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"id\": \"test-transcript-id\"}"));
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(503));
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody(objectMapper.writeValueAsString(createTestTranscriptResponse())));
+
+        String result = transcriptionService.transcribeFile(testAudioFile, "Alice", "Bob", progress -> {})
+            .get(10, TimeUnit.SECONDS);
+
+        assertTrue(result.contains("[Alice]: Hello from Alice"));
+        assertEquals("/v2/upload", mockWebServer.takeRequest().getPath());
+        assertEquals("/v2/transcript", mockWebServer.takeRequest().getPath());
+        assertEquals("/v2/transcript", mockWebServer.takeRequest().getPath());
+        assertEquals(5, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void testTranscribeFile_UploadsWavAsMono16k() throws Exception {
+        // One second of 44.1 kHz 16 bit stereo silence
+        ByteBuffer buffer = ByteBuffer.allocate(44 + 176_400).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("RIFF".getBytes()).putInt(36 + 176_400).put("WAVE".getBytes());
+        buffer.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 2);
+        buffer.putInt(44_100).putInt(176_400).putShort((short) 4).putShort((short) 16);
+        buffer.put("data".getBytes()).putInt(176_400);
+        byte[] wav = buffer.array();
+        File wavFile = Files.createTempFile("test", ".wav").toFile();
+        wavFile.deleteOnExit();
+        Files.write(wavFile.toPath(), wav);
+        enqueueSuccessfulTranscription();
+        List<String> progress = new CopyOnWriteArrayList<>();
+
+        transcriptionService.transcribeFile(wavFile, "Alice", "Bob", progress::add).get(10, TimeUnit.SECONDS);
+
+        RecordedRequest uploadRequest = mockWebServer.takeRequest();
+        assertEquals("audio/wav", uploadRequest.getHeader("Content-Type"));
+        assertEquals(44 + 32_000, uploadRequest.getBodySize());
+        assertTrue(progress.stream().anyMatch(message -> message.startsWith("Uploaded 0.0 MB instead of 0.2 MB")));
+    }
+
+    @Test
+    void testTranscribeFile_SilentEndsAreNotUploadedAndTimestampsKeepTheirPlace() throws Exception {
+        // 16 kHz mono: 5 s of silence, 2 s of a tone, 5 s of silence
+        int sampleRate = 16_000;
+        int frames = sampleRate * 12;
+        ByteBuffer buffer = ByteBuffer.allocate(44 + frames * 2).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("RIFF".getBytes()).putInt(36 + frames * 2).put("WAVE".getBytes());
+        buffer.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 1);
+        buffer.putInt(sampleRate).putInt(sampleRate * 2).putShort((short) 2).putShort((short) 16);
+        buffer.put("data".getBytes()).putInt(frames * 2);
+        for (int i = 0; i < frames; i++) {
+            boolean tone = i >= 5 * sampleRate && i < 7 * sampleRate;
+            buffer.putShort(tone ? (short) Math.round(8000 * Math.sin(2 * Math.PI * 440 * i / sampleRate)) : 0);
+        }
+        File wavFile = Files.createTempFile("test", ".wav").toFile();
+        wavFile.deleteOnExit();
+        Files.write(wavFile.toPath(), buffer.array());
+        enqueueSuccessfulTranscription();
+        JobStore jobStore = JobStore.inMemory();
+        TranscriptionService service = new TranscriptionService("test-api-key",
+            mockWebServer.url("/v2").toString().replaceAll("/$", ""), TranscriptionExecutor.virtualThreads(),
+            new TranscriberProperties(), jobStore);
+
+        TranscriptFile file = service.transcribeAudio("alice", AudioSource.of(wavFile), "Alice", "Bob", progress -> {})
+            .get(10, TimeUnit.SECONDS);
+
+        // 0.5 s of padding is kept on both sides of the tone
+        RecordedRequest uploadRequest = mockWebServer.takeRequest();
+        assertEquals(44 + 3 * sampleRate * 2, uploadRequest.getBodySize());
+        String json = Files.readString(file.jsonPath());
+        assertTrue(json.contains("\"start\":4500"), json);
+        assertEquals(4500, jobStore.findLatest("alice").orElseThrow().getTimeOffsetMillis());
+        service.close();
+    }
+
+    @Test
+    void testTranscribeFile_LongWavIsSplitAtThePauseAndMerged() throws Exception {
+        File wavFile = wavWithPause();
+
+        // Parts are uploaded at the same time; the shorter one is the first
+        long firstPartBytes = 44 + 52_000 * 2;
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                if (path.endsWith("/upload")) {
+                    String part = request.getBodySize() == firstPartBytes ? "first" : "second";
+                    return new MockResponse().setBody("{\"upload_url\": \"https://upload.assemblyai.com/" + part + "\"}");
+                }
+                if (path.endsWith("/transcript")) {
+                    String part = request.getBody().readUtf8().contains("/first") ? "first" : "second";
+                    return new MockResponse().setBody("{\"id\": \"" + part + "\"}");
+                }
+                // The second part starts 1 s before the cut at 3.25 s, and repeats "one"
+                String utterances = path.endsWith("/first")
+                        ? "{\"speaker\": \"A\", \"text\": \"one\", \"start\": 0, \"end\": 3000}"
+                        : "{\"speaker\": \"B\", \"text\": \"one\", \"start\": 0, \"end\": 500},"
+                            + "{\"speaker\": \"B\", \"text\": \"two\", \"start\": 1500, \"end\": 5000}";
+                return new MockResponse().setBody("{\"id\": \"" + path.substring(path.lastIndexOf('/') + 1)
+                        + "\", \"status\": \"completed\", \"utterances\": [" + utterances + "]}");
+            }
+        });
+        TranscriptionService service = splittingService();
+        List<String> progress = new CopyOnWriteArrayList<>();
+
+        TranscriptFile file = service.transcribeAudio("alice", AudioSource.of(wavFile), "Alice", "Bob", progress::add)
+            .get(10, TimeUnit.SECONDS);
+
+        assertEquals(6, mockWebServer.getRequestCount());
+        assertTrue(progress.contains("Transcribing in 2 parts..."), progress.toString());
+        String json = Files.readString(file.jsonPath());
+        assertTrue(json.contains("\"id\":\"first+second\""), json);
+        assertTrue(json.contains("\"text\":\"one two\""), json);
+        // "two" keeps the first part's label for the same voice and its place in the recording
+        assertTrue(json.contains("{\"speaker\":\"A\",\"text\":\"two\",\"start\":3750"), json);
+        service.close();
+    }
+
+    @Test
+    void testTranscribeFile_FailedPartStopsTheOthers() throws Exception {
+        File wavFile = wavWithPause();
+        long firstPartBytes = 44 + 52_000 * 2;
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getPath().endsWith("/upload") && request.getBodySize() == firstPartBytes) {
+                    return new MockResponse().setResponseCode(500);
+                }
+                // The second part would only be answered after the test's deadline if it were not cancelled
+                return new MockResponse().setHeadersDelay(4, TimeUnit.SECONDS)
+                    .setBody("{\"upload_url\": \"https://upload.assemblyai.com/second\"}");
+            }
+        });
+        TranscriberProperties properties = splittingProperties();
+        OkHttpClient httpClient = HttpClientFactory.create(properties);
+        TranscriptionService service = new TranscriptionService("test-api-key",
+            mockWebServer.url("/v2").toString().replaceAll("/$", ""), TranscriptionExecutor.virtualThreads(),
+            properties, JobStore.inMemory(), new AdmissionController(properties.getAdmission()), httpClient,
+            new TranscriptionMetrics());
+
+        long start = System.nanoTime();
+        CompletableFuture<TranscriptFile> job = service.transcribeAudio("alice", AudioSource.of(wavFile), "Alice", "Bob", progress -> {});
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> job.get(10, TimeUnit.SECONDS));
+
+        assertTrue(exception.getCause().getCause().getMessage().startsWith("File upload failed: 500"),
+            exception.getCause().getCause().toString());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 3000, "The second upload was cancelled");
+        // The job only failed once no part had a call left, and neither got as far as submitting
+        assertEquals(0, httpClient.dispatcher().runningCallsCount());
+        assertEquals(2, mockWebServer.getRequestCount());
+        service.close();
+    }
+
+    @Test
+    void testEveryPhaseIsMeasured() throws Exception {
+        enqueueSuccessfulTranscription();
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+        TranscriberProperties properties = new TranscriberProperties();
+        TranscriptionMetrics metrics = new TranscriptionMetrics();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+        AdmissionController admission = new AdmissionController(properties.getAdmission());
+        admission.bindTo(registry);
+        TranscriptionService service = new TranscriptionService("test-api-key",
+            mockWebServer.url("/v2").toString().replaceAll("/$", ""), TranscriptionExecutor.virtualThreads(),
+            properties, JobStore.inMemory(), admission, HttpClientFactory.create(properties), metrics);
+
+        service.transcribeFile(testAudioFile, "Alice", "Bob", progress -> {}).get(10, TimeUnit.SECONDS);
+        CompletableFuture<String> failed = service.transcribeFile(testAudioFile, "Alice", "Bob", progress -> {});
+        assertThrows(Exception.class, () -> failed.get(10, TimeUnit.SECONDS));
+
+        DistributionSummary uploads = registry.get("transcriber.upload.size")
+            .tags("source", "file", "converted", "false").summary();
+        assertEquals(1, uploads.count());
+        assertEquals(testAudioFile.length(), uploads.totalAmount());
+        assertEquals(1, registry.get("transcriber.submit.duration").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get("transcriber.provider.polls").tag("outcome", "success").summary().totalAmount());
+        assertEquals(1, registry.get("transcriber.format.duration").timer().count());
+        assertEquals(2, registry.get("transcriber.queue.wait").timer().count());
+        assertEquals(1, registry.get("transcriber.job.duration").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get("transcriber.job.duration").tag("outcome", "failure").timer().count());
+        assertEquals(1, registry.get("transcriber.job.errors").tag("cause", "IOException").counter().count());
+        service.close();
+    }
+
+    @Test
+    void testJfrEventsFollowTheJob() throws Exception {
+        enqueueSuccessfulTranscription();
+        Path dump = Files.createTempFile("transcriber", ".jfr");
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            for (String event : List.of("Upload", "Submit", "Poll", "Format")) {
+                recording.enable("com.example.transcriber." + event);
+            }
+            recording.start();
+
+            transcriptionService.transcribeAudio("alice", AudioSource.of(testAudioFile), "Alice", "Bob", progress -> {})
+                .get(10, TimeUnit.SECONDS);
+
+            recording.stop();
+            recording.dump(dump);
+            events = RecordingFile.readAllEvents(dump);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+
+        String jobId = events.get(0).getString("jobId");
+        assertNotNull(jobId);
+        assertTrue(events.stream().allMatch(event -> jobId.equals(event.getString("jobId"))));
+        RecordedEvent upload = single(events, "com.example.transcriber.Upload");
+        assertEquals(testAudioFile.length(), upload.getLong("bytes"));
+        assertEquals("test-transcript-id", single(events, "com.example.transcriber.Submit").getString("transcriptId"));
+        RecordedEvent poll = single(events, "com.example.transcriber.Poll");
+        assertEquals(1, poll.getInt("attempt"));
+        assertEquals("completed", poll.getString("status"));
+        RecordedEvent format = single(events, "com.example.transcriber.Format");
+        assertEquals(2, format.getInt("utterances"));
+        assertTrue(format.getLong("outputBytes") > 0);
+    }
+
+    @Test
+    void testWarmUpOpensConnectionsAheadOfTheFirstJob() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+
+        transcriptionService.warmUpConnections();
+
+        RecordedRequest first = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
+        RecordedRequest second = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
+        assertEquals("HEAD", first.getMethod());
+        assertEquals("HEAD", second.getMethod());
+        // Neither carries the API key
+        assertNull(first.getHeader("Authorization"));
+    }
+
+    @Test
+    void testWebhookModeRequiresSecret() {
+        TranscriberProperties properties = new TranscriberProperties();
+        properties.getWebhook().setEnabled(true);
+        properties.getWebhook().setPublicUrl("https://transcriber.example.com");
+
+        assertThrows(IllegalStateException.class, () -> new TranscriptionService("test-api-key",
+            "http://localhost", TranscriptionExecutor.virtualThreads(), properties));
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+            .filter(event -> event.getEventType().getName().equals(name))
+            .toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+
+    private void enqueueSuccessfulTranscription() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"upload_url\": \"https://upload.assemblyai.com/test-file-url\"}"));
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody("{\"id\": \"test-transcript-id\"}"));
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setBody(objectMapper.writeValueAsString(createTestTranscriptResponse())));
+    }
+
+    private AudioSource hashedAudio(String contentHash) {
+        AudioSource file = AudioSource.of(testAudioFile);
+        return new AudioSource() {
+            @Override
+            public String getName() {
+                return file.getName();
+            }
+
+            @Override
+            public long length() {
+                return file.length();
+            }
+
+            @Override
+            public InputStream openStream() throws IOException {
+                return file.openStream();
+            }
+
+            @Override
+            public String getContentHash() {
+                return contentHash;
+            }
+        };
+    }
+
     private TranscriptResponse createTestTranscriptResponse() {
         TranscriptResponse response = new TranscriptResponse();
         response.setId("test-transcript-id");
@@ -259,4 +814,38 @@ class TranscriptionServiceTest {
         
         return response;
     }
-} 
\ No newline at end of file
+
+    /** 16 kHz mono: 3 s of a tone, 1 s of silence, 4 s of a tone */
+    private File wavWithPause() throws IOException {
+        int sampleRate = 16_000;
+        int frames = sampleRate * 8;
+        ByteBuffer buffer = ByteBuffer.allocate(44 + frames * 2).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("RIFF".getBytes()).putInt(36 + frames * 2).put("WAVE".getBytes());
+        buffer.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 1);
+        buffer.putInt(sampleRate).putInt(sampleRate * 2).putShort((short) 2).putShort((short) 16);
+        buffer.put("data".getBytes()).putInt(frames * 2);
+        for (int i = 0; i < frames; i++) {
+            boolean tone = i < 3 * sampleRate || i >= 4 * sampleRate;
+            buffer.putShort(tone ? (short) Math.round(8000 * Math.sin(2 * Math.PI * 440 * i / sampleRate)) : 0);
+        }
+        File wavFile = Files.createTempFile("test", ".wav").toFile();
+        wavFile.deleteOnExit();
+        Files.write(wavFile.toPath(), buffer.array());
+        return wavFile;
+    }
+
+    private TranscriberProperties splittingProperties() {
+        TranscriberProperties properties = new TranscriberProperties();
+        properties.getSplit().setEnabled(true);
+        properties.getSplit().setMaxSegments(2);
+        properties.getSplit().setMinSegmentLength(Duration.ofSeconds(2));
+        properties.getSplit().setOverlap(Duration.ofSeconds(1));
+        return properties;
+    }
+
+    private TranscriptionService splittingService() {
+        return new TranscriptionService("test-api-key",
+            mockWebServer.url("/v2").toString().replaceAll("/$", ""), TranscriptionExecutor.virtualThreads(),
+            splittingProperties(), JobStore.inMemory());
+    }
+}
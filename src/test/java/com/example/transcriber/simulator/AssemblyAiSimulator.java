@@ -0,0 +1,441 @@
+package com.example.transcriber.simulator;
+
+import com.example.transcriber.audio.AudioDurationEstimator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A stand-in for AssemblyAI's {@code /upload}, {@code /transcript} and {@code /transcript/{id}}
+ * endpoints, to see how many jobs a node sustains without an account or the network.
+ *
+ * An upload's audio duration is estimated from its header and size, as the service does.
+ * A transcript is queued for {@link Settings#queueDelay}, then processes for
+ * {@link Settings#processingPerAudioMinute} per minute of audio, and completes with
+ * synthetic diarized utterances at about 150 words per minute, or fails. Webhooks are
+ * called when a submission asks for them. Only the first bytes of an upload are kept.
+ *
+ * Run it on its own with {@code mvn -Psimulator test-compile exec:exec}, see README-Testing.md,
+ * and point {@code transcriber.api.base-url} at the URL it prints.
+ */
+@Slf4j
+public class AssemblyAiSimulator implements Closeable {
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private static final String[] WORDS = {
+        "the", "meeting", "we", "should", "probably", "review", "budget", "numbers", "before",
+        "friday", "and", "I", "think", "customers", "asked", "about", "delivery", "dates", "again",
+        "transcription", "quality", "looks", "good", "overall", "but", "some", "names", "are", "wrong"
+    };
+    private static final int WORDS_PER_MINUTE = 150;
+
+    @Data
+    public static class Settings {
+
+        /** Port to listen on, 0 for any free one */
+        private int port = 0;
+
+        /** Bandwidth all uploads share, served in arrival order; 0 for no limit */
+        private DataSize uploadBandwidth = DataSize.ofBytes(0);
+
+        /** Time a transcript waits before processing starts */
+        private Duration queueDelay = Duration.ofSeconds(3);
+
+        /** Processing time per minute of audio */
+        private Duration processingPerAudioMinute = Duration.ofSeconds(15);
+
+        /** Fraction of transcripts that end with status {@code error} */
+        private double failureRate = 0;
+
+        /** Fraction of requests answered with 429 and a Retry-After */
+        private double throttleRate = 0;
+
+        /** Fraction of requests answered with 503 */
+        private double serverErrorRate = 0;
+
+        /** Retry-After sent with a 429, rounded up to whole seconds */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        /** Speakers in a transcript unless the submission asks for a number */
+        private int speakers = 2;
+
+        /** Whether to add per-word timings, which make up most of a real response */
+        private boolean words = true;
+
+        /** Seed of the injected faults and the synthetic text */
+        private long seed = 42;
+    }
+
+    /**
+     * Totals since the simulator started
+     *
+     * @param processing transcripts submitted that have not reached a final status
+     */
+    public record Stats(long uploads, long uploadedBytes, long submitted, long processing, long polls,
+                        long completed, long failed, long throttled, long serverErrors, long webhooks) {
+    }
+
+    private record Upload(Duration audioDuration) {
+    }
+
+    private record Transcript(String id, Duration audioDuration, int speakers, long queuedUntil, long readyAt,
+                              boolean fails) {
+
+        String status(long now) {
+            return now < queuedUntil ? "queued" : now < readyAt ? "processing" : fails ? "error" : "completed";
+        }
+    }
+
+    private final Settings settings;
+    private final MockWebServer server = new MockWebServer();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Random random;
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+    private final Map<String, Transcript> transcripts = new ConcurrentHashMap<>();
+    // Transcripts whose final status has been polled
+    private final Set<String> finished = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService webhooks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "simulator-webhooks");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final OkHttpClient webhookClient = new OkHttpClient();
+    // When the shared upload link is next free, in System.nanoTime()
+    private long uploadLinkFreeAt = Long.MIN_VALUE;
+
+    private final AtomicLong uploadCount = new AtomicLong();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong serverErrors = new AtomicLong();
+    private final AtomicLong webhookCalls = new AtomicLong();
+
+    public AssemblyAiSimulator(Settings settings) {
+        this.settings = settings;
+        this.random = new Random(settings.getSeed());
+        // Enough of an upload to estimate its duration, and all of a submission
+        server.setBodyLimit(AudioDurationEstimator.HEADER_BYTES);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                // MockWebServer keeps every request for takeRequest(); a long run would fill the heap
+                while (server.takeRequest(0, TimeUnit.NANOSECONDS) != null) {
+                }
+                try {
+                    return handle(request);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Simulator could not answer {} {}", request.getMethod(), request.getPath(), e);
+                    return error(500, "Internal server error");
+                }
+            }
+        });
+    }
+
+    public AssemblyAiSimulator start() throws IOException {
+        server.start(settings.getPort());
+        return this;
+    }
+
+    /**
+     * What to set {@code transcriber.api.base-url} to
+     */
+    public String baseUrl() {
+        return server.url("/v2").toString();
+    }
+
+    public Stats stats() {
+        long now = System.nanoTime();
+        long processing = transcripts.values().stream().filter(t -> now < t.readyAt()).count();
+        return new Stats(uploadCount.get(), uploadedBytes.get(), submitted.get(), processing, polls.get(),
+                completed.get(), failed.get(), throttled.get(), serverErrors.get(), webhookCalls.get());
+    }
+
+    @Override
+    public void close() throws IOException {
+        webhooks.shutdownNow();
+        webhookClient.dispatcher().executorService().shutdown();
+        webhookClient.connectionPool().evictAll();
+        server.shutdown();
+    }
+
+    private MockResponse handle(RecordedRequest request) throws IOException {
+        String method = request.getMethod();
+        String path = request.getRequestUrl().encodedPath();
+        if ("HEAD".equals(method)) {
+            // Connection warm-up
+            return new MockResponse();
+        }
+        String authorization = request.getHeader("Authorization");
+        if (authorization == null || authorization.isBlank()) {
+            return error(401, "Authentication error, API token missing/invalid");
+        }
+
+        double roll = random.nextDouble();
+        if (roll < settings.getThrottleRate()) {
+            throttled.incrementAndGet();
+            long seconds = Math.max(1, (settings.getRetryAfter().toMillis() + 999) / 1000);
+            return error(429, "Too Many Requests").setHeader("Retry-After", seconds);
+        }
+        if (roll < settings.getThrottleRate() + settings.getServerErrorRate()) {
+            serverErrors.incrementAndGet();
+            return error(503, "Service Unavailable");
+        }
+
+        if ("POST".equals(method) && path.endsWith("/upload")) {
+            return upload(request);
+        }
+        if ("POST".equals(method) && path.endsWith("/transcript")) {
+            return submit(request);
+        }
+        int transcriptPath = path.lastIndexOf("/transcript/");
+        if ("GET".equals(method) && transcriptPath >= 0) {
+            return poll(path.substring(transcriptPath + "/transcript/".length()));
+        }
+        return error(404, "Not found");
+    }
+
+    private MockResponse upload(RecordedRequest request) {
+        long bytes = request.getBodySize();
+        byte[] header = request.getBody().readByteArray();
+        String id = UUID.randomUUID().toString();
+        uploads.put(id, new Upload(AudioDurationEstimator.estimate(header, header.length, bytes)));
+        uploadCount.incrementAndGet();
+        uploadedBytes.addAndGet(bytes);
+
+        MockResponse response = json(Map.of("upload_url", server.url("/files/" + id).toString()));
+        long bandwidth = settings.getUploadBandwidth().toBytes();
+        if (bandwidth > 0) {
+            // The body arrived at loopback speed; answer when it would have over the shared link
+            long transferNanos = bytes * 1_000_000_000L / bandwidth;
+            long now = System.nanoTime();
+            long done;
+            synchronized (this) {
+                uploadLinkFreeAt = Math.max(uploadLinkFreeAt, now) + transferNanos;
+                done = uploadLinkFreeAt;
+            }
+            response.setHeadersDelay(done - now, TimeUnit.NANOSECONDS);
+        }
+        return response;
+    }
+
+    private MockResponse submit(RecordedRequest request) throws IOException {
+        JsonNode body = objectMapper.readTree(request.getBody().readUtf8());
+        String audioUrl = body.path("audio_url").asText("");
+        Upload upload = uploads.get(audioUrl.substring(audioUrl.lastIndexOf('/') + 1));
+        if (upload == null) {
+            return error(400, "Download error, unable to download " + audioUrl);
+        }
+
+        long now = System.nanoTime();
+        long queuedUntil = now + settings.getQueueDelay().toNanos();
+        long processing = (long) (settings.getProcessingPerAudioMinute().toNanos()
+                * (upload.audioDuration().toMillis() / 60_000.0));
+        int speakers = body.path("speakers_expected").asInt(settings.getSpeakers());
+        Transcript transcript = new Transcript(UUID.randomUUID().toString(), upload.audioDuration(),
+                Math.max(1, speakers), queuedUntil, queuedUntil + processing,
+                random.nextDouble() < settings.getFailureRate());
+        transcripts.put(transcript.id(), transcript);
+        submitted.incrementAndGet();
+
+        String webhookUrl = body.path("webhook_url").asText(null);
+        if (webhookUrl != null) {
+            String headerName = body.path("webhook_auth_header_name").asText(null);
+            String headerValue = body.path("webhook_auth_header_value").asText(null);
+            webhooks.schedule(() -> callWebhook(transcript, webhookUrl, headerName, headerValue),
+                    transcript.readyAt() - now, TimeUnit.NANOSECONDS);
+        }
+        return json(Map.of("id", transcript.id(), "status", "queued"));
+    }
+
+    private MockResponse poll(String id) throws IOException {
+        polls.incrementAndGet();
+        Transcript transcript = transcripts.get(id);
+        if (transcript == null) {
+            return error(404, "Transcript not found");
+        }
+        String status = transcript.status(System.nanoTime());
+        switch (status) {
+            case "completed" -> {
+                // Counted once, though e.g. a resumed job polls it again
+                if (finished.add(id)) {
+                    completed.incrementAndGet();
+                }
+                return new MockResponse()
+                        .setHeader("Content-Type", JSON)
+                        .setBody(completedTranscript(transcript));
+            }
+            case "error" -> {
+                if (finished.add(id)) {
+                    failed.incrementAndGet();
+                }
+                return json(Map.of("id", id, "status", status, "error", "Simulated transcription failure"));
+            }
+            default -> {
+                return json(Map.of("id", id, "status", status));
+            }
+        }
+    }
+
+    private void callWebhook(Transcript transcript, String url, String headerName, String headerValue) {
+        Map<String, String> payload = Map.of("transcript_id", transcript.id(),
+                "status", transcript.fails() ? "error" : "completed");
+        Request.Builder request = new Request.Builder().url(url);
+        if (headerName != null && headerValue != null) {
+            request.header(headerName, headerValue);
+        }
+        try {
+            request.post(RequestBody.create(objectMapper.writeValueAsBytes(payload), JSON));
+            try (Response response = webhookClient.newCall(request.build()).execute()) {
+                webhookCalls.incrementAndGet();
+                if (!response.isSuccessful()) {
+                    log.warn("Webhook {} for transcript {} answered {}", url, transcript.id(), response.code());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Webhook {} for transcript {} failed: {}", url, transcript.id(), e.toString());
+        }
+    }
+
+    /**
+     * The same transcript for the same ID: the speakers take turns every 10 to 50 words
+     */
+    private Buffer completedTranscript(Transcript transcript) throws IOException {
+        Random text = new Random(settings.getSeed() ^ transcript.id().hashCode());
+        int totalWords = (int) (transcript.audioDuration().toMillis() * WORDS_PER_MINUTE / 60_000);
+        int millisPerWord = 60_000 / WORDS_PER_MINUTE;
+        String[] words = new String[totalWords];
+        for (int i = 0; i < totalWords; i++) {
+            words[i] = WORDS[text.nextInt(WORDS.length)];
+        }
+
+        Buffer buffer = new Buffer();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(buffer.outputStream())) {
+            json.writeStartObject();
+            json.writeStringField("id", transcript.id());
+            json.writeStringField("status", "completed");
+            json.writeNumberField("audio_duration", transcript.audioDuration().toMillis() / 1000.0);
+            json.writeStringField("text", String.join(" ", words));
+            json.writeArrayFieldStart("utterances");
+            int speaker = 0;
+            for (int first = 0; first < totalWords; ) {
+                int length = Math.min(totalWords - first, 10 + text.nextInt(40));
+                String label = String.valueOf((char) ('A' + speaker));
+                json.writeStartObject();
+                json.writeStringField("speaker", label);
+                json.writeStringField("text", String.join(" ", Arrays.asList(words).subList(first, first + length)));
+                json.writeNumberField("start", first * millisPerWord);
+                json.writeNumberField("end", (first + length) * millisPerWord);
+                json.writeNumberField("confidence", 0.8 + text.nextDouble() * 0.2);
+                if (settings.isWords()) {
+                    json.writeArrayFieldStart("words");
+                    for (int i = first; i < first + length; i++) {
+                        json.writeStartObject();
+                        json.writeStringField("text", words[i]);
+                        json.writeNumberField("start", i * millisPerWord);
+                        json.writeNumberField("end", (i + 1) * millisPerWord);
+                        json.writeNumberField("confidence", 0.8 + text.nextDouble() * 0.2);
+                        json.writeStringField("speaker", label);
+                        json.writeEndObject();
+                    }
+                    json.writeEndArray();
+                }
+                json.writeEndObject();
+                first += length;
+                speaker = (speaker + 1) % transcript.speakers();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        return buffer;
+    }
+
+    private MockResponse json(Map<String, ?> body) {
+        try {
+            return new MockResponse()
+                    .setHeader("Content-Type", JSON)
+                    .setBody(objectMapper.writeValueAsString(body));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MockResponse error(int code, String message) {
+        return json(Map.of("error", message)).setResponseCode(code);
+    }
+
+    /**
+     * Run until interrupted, logging the totals every 10 seconds. Settings are given as
+     * {@code --name=value} in the form of the properties files, e.g.
+     * {@code --port=8089 --queue-delay=5s --upload-bandwidth=100MB --throttle-rate=0.05}.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            values.put("simulator." + arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        Settings settings = new Binder(new MapConfigurationPropertySource(values))
+                .bindOrCreate("simulator", Bindable.of(Settings.class));
+        if (!values.containsKey("simulator.port")) {
+            settings.setPort(8089);
+        }
+
+        AssemblyAiSimulator simulator = new AssemblyAiSimulator(settings).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                simulator.close();
+            } catch (IOException e) {
+                log.warn("Could not stop the simulator", e);
+            }
+        }));
+        log.info("AssemblyAI simulator listening, set transcriber.api.base-url={} ({})", simulator.baseUrl(), settings);
+
+        Stats last = null;
+        while (!Thread.currentThread().isInterrupted()) {
+            Thread.sleep(10_000);
+            Stats stats = simulator.stats();
+            if (!stats.equals(last)) {
+                log.info("{}", stats);
+                last = stats;
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.transcriber.simulator;
+
+import com.example.transcriber.config.TranscriberProperties;
+import com.example.transcriber.service.TranscriptionExecutor;
+import com.example.transcriber.service.TranscriptionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssemblyAiSimulatorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OkHttpClient client = new OkHttpClient();
+    private AssemblyAiSimulator simulator;
+    private File audioFile;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (simulator != null) {
+            simulator.close();
+        }
+        if (audioFile != null) {
+            audioFile.delete();
+        }
+    }
+
+    @Test
+    void testServiceTranscribesAgainstTheSimulator() throws Exception {
+        AssemblyAiSimulator.Settings settings = new AssemblyAiSimulator.Settings();
+        settings.setQueueDelay(Duration.ofMillis(100));
+        settings.setProcessingPerAudioMinute(Duration.ofMillis(200));
+        simulator = new AssemblyAiSimulator(settings).start();
+
+        // One minute of 128 kbps audio as far as the duration estimate is concerned
+        audioFile = audio(960_000);
+        TranscriptionService service = new TranscriptionService("test-api-key",
+                simulator.baseUrl().replaceAll("/$", ""), TranscriptionExecutor.virtualThreads(), fastPolling());
+        String text = service.transcribeFile(audioFile, "Alice", "Bob", message -> { })
+                .get(10, TimeUnit.SECONDS);
+
+        assertTrue(text.contains("Alice"), text);
+        assertTrue(text.contains("Bob"), text);
+        AssemblyAiSimulator.Stats stats = simulator.stats();
+        assertEquals(1, stats.uploads());
+        assertEquals(960_000, stats.uploadedBytes());
+        assertEquals(1, stats.submitted());
+        assertEquals(1, stats.completed());
+        assertEquals(0, stats.processing());
+        service.close();
+    }
+
+    @Test
+    void testTranscriptIsQueuedThenProcessedForItsAudioLength() throws Exception {
+        AssemblyAiSimulator.Settings settings = new AssemblyAiSimulator.Settings();
+        settings.setQueueDelay(Duration.ofMillis(300));
+        settings.setProcessingPerAudioMinute(Duration.ofMillis(300));
+        simulator = new AssemblyAiSimulator(settings).start();
+
+        String uploadUrl = post("/upload", RequestBody.create(new byte[1_920_000])).path("upload_url").asText();
+        String id = post("/transcript", RequestBody.create(
+                "{\"audio_url\": \"" + uploadUrl + "\", \"speaker_labels\": true, \"speakers_expected\": 3}",
+                MediaType.parse("application/json"))).path("id").asText();
+
+        assertEquals("queued", get("/transcript/" + id).path("status").asText());
+        await().atMost(Duration.ofSeconds(2)).until(() -> "processing".equals(get("/transcript/" + id).path("status").asText()));
+        await().atMost(Duration.ofSeconds(2)).until(() -> "completed".equals(get("/transcript/" + id).path("status").asText()));
+
+        JsonNode transcript = get("/transcript/" + id);
+        assertEquals(120.0, transcript.path("audio_duration").asDouble());
+        assertEquals(300, transcript.path("text").asText().split(" ").length);
+        assertEquals("C", transcript.path("utterances").path(2).path("speaker").asText());
+        assertEquals(transcript, get("/transcript/" + id));
+    }
+
+    @Test
+    void testInjectedFaults() throws Exception {
+        AssemblyAiSimulator.Settings settings = new AssemblyAiSimulator.Settings();
+        settings.setThrottleRate(1);
+        settings.setRetryAfter(Duration.ofSeconds(2));
+        simulator = new AssemblyAiSimulator(settings).start();
+
+        try (Response response = client.newCall(request("/transcript/any").build()).execute()) {
+            assertEquals(429, response.code());
+            assertEquals("2", response.header("Retry-After"));
+        }
+        settings.setThrottleRate(0);
+        settings.setQueueDelay(Duration.ZERO);
+        settings.setFailureRate(1);
+        audioFile = audio(16_000);
+        TranscriptionService service = new TranscriptionService("test-api-key",
+                simulator.baseUrl().replaceAll("/$", ""), TranscriptionExecutor.virtualThreads(), fastPolling());
+        CompletableFuture<String> future = service.transcribeFile(audioFile, "Alice", "Bob", message -> { });
+
+        assertThrows(Exception.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertEquals(1, simulator.stats().throttled());
+        assertEquals(1, simulator.stats().failed());
+        service.close();
+    }
+
+    private TranscriberProperties fastPolling() {
+        TranscriberProperties properties = new TranscriberProperties();
+        properties.getPolling().setMinInterval(Duration.ofMillis(50));
+        properties.getPolling().setBaseLatency(Duration.ZERO);
+        properties.getPolling().setInitialSecondsPerAudioMinute(0);
+        properties.getHttp().setWarmConnections(0);
+        return properties;
+    }
+
+    private File audio(int bytes) throws IOException {
+        // Silence without a WAV or MP3 header, so the duration is estimated at 128 kbps
+        byte[] content = new byte[bytes];
+        File file = Files.createTempFile("simulated", ".mp3").toFile();
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    private Request.Builder request(String path) {
+        return new Request.Builder()
+                .url(simulator.baseUrl() + path)
+                .header("Authorization", "test-api-key");
+    }
+
+    private JsonNode post(String path, RequestBody body) throws IOException {
+        try (Response response = client.newCall(request(path).post(body).build()).execute()) {
+            assertEquals(200, response.code());
+            return objectMapper.readTree(response.body().byteStream());
+        }
+    }
+
+    private JsonNode get(String path) throws IOException {
+        try (Response response = client.newCall(request(path).build()).execute()) {
+            assertEquals(200, response.code());
+            return objectMapper.readTree(response.body().byteStream());
+        }
+    }
+}
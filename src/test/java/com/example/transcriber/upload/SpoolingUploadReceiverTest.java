@@ -0,0 +1,119 @@
+package com.example.transcriber.upload;
+
+import com.example.transcriber.config.TranscriberProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpoolingUploadReceiverTest {
+
+    @TempDir
+    Path spoolDirectory;
+
+    private TranscriberProperties.Upload properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TranscriberProperties.Upload();
+        properties.setMode(TranscriberProperties.Upload.Mode.SPOOL);
+        properties.setSpoolDirectory(spoolDirectory.toString());
+        properties.setMemoryThreshold(DataSize.ofKilobytes(1));
+    }
+
+    @Test
+    void testSmallUploadStaysInMemory() throws IOException {
+        UploadBudget budget = new UploadBudget(4096, 1024 * 1024, Duration.ZERO);
+        SpoolingUploadReceiver receiver = new SpoolingUploadReceiver(properties, budget);
+
+        try (OutputStream out = receiver.receiveUpload("small.mp3", "audio/mpeg")) {
+            out.write(new byte[512]);
+        }
+
+        SpooledUpload upload = receiver.getCurrentUpload();
+        assertTrue(upload.isInMemory());
+        assertEquals(512, upload.length());
+        assertEquals(1024, budget.getMemoryInUse());
+        assertEquals(0, budget.getDiskInUse());
+        assertEquals(0, countSpoolFiles());
+
+        upload.discard();
+        assertEquals(0, budget.getMemoryInUse());
+    }
+
+    @Test
+    void testLargeUploadSpillsToSpoolDirectory() throws IOException {
+        UploadBudget budget = new UploadBudget(4096, 16 * 1024 * 1024, Duration.ZERO);
+        SpoolingUploadReceiver receiver = new SpoolingUploadReceiver(properties, budget);
+
+        byte[] audio = new byte[10_000];
+        for (int i = 0; i < audio.length; i++) {
+            audio[i] = (byte) i;
+        }
+        try (OutputStream out = receiver.receiveUpload("large.mp3", "audio/mpeg")) {
+            out.write(audio);
+        }
+
+        SpooledUpload upload = receiver.getCurrentUpload();
+        assertFalse(upload.isInMemory());
+        assertEquals(audio.length, upload.length());
+        assertEquals(1, countSpoolFiles());
+        assertTrue(budget.getDiskInUse() > 0);
+
+        try (InputStream in = upload.openStream()) {
+            assertArrayEquals(audio, in.readAllBytes());
+        }
+
+        upload.discard();
+        assertEquals(0, countSpoolFiles());
+        assertEquals(0, budget.getMemoryInUse());
+        assertEquals(0, budget.getDiskInUse());
+    }
+
+    @Test
+    void testUploadRejectedWhenMemoryBudgetExhausted() throws IOException {
+        UploadBudget budget = new UploadBudget(1024, 1024 * 1024, Duration.ofSeconds(30));
+        SpoolingUploadReceiver first = new SpoolingUploadReceiver(properties, budget);
+        SpoolingUploadReceiver second = new SpoolingUploadReceiver(properties, budget);
+
+        first.receiveUpload("first.mp3", "audio/mpeg").close();
+
+        // Rejected at once rather than after the queue timeout, as Vaadin holds the session lock meanwhile
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                assertThrows(UncheckedIOException.class, () -> second.receiveUpload("second.mp3", "audio/mpeg")));
+
+        // Capacity returns once the first upload is released
+        first.abort();
+        second.receiveUpload("second.mp3", "audio/mpeg").close();
+        assertNotNull(second.getCurrentUpload());
+    }
+
+    @Test
+    void testUploadRejectedWhenDiskBudgetExhausted() throws IOException {
+        UploadBudget budget = new UploadBudget(4096, 1024 * 1024, Duration.ZERO);
+        SpoolingUploadReceiver receiver = new SpoolingUploadReceiver(properties, budget);
+
+        OutputStream out = receiver.receiveUpload("huge.mp3", "audio/mpeg");
+        assertThrows(IOException.class, () -> out.write(new byte[3 * 1024 * 1024]));
+
+        receiver.abort();
+        assertEquals(0, budget.getMemoryInUse());
+        assertEquals(0, budget.getDiskInUse());
+    }
+
+    private long countSpoolFiles() throws IOException {
+        try (var files = Files.list(spoolDirectory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.transcriber.view;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.server.Command;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProgressChannelTest {
+
+    private final List<String> shown = new CopyOnWriteArrayList<>();
+    private UI ui;
+
+    @BeforeEach
+    void setUp() {
+        ui = mock(UI.class);
+        when(ui.access(any())).thenAnswer(invocation -> {
+            invocation.<Command>getArgument(0).execute();
+            return null;
+        });
+    }
+
+    @Test
+    void testBurstIsCoalescedIntoTheLatestMessage() throws Exception {
+        ProgressChannel channel = new ProgressChannel(ui, Duration.ofMillis(300), shown::add);
+
+        channel.publish("Uploading file...");
+        for (int i = 1; i <= 100; i++) {
+            channel.publish("Processing " + i + "%");
+        }
+
+        // The first message goes out at once, the rest wait for the interval
+        assertEquals(List.of("Uploading file..."), shown);
+        await().atMost(Duration.ofSeconds(2)).until(() -> shown.size() == 2);
+        assertEquals("Processing 100%", shown.get(1));
+        Thread.sleep(500);
+        assertEquals(2, shown.size());
+        verify(ui, times(2)).access(any());
+    }
+
+    @Test
+    void testNothingIsShownAfterClose() throws Exception {
+        ProgressChannel channel = new ProgressChannel(ui, Duration.ofMillis(100), shown::add);
+
+        channel.publish("Submitting...");
+        channel.publish("Waiting for AssemblyAI...");
+        channel.close();
+        channel.publish("Formatting...");
+        Thread.sleep(300);
+
+        assertEquals(List.of("Submitting..."), shown);
+    }
+
+    @Test
+    void testDetachedUiClosesTheChannel() {
+        doThrow(new UIDetachedException()).when(ui).access(any());
+        ProgressChannel channel = new ProgressChannel(ui, Duration.ZERO, shown::add);
+
+        channel.publish("Uploading file...");
+        channel.publish("Submitting...");
+
+        verify(ui, times(1)).access(any());
+        assertTrue(shown.isEmpty());
+    }
+}
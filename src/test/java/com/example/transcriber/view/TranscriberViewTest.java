@@ -1,6 +1,12 @@
 package com.example.transcriber.view;
 
+import com.example.transcriber.config.TranscriberProperties;
+import com.example.transcriber.job.TranscriptFile;
+import com.example.transcriber.service.StreamingUpload;
 import com.example.transcriber.service.TranscriptionService;
+import com.example.transcriber.upload.SpooledUpload;
+import com.example.transcriber.upload.UploadBudget;
+import com.vaadin.flow.component.ComponentUtil;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.html.H1;
@@ -15,11 +21,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,7 +47,8 @@ class TranscriberViewTest {
         // Mock the UI.getCurrent() call
         UI.setCurrent(mockUI);
         
-        transcriberView = new TranscriberView(transcriptionService);
+        TranscriberProperties properties = new TranscriberProperties();
+        transcriberView = new TranscriberView(transcriptionService, properties, new UploadBudget(properties));
     }
 
     @Test
@@ -131,15 +141,32 @@ class TranscriberViewTest {
         Button transcribeButton = getFieldByAccessor("transcribeButton");
         assertFalse(transcribeButton.isEnabled(), "Button should be disabled initially");
 
-        // Simulate file upload by setting uploadedFile
-        File mockFile = new File("test.mp3");
-        ReflectionTestUtils.setField(transcriberView, "uploadedFile", mockFile);
+        // Simulate a finished streaming upload
+        StreamingUpload streamingUpload = mock(StreamingUpload.class);
+        when(streamingUpload.isFailed()).thenReturn(false);
+        ReflectionTestUtils.setField(transcriberView, "currentUpload", streamingUpload);
         
         // Call updateUIState method
         ReflectionTestUtils.invokeMethod(transcriberView, "updateUIState");
         
-        // Note: This test might need adjustment based on actual file existence check
-        // The real implementation checks if file exists, so this test demonstrates the concept
+        assertTrue(transcribeButton.isEnabled(), "Button should be enabled once the upload succeeded");
+    }
+
+    @Test
+    void testLeavingThePageKeepsTheRecordingOfARunningJob() {
+        SpooledUpload spooledUpload = mock(SpooledUpload.class);
+        ReflectionTestUtils.setField(transcriberView, "spooledUpload", spooledUpload);
+        CompletableFuture<TranscriptFile> job = new CompletableFuture<>();
+        when(transcriptionService.transcribeAudio(isNull(), eq(spooledUpload), anyString(), anyString(), any()))
+                .thenReturn(job);
+
+        ReflectionTestUtils.invokeMethod(transcriberView, "startTranscription");
+        ComponentUtil.onComponentDetach(transcriberView);
+        verify(spooledUpload, never()).discard();
+
+        // The job hands the recording back once it is done with it
+        job.completeExceptionally(new IOException("Transcription failed"));
+        verify(spooledUpload).discard();
     }
 
     @Test
@@ -0,0 +1,148 @@
+package com.example.transcriber.web;
+
+import com.example.transcriber.export.TranscriptExporter;
+import com.example.transcriber.job.JobStore;
+import com.example.transcriber.job.TranscriptFile;
+import com.example.transcriber.job.TranscriptStore;
+import com.example.transcriber.job.TranscriptionJob;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TranscriptDownloadControllerTest {
+
+    private static final String TRANSCRIPT = "[Alice]: Hello\n\n[Bob]: Hi there\n\n";
+
+    @TempDir
+    Path directory;
+
+    private MockMvc mockMvc;
+    private String jobId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JobStore jobStore = JobStore.inMemory();
+        TranscriptionJob job = jobStore.create("alice", null, "Alice", "Bob");
+        TranscriptFile file = new TranscriptStore(directory, Duration.ofDays(1)).write(job.getId(),
+            out -> out.write(TRANSCRIPT),
+            out -> out.write("{\"utterances\": [{\"speaker\": \"A\", \"text\": \"Hello\", \"start\": 0, \"end\": 1500}]}"));
+        jobStore.markCompleted(job.getId(), file.path().toString());
+        jobId = job.getId();
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new TranscriptDownloadController(jobStore, new TranscriptExporter(new ObjectMapper(), 10))).build();
+    }
+
+    @Test
+    void testDownloadsWholeTranscript() throws Exception {
+        mockMvc.perform(get("/transcripts/" + jobId).principal(() -> "alice"))
+            .andExpect(status().isOk())
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, TRANSCRIPT.length()))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"Bob_transcript.txt\""))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(content().string(TRANSCRIPT));
+    }
+
+    @Test
+    void testDownloadsRenderedFormat() throws Exception {
+        mockMvc.perform(get("/transcripts/" + jobId).param("format", "srt").principal(() -> "alice")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"Bob_transcript.srt\""))
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andExpect(content().contentTypeCompatibleWith("application/x-subrip"))
+            .andExpect(content().string("1\n00:00:00,000 --> 00:00:01,500\nAlice: Hello\n\n"));
+    }
+
+    @Test
+    void testUnknownFormatIsRejected() throws Exception {
+        mockMvc.perform(get("/transcripts/" + jobId).param("format", "docx").principal(() -> "alice"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testOtherUsersCannotDownload() throws Exception {
+        mockMvc.perform(get("/transcripts/" + jobId).principal(() -> "mallory"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/transcripts/unknown-job").principal(() -> "alice"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testMatchingEtagIsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/transcripts/" + jobId).principal(() -> "alice"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/transcripts/" + jobId).principal(() -> "alice")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    void testServesRequestedRange() throws Exception {
+        mockMvc.perform(get("/transcripts/" + jobId).principal(() -> "alice")
+                .header(HttpHeaders.RANGE, "bytes=1-5"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1-5/" + TRANSCRIPT.length()))
+            .andExpect(content().string("Alice"));
+
+        mockMvc.perform(get("/transcripts/" + jobId).principal(() -> "alice")
+                .header(HttpHeaders.RANGE, "bytes=-12"))
+            .andExpect(status().isPartialContent())
+            .andExpect(content().string(TRANSCRIPT.substring(TRANSCRIPT.length() - 12)));
+    }
+
+    @Test
+    void testRangeBeyondEndIsNotSatisfiable() throws Exception {
+        mockMvc.perform(get("/transcripts/" + jobId).principal(() -> "alice")
+                .header(HttpHeaders.RANGE, "bytes=1000-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + TRANSCRIPT.length()));
+    }
+
+    @Test
+    void testServesCompressedCopyWhenAccepted() throws Exception {
+        MvcResult result = mockMvc.perform(get("/transcripts/" + jobId).principal(() -> "alice")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+            .andReturn();
+
+        byte[] body = result.getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(TRANSCRIPT, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testUsesSendfileWhenTomcatOffersIt() throws Exception {
+        MvcResult result = mockMvc.perform(get("/transcripts/" + jobId).principal(() -> "alice")
+                .requestAttr(TranscriptDownloadController.SENDFILE_SUPPORT, Boolean.TRUE))
+            .andExpect(status().isOk())
+            .andExpect(content().string(""))
+            .andReturn();
+
+        assertEquals(directory.resolve(jobId + ".txt").toAbsolutePath().toString(),
+            result.getRequest().getAttribute(TranscriptDownloadController.SENDFILE_FILENAME));
+        assertEquals((long) TRANSCRIPT.length(), result.getRequest().getAttribute(TranscriptDownloadController.SENDFILE_END));
+    }
+}
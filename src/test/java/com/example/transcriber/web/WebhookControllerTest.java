@@ -0,0 +1,85 @@
+package com.example.transcriber.web;
+
+import com.example.transcriber.config.TranscriberProperties;
+import com.example.transcriber.service.TranscriptionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookControllerTest {
+
+    private static final String PAYLOAD = "{\"transcript_id\": \"transcript-123\", \"status\": \"completed\"}";
+
+    @Mock
+    private TranscriptionService transcriptionService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        TranscriberProperties properties = new TranscriberProperties();
+        properties.getWebhook().setEnabled(true);
+        properties.getWebhook().setPublicUrl("https://transcriber.example.com");
+        properties.getWebhook().setSecret("webhook-secret");
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new WebhookController(transcriptionService, properties)).build();
+    }
+
+    @Test
+    void testValidCallbackSignalsTranscript() throws Exception {
+        when(transcriptionService.handleWebhook("transcript-123", "completed")).thenReturn(true);
+
+        mockMvc.perform(post(TranscriptionService.WEBHOOK_PATH)
+                .header(TranscriptionService.WEBHOOK_AUTH_HEADER, "webhook-secret")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(PAYLOAD))
+            .andExpect(status().isOk());
+
+        verify(transcriptionService).handleWebhook("transcript-123", "completed");
+    }
+
+    @Test
+    void testUnknownTranscriptIsStillAcknowledged() throws Exception {
+        when(transcriptionService.handleWebhook("transcript-123", "completed")).thenReturn(false);
+
+        mockMvc.perform(post(TranscriptionService.WEBHOOK_PATH)
+                .header(TranscriptionService.WEBHOOK_AUTH_HEADER, "webhook-secret")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(PAYLOAD))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void testWrongSecretIsRejected() throws Exception {
+        mockMvc.perform(post(TranscriptionService.WEBHOOK_PATH)
+                .header(TranscriptionService.WEBHOOK_AUTH_HEADER, "guessed-secret")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(PAYLOAD))
+            .andExpect(status().isUnauthorized());
+
+        verify(transcriptionService, never()).handleWebhook(anyString(), anyString());
+    }
+
+    @Test
+    void testMissingSecretIsRejected() throws Exception {
+        mockMvc.perform(post(TranscriptionService.WEBHOOK_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(PAYLOAD))
+            .andExpect(status().isUnauthorized());
+
+        verify(transcriptionService, never()).handleWebhook(anyString(), anyString());
+    }
+}